@@ -18,6 +18,7 @@ package com.mammb.code.editor.bootstrap;
 import java.util.Locale;
 import com.mammb.code.editor.platform.AppPaths;
 import com.mammb.code.editor.platform.LockFile;
+import com.mammb.code.editor.platform.StartupTimeline;
 import com.mammb.code.editor.ui.fx.AppLauncher;
 
 /**
@@ -38,12 +39,19 @@ public class Main {
      */
     static void main(String[] args) {
 
+        // hand the arguments over to the running instance, before the application classes are loaded
+        if (lockFile.forward(args)) {
+            System.exit(0);
+        }
+        StartupTimeline.mark("main");
+
         try {
             lockFile.tryLock();
         } catch (Exception e) {
             log.log(System.Logger.Level.ERROR, e);
             System.exit(1);
         }
+        StartupTimeline.mark("lock");
 
         // output logs and button names in English
         Locale.setDefault(Locale.US);
@@ -62,6 +70,7 @@ public class Main {
         System.setProperty("com.mammb.code.piecetable.core.gcInterval", "100");
 
         // launch application
+        StartupTimeline.mark("bootstrap");
         new AppLauncher().launch(args);
 
     }
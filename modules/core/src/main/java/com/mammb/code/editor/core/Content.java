@@ -23,8 +23,13 @@ import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import com.mammb.code.editor.core.Point.Range;
+import com.mammb.code.editor.core.model.GzipContent;
+import com.mammb.code.editor.core.model.JournaledContent;
+import com.mammb.code.editor.core.model.MappedContent;
 import com.mammb.code.editor.core.model.NamedContent;
 import com.mammb.code.editor.core.model.ReadonlyContent;
+import com.mammb.code.editor.core.model.SharedContent;
+import com.mammb.code.editor.core.model.StashedContent;
 import com.mammb.code.editor.core.model.TextEditContent;
 
 /**
@@ -173,6 +178,27 @@ public interface Content {
      */
     void reloadWith(Charset charset);
 
+    /**
+     * Reloads the content by applying only the rows changed on disk as edits,
+     * so that the undo history is kept.
+     * @param points the points to be moved along the changes, such as the carets
+     * @return the moved points, or empty if the content needs a full reload
+     */
+    default Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        return Optional.empty();
+    }
+
+    /**
+     * Appends the bytes written to the end of the file since the content was loaded.
+     * Only terminated rows are appended, and a content modified by the user is left as it is.
+     * The appended rows are not an edit, that is, they are not undone and the content remains unmodified.
+     * @return the number of rows appended, or {@code -1} if the file has been truncated
+     *     or replaced and the content needs to be reloaded
+     */
+    default int appendTail() {
+        return -1;
+    }
+
     /**
      * Writes the contents to the specified path.
      * This method is intended for backup path creation and other uses.
@@ -212,6 +238,13 @@ public interface Content {
      */
     <R> R query(Query<R> query);
 
+    /**
+     * Set the listener of the edits made through other views of the same file.
+     * Only a content shared between views notifies the edits.
+     * @param listener the listener
+     */
+    default void onSharedEdit(Consumer<SharedContent.Edit> listener) { }
+
     /**
      * Create a new {@link Content}.
      * @return a new {@link Content}
@@ -231,12 +264,28 @@ public interface Content {
 
     /**
      * Create a new {@link Content} from the specified path with the coll back.
+     * If the file is already open, the content is shared with the other views of the file.
      * @param path the specified path
      * @param consumer the progress callback
      * @return a new {@link Content}
      */
     static Content of(Path path, Consumer<Long> consumer) {
-        return new TextEditContent(path, consumer);
+        return of(path, null, consumer);
+    }
+
+    /**
+     * Create a new {@link Content} from the specified path with the coll back,
+     * whose edits are recorded to a journal in the specified directory.
+     * If the file is already open, the content is shared with the other views of the file.
+     * A gzip file is inflated as a read-only content.
+     * @param path the specified path
+     * @param journalDir the directory of the journals and the gzip spools, or {@code null} to not record the edits
+     * @param consumer the progress callback
+     * @return a new {@link Content}
+     */
+    static Content of(Path path, Path journalDir, Consumer<Long> consumer) {
+        if (GzipContent.isGzip(path)) return GzipContent.of(path, journalDir, consumer);
+        return SharedContent.acquire(path, p -> JournaledContent.of(new TextEditContent(p, consumer), journalDir));
     }
 
     /**
@@ -248,13 +297,64 @@ public interface Content {
         return new TextEditContent(bytes);
     }
 
+    /**
+     * Create a new read-only {@link Content} that maps the specified file into memory.
+     * Rows are decoded on demand, so that a huge file can be viewed with a small heap.
+     * A file whose rows cannot be split at {@code '\n'} bytes, such as UTF-16, is read
+     * into a read-only piece table instead.
+     * @param path the specified path
+     * @param spoolDir the directory of the gzip spools, or {@code null} for the temporary directory
+     * @param consumer the progress callback
+     * @return a new {@link Content}
+     */
+    static Content mappedOf(Path path, Path spoolDir, Consumer<Long> consumer) {
+        if (GzipContent.isGzip(path)) return GzipContent.of(path, spoolDir, consumer);
+        if (!MappedContent.supports(path)) return new ReadonlyContent(new TextEditContent(path, consumer));
+        return MappedContent.of(path, consumer);
+    }
+
+    /**
+     * Deletes the gzip spools left in the specified directory by a crash.
+     * @param spoolDir the directory of the gzip spools
+     */
+    static void deleteSpools(Path spoolDir) {
+        GzipContent.deleteSpools(spoolDir);
+    }
+
+    /**
+     * Gets whether the specified file can be viewed by {@link #progressiveOf(Path, Consumer)},
+     * that is, it is not compressed and its rows are split at {@code '\n'} bytes.
+     * @param path the specified path
+     * @return {@code true} if the file can be viewed progressively
+     */
+    static boolean progressive(Path path) {
+        return !GzipContent.isGzip(path) && MappedContent.supports(path);
+    }
+
+    /**
+     * Create a new read-only {@link Content} that is usable immediately,
+     * and whose rows grow while the memory-mapped file is indexed in the background.
+     * @param path the specified path
+     * @param consumer the progress callback, which accepts the number of bytes indexed,
+     *     the total reaches the size of the file when the index is complete
+     * @return a new {@link Content}
+     */
+    static Content progressiveOf(Path path, Consumer<Long> consumer) {
+        return MappedContent.progressiveOf(path, consumer);
+    }
+
     /**
      * Creates a new placeholder {@link Content} with the specified path.
      * The content is initialized as read-only with a predefined buffer size.
+     * A compressed file, or a file whose rows cannot be split at {@code '\n'} bytes
+     * such as UTF-16, has an empty placeholder.
      * @param path the path to be used for creating the placeholder content
      * @return a new {@link Content} instance representing a placeholder
      */
     static Content placeholderOf(Path path) {
+        if (GzipContent.isGzip(path) || !MappedContent.supports(path)) {
+            return new ReadonlyContent(NamedContent.of(new TextEditContent(), path.getFileName().toString()));
+        }
         return ReadonlyContent.of(path, 5_000);
     }
 
@@ -264,12 +364,34 @@ public interface Content {
      * @return the content created from the session paths or an empty content if no valid path is found
      */
     static Content of(Session session) {
+        return of(session, null);
+    }
+
+    /**
+     * Creates a {@link Content} instance based on the given session's paths,
+     * whose edits are recorded to a journal in the specified directory.
+     * A stash of the journal is restored by replaying it onto the file.
+     * @param session the session from which to retrieve content details
+     * @param journalDir the directory of the journals and the gzip spools, or {@code null} to not record the edits
+     * @return the content created from the session paths or an empty content if no valid path is found
+     */
+    static Content of(Session session, Path journalDir) {
 
         Content content;
-        if (Files.exists(session.altPath())) {
+        if (Files.exists(session.altPath()) && session.hasPath()
+                && Files.exists(session.path()) && !GzipContent.isGzip(session.path())) {
+            // the stash is restored into the shared buffer, which may be open in another view
+            content = SharedContent.restore(session, p -> JournaledContent.of(new TextEditContent(p), journalDir));
+        } else if (Files.exists(session.altPath()) && session.hasPath() && JournaledContent.isJournal(session.altPath())) {
+            content = JournaledContent.restore(session.altPath(), session.path(), journalDir);
+        } else if (Files.exists(session.altPath()) && session.hasPath()) {
+            content = StashedContent.of(session.altPath(), session.path(), session.lastModifiedTime(), session.charset());
+        } else if (Files.exists(session.altPath())) {
             content = NamedContent.interimOf(session.altPath(), session.preferredName());
+        } else if (GzipContent.isGzip(session.path())) {
+            content = GzipContent.of(session.path(), journalDir, _ -> { });
         } else if (Files.exists(session.path())) {
-            content = new TextEditContent(session.path());
+            content = SharedContent.acquire(session.path(), p -> JournaledContent.of(new TextEditContent(p), journalDir));
         } else {
             content = new TextEditContent();
         }
@@ -18,15 +18,21 @@ package com.mammb.code.editor.core;
 import com.mammb.code.editor.core.syntax.LexerSource;
 import com.mammb.code.editor.core.syntax.Syntax;
 import com.mammb.code.editor.core.syntax.handler.SyntaxHandler;
+import com.mammb.code.editor.core.text.RowText;
 import com.mammb.code.editor.core.text.Style.StyleSpan;
 import com.mammb.code.editor.core.text.SubText;
 import com.mammb.code.editor.core.text.Text;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 /**
  * The Decorate.
@@ -41,6 +47,16 @@ public interface Decorate {
      */
     List<StyleSpan> apply(Text text);
 
+    /**
+     * Lexes the specified texts ahead of time, so that the subsequent
+     * {@link #apply(Text)} for the same row value can use the result.
+     * This method may be called from a background worker.
+     * The results are dropped once {@code current} turns false.
+     * @param texts the texts
+     * @param current whether the texts are still current
+     */
+    void prefetch(List<? extends Text> texts, BooleanSupplier current);
+
     /**
      * Add a highlight on the specified row.
      * @param row the number of rows
@@ -107,6 +123,19 @@ public interface Decorate {
      */
     <T extends SyntaxHandler> T syntaxHandler(Class<T> type);
 
+    /**
+     * Get the statistics of {@link #apply(Text)} since the last call, and reset them.
+     * @return the statistics
+     */
+    Stats drainStats();
+
+    /**
+     * The statistics of decoration.
+     * @param lexedRows the number of rows lexed, excluding prefetched rows
+     * @param nanos the elapsed time in {@link #apply(Text)}
+     */
+    record Stats(int lexedRows, long nanos) { }
+
     /**
      * Create a new {@link Decorate}.
      * @param syntax the syntax
@@ -121,6 +150,13 @@ public interface Decorate {
      */
     class DecorateImpl implements Decorate {
 
+        /** The number of characters lexed beyond the visible range of a long row, and between checkpoints. */
+        private static final int LEX_MARGIN = 256;
+        /** The maximum number of long rows whose lexed spans are kept. */
+        private static final int LEXED_CAPACITY = 8;
+        /** The maximum number of prefetched rows. */
+        private static final int PREFETCH_CAPACITY = 512;
+
         /** The syntax. */
         private final Syntax syntax;
 
@@ -130,7 +166,57 @@ public interface Decorate {
         /** The flush style spans. */
         private final Map<Integer, List<StyleSpan>> flushes = new HashMap<>();
 
+        /** The prefetched syntax style spans keyed by row number. */
+        private final Map<Integer, Prefetched> prefetched = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Prefetched> eldest) {
+                return size() > PREFETCH_CAPACITY;
+            }
+        };
+
+        /**
+         * The prefetched syntax style spans.
+         * @param value the row value
+         * @param spans the style spans
+         * @param current whether the spans are still current, answered by the generation of the prefetch
+         */
+        private record Prefetched(String value, List<StyleSpan> spans, BooleanSupplier current) { }
+
+        /** The lexed heads of long rows keyed by row number. */
+        private final Map<Integer, LexedHead> lexedHeads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LexedHead> eldest) {
+                return size() > LEXED_CAPACITY;
+            }
+        };
+
+        /**
+         * The style spans of the head of a long row, lexed up to the index.
+         * The checkpoints are the offsets outside any span, about every {@link #LEX_MARGIN}
+         * characters, from which the lexing is resumed when the head is extended.
+         * @param value the row value, compared by identity
+         * @param to the index lexed up to (exclusive)
+         * @param spans the style spans in the order of offset
+         * @param checkpoints the offsets to resume the lexing from, in ascending order
+         * @param resumable whether the lexing can be resumed from the checkpoints
+         */
+        private record LexedHead(String value, int to, List<StyleSpan> spans,
+                int[] checkpoints, boolean resumable) {
+
+            /**
+             * Get the index up to which the spans are not cut short by the end of the lexing.
+             * @return the index
+             */
+            int settled() {
+                return (to == value.length()) ? to : to - LEX_MARGIN;
+            }
+        }
+
         private int highlightCount = 0;
+        /** The number of rows lexed since the last drain. */
+        private int lexedRows = 0;
+        /** The elapsed nanos in apply since the last drain. */
+        private long applyNanos = 0;
 
         /**
          * Constructor.
@@ -142,30 +228,248 @@ public interface Decorate {
 
         @Override
         public List<StyleSpan> apply(Text text) {
-            if (text instanceof SubText sub) {
-                text = sub.parent();
+            long start = System.nanoTime();
+            try {
+                if (text instanceof SubText sub) {
+                    if (RowText.isLong(sub)) {
+                        return applyWindow(sub);
+                    }
+                    text = sub.parent();
+                }
+                List<StyleSpan> spans = new ArrayList<>(highlights.getOrDefault(text.row(), List.of()));
+                spans.addAll(lex(text.row(), text.value()));
+                spans.addAll(flushes.getOrDefault(text.row(), List.of()));
+                return spans;
+            } finally {
+                applyNanos += System.nanoTime() - start;
             }
-            List<StyleSpan> spans = highlights.getOrDefault(text.row(), new ArrayList<>());
-            spans.addAll(syntax.apply(text.row(), text.value()));
-            spans.addAll(flushes.getOrDefault(text.row(), List.of()));
+        }
+
+        @Override
+        public Stats drainStats() {
+            Stats stats = new Stats(lexedRows, applyNanos);
+            lexedRows = 0;
+            applyNanos = 0;
+            return stats;
+        }
+
+        @Override
+        public void prefetch(List<? extends Text> texts, BooleanSupplier current) {
+            int prevRow = -1;
+            for (Text text : texts) {
+                if (!current.getAsBoolean()) return;
+                if (text instanceof SubText sub) {
+                    text = sub.parent();
+                }
+                if (text.row() == prevRow || RowText.isLong(text)) continue;
+                prevRow = text.row();
+                List<StyleSpan> spans;
+                synchronized (syntax) {
+                    spans = syntax.apply(text.row(), text.value());
+                }
+                synchronized (prefetched) {
+                    if (!current.getAsBoolean()) return;
+                    prefetched.put(text.row(), new Prefetched(text.value(), spans, current));
+                }
+            }
+        }
+
+        /**
+         * Lexes the specified row, using the prefetched result if the row value is unchanged.
+         * @param row the number of rows
+         * @param value the row value
+         * @return list of style span
+         */
+        private List<StyleSpan> lex(int row, String value) {
+            Prefetched pre;
+            synchronized (prefetched) {
+                pre = prefetched.get(row);
+            }
+            // the spans of a stale prefetch may have been put after the clear
+            if (pre != null && pre.current().getAsBoolean() && pre.value().equals(value)) {
+                return pre.spans();
+            }
+            lexedRows++;
+            synchronized (syntax) {
+                return syntax.apply(row, value);
+            }
+        }
 
+        /**
+         * Applies a style to the range of the specified sub text of a long row.
+         * The row is lexed from its start, so that the lexer state is carried into
+         * the window, but only up to the end of the window with a margin.
+         * The lexed head is kept for the row, and is extended from its last checkpoint
+         * as the window moves to the right.
+         * @param sub the sub text
+         * @return list of style span
+         */
+        private List<StyleSpan> applyWindow(SubText sub) {
+            int row = sub.row();
+            String value = sub.parent().value();
+            int to = Math.min(value.length(), sub.toIndex() + LEX_MARGIN);
+            LexedHead head = lexedHeads.get(row);
+            if (head == null || head.value() != value) {
+                head = lexHead(row, value, to);
+            } else if (head.to() < to) {
+                head = extendHead(row, head, to);
+            }
+            lexedHeads.put(row, head);
+            List<StyleSpan> spans = new ArrayList<>(highlights.getOrDefault(row, List.of()));
+            for (StyleSpan span : head.spans()) {
+                if (span.offset() >= sub.toIndex()) break;
+                if (span.offset() + span.length() > sub.fromIndex()) {
+                    spans.add(span);
+                }
+            }
+            spans.addAll(flushes.getOrDefault(row, List.of()));
             return spans;
         }
 
+        /**
+         * Lexes the head of the long row from its start.
+         * @param row the number of rows
+         * @param value the row value
+         * @param to the index to be lexed up to (exclusive)
+         * @return the lexed head
+         */
+        private LexedHead lexHead(int row, String value, int to) {
+            lexedRows++;
+            List<StyleSpan> spans;
+            synchronized (syntax) {
+                spans = sorted(syntax.apply(row, value.substring(0, to)));
+            }
+            return new LexedHead(value, to, spans, checkpoints(spans, 0, to, value.length()), true);
+        }
+
+        /**
+         * Extends the lexed head of the long row, by resuming the lexing from the last checkpoint.
+         * The resumed spans must agree with the lexed head where both are settled, otherwise
+         * the lexer state is not carried by the checkpoints, and the row is lexed from its start.
+         * @param row the number of rows
+         * @param head the lexed head
+         * @param to the index to be lexed up to (exclusive)
+         * @return the extended head
+         */
+        private LexedHead extendHead(int row, LexedHead head, int to) {
+            int settled = head.settled();
+            int cp = -1;
+            for (int checkpoint : head.checkpoints()) {
+                if (checkpoint > settled - LEX_MARGIN) break;
+                cp = checkpoint;
+            }
+            if (!head.resumable() || cp <= 0) {
+                return lexHead(row, head.value(), to);
+            }
+            lexedRows++;
+            List<StyleSpan> resumed;
+            synchronized (syntax) {
+                resumed = syntax.apply(row, head.value().substring(cp, to));
+            }
+            List<StyleSpan> spans = new ArrayList<>();
+            for (StyleSpan span : head.spans()) {
+                if (span.offset() >= cp) break;
+                spans.add(span);
+            }
+            int kept = spans.size();
+            for (StyleSpan span : sorted(resumed)) {
+                spans.add(new StyleSpan(span.style(), span.offset() + cp, span.length()));
+            }
+            if (!agree(head.spans().subList(kept, head.spans().size()), spans.subList(kept, spans.size()), settled)) {
+                LexedHead lexed = lexHead(row, head.value(), to);
+                return new LexedHead(lexed.value(), lexed.to(), lexed.spans(), lexed.checkpoints(), false);
+            }
+            int[] more = checkpoints(spans, cp + 1, to, head.value().length());
+            int[] checkpoints = new int[head.checkpoints().length + more.length];
+            int n = 0;
+            for (int checkpoint : head.checkpoints()) {
+                if (checkpoint <= cp) checkpoints[n++] = checkpoint;
+            }
+            for (int checkpoint : more) checkpoints[n++] = checkpoint;
+            return new LexedHead(head.value(), to, spans, Arrays.copyOf(checkpoints, n), true);
+        }
+
+        /**
+         * Gets whether the spans agree up to the specified index.
+         * @param spans1 the spans
+         * @param spans2 the spans to be compared
+         * @param until the index (exclusive)
+         * @return {@code true} if the spans agree
+         */
+        private static boolean agree(List<StyleSpan> spans1, List<StyleSpan> spans2, int until) {
+            int i = 0, j = 0;
+            for (;;) {
+                boolean has1 = i < spans1.size() && spans1.get(i).offset() < until;
+                boolean has2 = j < spans2.size() && spans2.get(j).offset() < until;
+                if (has1 != has2) return false;
+                if (!has1) return true;
+                StyleSpan a = spans1.get(i++);
+                StyleSpan b = spans2.get(j++);
+                if (a.offset() != b.offset() || !Objects.equals(a.style(), b.style())
+                    || Math.min(a.offset() + a.length(), until) != Math.min(b.offset() + b.length(), until)) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Picks the checkpoints outside any span, about every {@link #LEX_MARGIN} characters
+         * in the range, and before the spans may be cut short by the end of the lexing.
+         * @param spans the spans in the order of offset
+         * @param from the first index of the range
+         * @param to the index lexed up to (exclusive)
+         * @param length the length of the row
+         * @return the checkpoints
+         */
+        private static int[] checkpoints(List<StyleSpan> spans, int from, int to, int length) {
+            int settled = (to == length) ? to : to - LEX_MARGIN;
+            int[] checkpoints = new int[Math.max(0, settled / LEX_MARGIN)];
+            int n = 0;
+            int next = Math.max(1, (from + LEX_MARGIN - 1) / LEX_MARGIN) * LEX_MARGIN;
+            int covered = 0;
+            int i = 0;
+            while (next < settled && n < checkpoints.length) {
+                while (i < spans.size() && spans.get(i).offset() < next) {
+                    covered = Math.max(covered, spans.get(i).offset() + spans.get(i).length());
+                    i++;
+                }
+                if (covered > next) {
+                    next = covered;
+                    continue;
+                }
+                checkpoints[n++] = next;
+                next = (next / LEX_MARGIN + 1) * LEX_MARGIN;
+            }
+            return Arrays.copyOf(checkpoints, n);
+        }
+
+        /**
+         * Sorts the spans in the order of offset.
+         * @param spans the spans
+         * @return the sorted spans
+         */
+        private static List<StyleSpan> sorted(List<StyleSpan> spans) {
+            List<StyleSpan> list = new ArrayList<>(spans);
+            list.sort(Comparator.comparingInt(StyleSpan::offset));
+            return list;
+        }
+
         @Override
         public void warmApply(int row, int len, Content content) {
             if (syntax.hasBlockScopes() && len > 0) {
-                syntax.blockScopes().put(new Iterator<>() {
-                    int index = row;
-                    @Override
-                    public boolean hasNext() {
-                        return index < (row + len);
-                    }
-                    @Override
-                    public LexerSource next() {
-                        return LexerSource.of(index, content.getText(index++));
-                    }
-                });
+                synchronized (syntax) {
+                    syntax.blockScopes().put(new Iterator<>() {
+                        int index = row;
+                        @Override
+                        public boolean hasNext() {
+                            return index < (row + len);
+                        }
+                        @Override
+                        public LexerSource next() {
+                            return LexerSource.of(index, content.getText(index++));
+                        }
+                    });
+                }
             }
         }
 
@@ -197,6 +501,10 @@ public interface Decorate {
         public void clear() {
             highlights.clear();
             flushes.clear();
+            synchronized (prefetched) {
+                prefetched.clear();
+            }
+            lexedHeads.clear();
             highlightCount = 0;
         }
 
@@ -35,6 +35,15 @@ public interface EditorModel extends Query.Queryable {
      */
     void paint(Draw draw);
 
+    /**
+     * Get whether the editor screen needs to be painted,
+     * because the content has been edited through another view of the same file.
+     * @return {@code true} if the editor screen needs to be painted
+     */
+    default boolean needsPaint() {
+        return false;
+    }
+
     /**
      * Set the size of the editor.
      * @param width the width
@@ -123,6 +132,12 @@ public interface EditorModel extends Query.Queryable {
      */
     void setCaretVisible(boolean visible);
 
+    /**
+     * Get the frame timings of the editor.
+     * @return the frame timings
+     */
+    FrameTimings frameTimings();
+
     /**
      * Save the target content to a file.
      * @param path the path of a file
@@ -142,6 +157,15 @@ public interface EditorModel extends Query.Queryable {
      */
     void reload(Charset charset);
 
+    /**
+     * Follows the tail of the file, appending the rows written since the last load.
+     * The caret is pinned to the bottom only while it is at the tail.
+     * Falls back to a full reload when the file has been truncated or replaced.
+     * The file may be read in the background, so this method is expected to be polled.
+     * @return {@code true} if the content has changed
+     */
+    boolean followTail();
+
     /**
      * Closes the editor and releases any associated resources.
      */
@@ -227,6 +251,9 @@ public interface EditorModel extends Query.Queryable {
 
     /**
      * Creates a new placeholder for an {@link EditorModel} associated with the specified parameters.
+     * The placeholder shows the rows of the memory-mapped file progressively, growing while
+     * the file is indexed, so that the file can be viewed while the editable model is loaded.
+     * A file which cannot be viewed progressively shows its head instead.
      * @param path the file path associated with the placeholder content
      * @param fm the font metrics used for text layout
      * @param scroll the screen scroll settings of the editor
@@ -234,7 +261,35 @@ public interface EditorModel extends Query.Queryable {
      * @return a new {@link EditorModel} that represents the placeholder
      */
     static EditorModel placeholderOf(Path path, FontMetrics fm, ScreenScroll scroll, Context ctx) {
-        return new TextEditorModel(Content.placeholderOf(path), fm, scroll, ctx);
+        // the index of the mapped file is built cheaply, while the piece table is loaded
+        Content content = Content.progressive(path)
+            ? Content.progressiveOf(path, _ -> { })
+            : Content.placeholderOf(path);
+        return new TextEditorModel(content, fm, scroll, ctx);
+    }
+
+    /**
+     * Gets whether the specified file can be viewed by {@link #progressiveOf}.
+     * @param path the file path
+     * @return {@code true} if the file can be viewed progressively
+     */
+    static boolean progressive(Path path) {
+        return Content.progressive(path);
+    }
+
+    /**
+     * Creates a new read-only {@link EditorModel} backed by the memory-mapped file,
+     * which is usable immediately and whose rows grow while the file is indexed in the background.
+     * @param path the file path associated with the editor's content
+     * @param fm the font metrics used for text layout in the editor
+     * @param scroll the screen scroll settings for the editor
+     * @param ctx the context associated with the editor
+     * @param consumer the progress callback, which accepts the number of bytes indexed,
+     *     the total reaches the size of the file when the index is complete
+     * @return a new {@link EditorModel}
+     */
+    static EditorModel progressiveOf(Path path, FontMetrics fm, ScreenScroll scroll, Context ctx, Consumer<Long> consumer) {
+        return new TextEditorModel(Content.progressiveOf(path, consumer), fm, scroll, ctx);
     }
 
     /**
@@ -247,7 +302,20 @@ public interface EditorModel extends Query.Queryable {
      * @return a new {@link EditorModel} initialized with the specified parameters
      */
     static EditorModel of(Path path, FontMetrics fm, ScreenScroll scroll, Context ctx, Consumer<Long> consumer) {
-        return new TextEditorModel(Content.of(path, consumer), fm, scroll, ctx);
+        return new TextEditorModel(Content.of(path, ctx.config().stashPath(), consumer), fm, scroll, ctx);
+    }
+
+    /**
+     * Creates a new read-only {@link EditorModel} backed by the memory-mapped file.
+     * @param path the file path associated with the editor's content
+     * @param fm the font metrics used for text layout in the editor
+     * @param scroll the screen scroll settings for the editor
+     * @param ctx the context associated with the editor
+     * @param consumer the progress callback
+     * @return a new {@link EditorModel}
+     */
+    static EditorModel mappedOf(Path path, FontMetrics fm, ScreenScroll scroll, Context ctx, Consumer<Long> consumer) {
+        return new TextEditorModel(Content.mappedOf(path, ctx.config().stashPath(), consumer), fm, scroll, ctx);
     }
 
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The file system watcher shared by the open contents and the path tree.
+ * <p>
+ * A watched path is either a directory, or a file whose parent directory is watched.
+ * A directory is registered to the {@link WatchService} while any watched path refers to it.
+ * Bursts of events are coalesced, and the changes are posted to the listeners
+ * in a batch on the watcher thread.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class FileWatcher implements Closeable {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(FileWatcher.class.getName());
+
+    /** The quiet period to coalesce a burst of events, in milliseconds. */
+    private static final long QUIET_MILLIS = 100;
+    /** The maximum delay of a batch under continuous events, in milliseconds. */
+    private static final long MAX_DELAY_MILLIS = 1000;
+
+    /** The watch service, {@code null} if not available. */
+    private final WatchService service;
+    /** The watched paths, and their directories. */
+    private final Map<Path, Path> watched = new HashMap<>();
+    /** The reference counts of the watched paths. */
+    private final Map<Path, Integer> refs = new HashMap<>();
+    /** The registered keys by directory. */
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    /** The listeners of the changed paths. */
+    private final List<Consumer<Changes>> listeners = new CopyOnWriteArrayList<>();
+    /** The watcher thread, started on the first registration. */
+    private Thread thread;
+
+    /** The shared instance holder. */
+    private static class Holder {
+        static final FileWatcher shared = new FileWatcher();
+    }
+
+    /**
+     * Constructor.
+     */
+    FileWatcher() {
+        WatchService ws = null;
+        try {
+            ws = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            log.log(System.Logger.Level.WARNING, "file watcher is not available", e);
+        }
+        this.service = ws;
+    }
+
+    /**
+     * Get the shared file watcher.
+     * @return the shared file watcher
+     */
+    public static FileWatcher shared() {
+        return Holder.shared;
+    }
+
+    /**
+     * Get whether the watch service is available on this platform.
+     * @return {@code true} if available
+     */
+    public boolean available() {
+        return service != null;
+    }
+
+    /**
+     * The batch of the changes posted to the listeners.
+     * @param paths the created, deleted or modified paths
+     * @param overflowed the directories whose events were lost, and should be listed again
+     */
+    public record Changes(Set<Path> paths, Set<Path> overflowed) {
+
+        /**
+         * Get whether the specified path may have been changed.
+         * @param path the path
+         * @return {@code true} if the path is changed, or its directory overflowed
+         */
+        public boolean affects(Path path) {
+            return paths.contains(path)
+                || (path.getParent() != null && overflowed.contains(path.getParent()));
+        }
+    }
+
+    /**
+     * Add the listener of the changes.
+     * The listener is called on the watcher thread.
+     * @param listener the listener
+     */
+    public void addListener(Consumer<Changes> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove the listener.
+     * @param listener the listener
+     */
+    public void removeListener(Consumer<Changes> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Watch the specified path.
+     * The watch is reference counted, and each call should be paired with {@link #unwatch(Path)}.
+     * @param path the directory, or the file to be watched through its parent directory
+     */
+    public synchronized void watch(Path path) {
+        if (service == null || path == null) return;
+        if (refs.merge(path, 1, Integer::sum) > 1) return;
+        Path dir = Files.isReadableDirectory(path) ? path : path.getParent();
+        if (dir == null) {
+            refs.remove(path);
+            return;
+        }
+        watched.put(path, dir);
+        if (keys.containsKey(dir)) return;
+        try {
+            keys.put(dir, dir.register(service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY));
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, e);
+            // not watched, so that a later watch registers again
+            refs.remove(path);
+            watched.remove(path);
+            return;
+        }
+        if (thread == null) {
+            thread = Thread.ofVirtual().name("file-watcher").start(this::run);
+        }
+    }
+
+    /**
+     * Stop watching the specified path.
+     * @param path the path passed to {@link #watch(Path)}
+     */
+    public synchronized void unwatch(Path path) {
+        if (path == null || !refs.containsKey(path)) return;
+        if (refs.merge(path, -1, Integer::sum) > 0) return;
+        refs.remove(path);
+        Path dir = watched.remove(path);
+        if (dir == null || watched.containsValue(dir)) return;
+        WatchKey key = keys.remove(dir);
+        if (key != null) key.cancel();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (service == null) return;
+        try {
+            service.close();
+        } catch (IOException ignore) { }
+        keys.clear();
+        watched.clear();
+        refs.clear();
+    }
+
+    private void run() {
+        try {
+            for (;;) {
+                Set<Path> changes = new LinkedHashSet<>();
+                Set<Path> overflowed = new LinkedHashSet<>();
+                collect(service.take(), changes, overflowed);
+                long deadline = System.currentTimeMillis() + MAX_DELAY_MILLIS;
+                WatchKey key;
+                while (System.currentTimeMillis() < deadline
+                        && (key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changes, overflowed);
+                }
+                if (changes.isEmpty() && overflowed.isEmpty()) continue;
+                var batch = new Changes(Set.copyOf(changes), Set.copyOf(overflowed));
+                for (Consumer<Changes> listener : listeners) {
+                    try {
+                        listener.accept(batch);
+                    } catch (RuntimeException e) {
+                        log.log(System.Logger.Level.ERROR, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignore) {
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changes, Set<Path> overflowed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events are lost, so the directory is posted to be listed again
+                overflowed.add(dir);
+            } else if (event.context() instanceof Path name) {
+                changes.add(dir.resolve(name));
+            }
+        }
+        if (!key.reset()) {
+            synchronized (this) {
+                keys.remove(dir);
+            }
+        }
+    }
+
+}
@@ -15,7 +15,6 @@
  */
 package com.mammb.code.editor.core;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -23,22 +22,29 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.RandomAccessFile;
-import java.io.Reader;
-import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.CopyOption;
 import java.nio.file.LinkOption;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 import java.util.stream.Stream;
 
 /**
@@ -89,6 +95,18 @@ public interface Files {
         return null;
     }
 
+    /**
+     * Get the key that uniquely identifies the specified file, if available.
+     * @param path the specified file path
+     * @return the file key, or {@code null} if not available
+     */
+    static Object fileKey(Path path) {
+        try {
+            return java.nio.file.Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (IOException ignore) { }
+        return null;
+    }
+
     static Path createDirectories(Path dir, FileAttribute<?>... attrs) {
         try {
             return java.nio.file.Files.createDirectories(dir, attrs);
@@ -142,6 +160,23 @@ public interface Files {
         }
     }
 
+    /**
+     * Read the specified range of the file.
+     * @param path the specified file path
+     * @param position the position to start reading
+     * @param length the number of bytes to read
+     * @return the bytes read, which may be fewer than the length at the end of the file
+     */
+    static byte[] read(Path path, long position, int length) {
+        var bb = ByteBuffer.allocate(length);
+        try (var fc = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (bb.hasRemaining() && fc.read(bb, position + bb.position()) > 0) { }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return Arrays.copyOf(bb.array(), bb.position());
+    }
+
     static List<String> readAllLines(Path path) {
         try {
             return java.nio.file.Files.readAllLines(path);
@@ -247,51 +282,103 @@ public interface Files {
         }
     }
 
-    static void writeWith(Path path, Charset charset, Charset newCharset, String lineSeparator) {
-        Path destinationPath = createTempFile(path.getParent(), path.getFileName().toString(), null);
-        if (lineSeparator != null && !lineSeparator.isBlank()) {
-            writeWith(path, charset, destinationPath, newCharset, false);
-        } else {
-            writeWith(path, charset, destinationPath, newCharset, lineSeparator, false);
-        }
-        move(destinationPath, path, StandardCopyOption.REPLACE_EXISTING);
-    }
-
-    private static void writeWith(
-        Path sourcePath, Charset sourceCharset,
-        Path destinationPath, Charset destinationCharset,
-        boolean strict) {
-        try (Reader reader = java.nio.file.Files.newBufferedReader(sourcePath, sourceCharset);
-             Writer writer = newBufferedWriter(destinationPath, destinationCharset, strict)) {
-            char[] buffer = new char[8192];
-            int charsRead;
-            while ((charsRead = reader.read(buffer)) != -1) {
-                writer.write(buffer, 0, charsRead);
+    /**
+     * Writes the rows to the path in a single pass, encoding them with the charset
+     * and replacing their row endings with the line separator on the fly.
+     * The rows are written to a temporary file, which then replaces the path atomically.
+     * Characters that cannot be encoded with the charset are dropped.
+     * @param path the path to be written
+     * @param rows the number of rows
+     * @param rowAt the function to get the text of the row, including its row ending
+     * @param charset the charset to encode with
+     * @param bom the byte order mark to be written first, or an empty array
+     * @param lineSeparator the line separator to replace the row endings
+     */
+    static void writeWith(Path path, int rows, IntFunction<String> rowAt,
+            Charset charset, byte[] bom, String lineSeparator) {
+        Path temp = createTempFile(path.getParent(), path.getFileName().toString(), null);
+        CharsetEncoder encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.IGNORE)
+            .onUnmappableCharacter(CodingErrorAction.IGNORE);
+        CharBuffer separator = CharBuffer.wrap(lineSeparator);
+        ByteBuffer out = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            out.put(bom);
+            for (int i = 0; i < rows; i++) {
+                String row = rowAt.apply(i);
+                int end = row.length();
+                if (end > 0 && row.charAt(end - 1) == '\n') end--;
+                if (end > 0 && row.charAt(end - 1) == '\r') end--;
+                encode(encoder, CharBuffer.wrap(row, 0, end), out, channel);
+                if (end < row.length()) {
+                    encode(encoder, separator.rewind(), out, channel);
+                }
+            }
+            encoder.encode(CharBuffer.allocate(0), out, true);
+            while (encoder.flush(out).isOverflow()) {
+                drain(out, channel);
             }
+            drain(out, channel);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw (e instanceof RuntimeException re) ? re : new RuntimeException(e);
+        }
+        keepAttributes(path, temp);
+        try {
+            java.nio.file.Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            move(temp, path, StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
+            deleteQuietly(temp);
             throw new RuntimeException(e);
         }
     }
 
-    private static void writeWith(
-        Path sourcePath, Charset sourceCharset,
-        Path destinationPath, Charset destinationCharset, String lineSeparator,
-        boolean strict) {
-        try (BufferedReader reader = java.nio.file.Files.newBufferedReader(sourcePath, sourceCharset);
-             Writer writer = newBufferedWriter(destinationPath, destinationCharset, strict)) {
-            reader.lines().forEachOrdered(line -> {
-                try {
-                    writer.write(line);
-                    writer.write(lineSeparator);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Copies the POSIX permissions, the owner and the group of the file onto its replacement,
+     * as far as permitted, so that replacing the file keeps them.
+     * Nothing is copied if the file does not exist, or the file system is not POSIX.
+     * @param path the file to be replaced
+     * @param replacement the replacement of the file
+     */
+    static void keepAttributes(Path path, Path replacement) {
+        if (!exists(path)) return;
+        PosixFileAttributes attrs;
+        try {
+            attrs = java.nio.file.Files.readAttributes(path, PosixFileAttributes.class);
+            java.nio.file.Files.setPosixFilePermissions(replacement, attrs.permissions());
+        } catch (UnsupportedOperationException | IOException ignore) {
+            // not a posix file system
+            return;
+        }
+        var view = java.nio.file.Files.getFileAttributeView(replacement, PosixFileAttributeView.class);
+        try {
+            if (!attrs.owner().equals(java.nio.file.Files.getOwner(replacement))) view.setOwner(attrs.owner());
+        } catch (IOException ignore) {
+            // not permitted to the user
+        }
+        try {
+            view.setGroup(attrs.group());
+        } catch (IOException ignore) {
+            // not a member of the group
+        }
+    }
+
+    private static void encode(CharsetEncoder encoder, CharBuffer in, ByteBuffer out,
+            FileChannel channel) throws IOException {
+        while (encoder.encode(in, out, false).isOverflow()) {
+            drain(out, channel);
         }
     }
 
+    private static void drain(ByteBuffer out, FileChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
     private static boolean endsWithNewline(Path path) {
         long size = Files.size(path);
         if (Files.size(path) == 0) {
@@ -305,14 +392,16 @@ public interface Files {
         }
     }
 
-    private static Writer newBufferedWriter(Path path, Charset charset, boolean strict) throws IOException {
-        return strict
-            ? java.nio.file.Files.newBufferedWriter(path, charset)
-            : new BufferedWriter(new OutputStreamWriter(
-            java.nio.file.Files.newOutputStream(path),
-            charset.newEncoder()
-                .onMalformedInput(CodingErrorAction.IGNORE)
-                .onUnmappableCharacter(CodingErrorAction.IGNORE)));
+    /**
+     * Deletes the file if it exists, leaving it as it is on failure.
+     * @param path the path of the file
+     */
+    static void deleteQuietly(Path path) {
+        try {
+            java.nio.file.Files.deleteIfExists(path);
+        } catch (IOException ignore) {
+            // the file is left
+        }
     }
 
 }
@@ -15,7 +15,12 @@
  */
 package com.mammb.code.editor.core;
 
+import com.mammb.code.editor.core.jfr.EditorEvents;
+import com.mammb.code.editor.core.model.GzipContent;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.MappedByteBuffer;
@@ -39,6 +44,7 @@ import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 import java.util.stream.Stream;
 
 /**
@@ -88,6 +94,21 @@ public class FindInFiles {
      * @return a {@code Future} representing the completion of the search task
      */
     public static Future<Number> run(Path dir, String patternStr, Consumer<List<Found>> consumer) {
+        return run(dir, patternStr, false, consumer);
+    }
+
+    /**
+     * Executes a search operation on readable, regular files within the specified directory,
+     * optionally searching inside gzip-compressed files as well.
+     * A gzip file is inflated as a stream, and searched line by line.
+     *
+     * @param dir        the root directory to recursively search files in
+     * @param patternStr the regular expression pattern as a string for matching file contents
+     * @param gzip       whether to search inside gzip-compressed files
+     * @param consumer   a consumer that processes a list of {@code Found} objects representing the matches
+     * @return a {@code Future} representing the completion of the search task
+     */
+    public static Future<Number> run(Path dir, String patternStr, boolean gzip, Consumer<List<Found>> consumer) {
 
         final var pattern = Pattern.compile(patternStr);
         final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
@@ -101,7 +122,7 @@ public class FindInFiles {
                         if (Thread.currentThread().isInterrupted()) {
                             return;
                         }
-                        List<Found> founds = processFile(path, pattern);
+                        List<Found> founds = processFile(path, pattern, gzip);
                         n.add(founds.size());
                         consumer.accept(founds);
                     });
@@ -114,7 +135,22 @@ public class FindInFiles {
         }, n);
     }
 
-    private static List<Found> processFile(Path path, Pattern pattern) {
+    private static List<Found> processFile(Path path, Pattern pattern, boolean gzip) {
+        var event = new EditorEvents.FindInFile();
+        event.begin();
+        List<Found> founds = (gzip && isGzip(path))
+            ? scanGzipFile(path, pattern)
+            : scanFile(path, pattern);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = path.toFile().length();
+            event.matches = founds.size();
+            event.commit();
+        }
+        return founds;
+    }
+
+    private static List<Found> scanFile(Path path, Pattern pattern) {
 
         List<Found> founds = new ArrayList<>();
 
@@ -208,6 +244,41 @@ public class FindInFiles {
         return founds;
     }
 
+    private static List<Found> scanGzipFile(Path path, Pattern pattern) {
+
+        List<Found> founds = new ArrayList<>();
+
+        try (var in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 64 * 1024), 64 * 1024)) {
+
+            // detect charset using the beginning of the inflated text, which is then read again
+            in.mark(4096);
+            var maybeCs = detectCharset(ByteBuffer.wrap(in.readNBytes(4096)));
+            if (maybeCs.isEmpty()) return founds;
+            Charset cs = maybeCs.get();
+            in.reset();
+
+            var reader = new BufferedReader(new InputStreamReader(in, cs), 64 * 1024);
+            long currentLine = 0;
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return founds;
+                }
+                currentLine++;
+                CharBuffer cb = CharBuffer.wrap(line);
+                Matcher matcher = pattern.matcher(cb);
+                while (matcher.find()) {
+                    founds.add(new Found(path, cs, currentLine, matcher.start(), matcher.group(), snippet(cb, matcher)));
+                }
+            }
+        } catch (IOException ignore) { }
+
+        return founds;
+    }
+
+    private static boolean isGzip(Path path) {
+        return GzipContent.isGzip(path);
+    }
+
     private static int findLastLineBreak(ByteBuffer bb, int limit) {
         // optimization: Only scan the end of the buffer (twice the overlap size)
         int scanStart = Math.max(0, limit - (OVERLAP_BYTES * 2));
@@ -264,7 +335,10 @@ public class FindInFiles {
     private static Optional<Charset> detectCharset(FileChannel fc) throws IOException {
 
         long size = Math.min(fc.size(), 4096);
-        MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        return detectCharset(fc.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+
+    private static Optional<Charset> detectCharset(ByteBuffer bb) {
 
         if (hasNullByte(bb.duplicate())) {
             // maybe binary
@@ -94,6 +94,16 @@ public interface FontMetrics {
      */
     double getAdvance(int codePoint);
 
+    /**
+     * Get the advance of the code point only if it has already been measured,
+     * which is safe to be called from a background worker.
+     * @param codePoint the code point
+     * @return the advance, or {@code NaN} if not yet measured
+     */
+    default double getMeasuredAdvance(int codePoint) {
+        return getAdvance(codePoint);
+    }
+
     /**
      * Get the total advance.
      * @param str the string
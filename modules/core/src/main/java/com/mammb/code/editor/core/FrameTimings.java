@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import java.util.List;
+
+/**
+ * The FrameTimings.
+ * <p>
+ * Records the per-frame phases of the editor into histograms:
+ * keystroke-to-paint latency, action apply, decoration, drawing,
+ * and the number of rows lexed per frame.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public final class FrameTimings {
+
+    /** The keystroke-to-paint latency in nanos. */
+    private final Histogram inputToPaint = new Histogram();
+    /** The action apply duration in nanos. */
+    private final Histogram apply = new Histogram();
+    /** The paint duration in nanos. */
+    private final Histogram paint = new Histogram();
+    /** The decoration duration in nanos per frame. */
+    private final Histogram decorate = new Histogram();
+    /** The drawing duration in nanos per frame, excluding decoration. */
+    private final Histogram draw = new Histogram();
+    /** The number of rows lexed per frame. */
+    private final Histogram lexedRows = new Histogram();
+    /** The nano time of the first input not yet painted, or zero. */
+    private volatile long pendingInput = 0;
+
+    /**
+     * Mark that an input has been received.
+     * The latency is measured from the first input to the next painted frame.
+     */
+    public void input() {
+        if (pendingInput == 0) {
+            pendingInput = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record the duration of an action apply.
+     * @param nanos the elapsed nanos
+     */
+    public void applied(long nanos) {
+        apply.record(nanos);
+    }
+
+    /**
+     * Record a painted frame.
+     * @param nanos the elapsed nanos of the paint
+     * @param stats the decoration statistics of the frame
+     */
+    public void painted(long nanos, Decorate.Stats stats) {
+        paint.record(nanos);
+        decorate.record(stats.nanos());
+        draw.record(nanos - stats.nanos());
+        lexedRows.record(stats.lexedRows());
+        long input = pendingInput;
+        if (input != 0) {
+            pendingInput = 0;
+            inputToPaint.record(System.nanoTime() - input);
+        }
+    }
+
+    /**
+     * Get the summary lines of the recorded timings.
+     * @return the summary lines
+     */
+    public List<String> summary() {
+        return List.of(
+            millis("input→paint", inputToPaint),
+            millis("apply", apply),
+            millis("paint", paint),
+            millis("  decorate", decorate),
+            millis("  draw", draw),
+            counts("lexed rows", lexedRows));
+    }
+
+    /**
+     * Clear the recorded timings.
+     */
+    public void reset() {
+        pendingInput = 0;
+        List.of(inputToPaint, apply, paint, decorate, draw, lexedRows).forEach(Histogram::reset);
+    }
+
+    private static String millis(String name, Histogram h) {
+        return String.format("%-12s n=%-7d p50=%7.2f p90=%7.2f p99=%7.2f max=%7.2f ms",
+            name, h.count(), h.valueAt(50) / 1e6, h.valueAt(90) / 1e6, h.valueAt(99) / 1e6, h.max() / 1e6);
+    }
+
+    private static String counts(String name, Histogram h) {
+        return String.format("%-12s n=%-7d p50=%7d p90=%7d p99=%7d max=%7d",
+            name, h.count(), h.valueAt(50), h.valueAt(90), h.valueAt(99), h.max());
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import java.util.Arrays;
+
+/**
+ * The Histogram.
+ * <p>
+ * A fixed-size log-linear histogram in the HDR style. Values below {@code 2 * SUB_BUCKETS}
+ * are counted exactly, larger values are counted in {@code SUB_BUCKETS} linear buckets per
+ * power of two, which keeps the relative error of reported values around 3%.
+ * Recording is constant time and allocation free.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public final class Histogram {
+
+    /** The number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 32;
+    /** The bit length of sub-buckets. */
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    /** The number of buckets counted exactly. */
+    private static final int EXACT = SUB_BUCKETS * 2;
+
+    /** The bucket counts. */
+    private final long[] counts = new long[EXACT + (63 - SUB_BITS - 1) * SUB_BUCKETS];
+    /** The total count. */
+    private long count;
+    /** The sum of values. */
+    private long sum;
+    /** The max value. */
+    private long max;
+
+    /**
+     * Record the value.
+     * @param value the value, negative values are recorded as zero
+     */
+    public synchronized void record(long value) {
+        value = Math.max(0, value);
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Get the number of recorded values.
+     * @return the number of recorded values
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Get the max recorded value.
+     * @return the max recorded value
+     */
+    public synchronized long max() {
+        return max;
+    }
+
+    /**
+     * Get the mean of recorded values.
+     * @return the mean of recorded values
+     */
+    public synchronized double mean() {
+        return (count == 0) ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get the value at the specified percentile.
+     * The highest value equivalent to the bucket is returned.
+     * @param percentile the percentile {@code [0, 100]}
+     * @return the value at the specified percentile
+     */
+    public synchronized long valueAt(double percentile) {
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(Math.clamp(percentile, 0.0, 100.0) / 100 * count));
+        long acc = 0;
+        for (int i = 0; i < counts.length; i++) {
+            acc += counts[i];
+            if (acc >= target) {
+                return Math.min(max, highestEquivalent(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Clear the recorded values.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < EXACT) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return EXACT + (magnitude - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < EXACT) return index;
+        int k = index - EXACT;
+        int shift = k / SUB_BUCKETS + 1;
+        long sub = k % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,548 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * The in-memory index of the file paths in a workspace, for quick open.
+ * <p>
+ * The index is built with a parallel walk of the workspace, skipping the paths
+ * ignored by {@code .gitignore} and the version control directories.
+ * The walked directories are watched through the {@link FileWatcher}, and the
+ * index is kept current as the files are created and deleted.
+ * </p>
+ * <p>
+ * Each path is held as a packed byte array of its relative path string,
+ * and is ranked with a fuzzy subsequence scorer that favors the matches in
+ * the file name, at the start of words, and in consecutive characters.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class PathIndex implements Closeable {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(PathIndex.class.getName());
+
+    /** The names always ignored. */
+    private static final Set<String> IGNORED_NAMES = Set.of(".git", ".hg", ".svn", "node_modules");
+    /** The maximum number of the directories watched by an index. */
+    private static final int WATCH_LIMIT = 4096;
+    /** The interval at which the walked entries are published, in milliseconds. */
+    private static final long PUBLISH_MILLIS = 100;
+    /** The number of entries scored by a task. */
+    private static final int CHUNK = 16 * 1024;
+
+    /** The shared indexes by workspace root. */
+    private static final Map<Path, PathIndex> indexes = new ConcurrentHashMap<>();
+
+    /** The root of the workspace. */
+    private final Path root;
+    /** The indexed entries, replaced on each update. */
+    private volatile Entry[] entries = new Entry[0];
+    /** The entries walked, and not yet published. */
+    private final ConcurrentLinkedQueue<Entry> walked = new ConcurrentLinkedQueue<>();
+    /** The directories watched by this index. */
+    private final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet();
+    /** The updater applying the changes in order, off the watcher thread. */
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(
+        Thread.ofVirtual().name("path-index-update").factory());
+    /** The listener of the file watcher. */
+    private final Consumer<FileWatcher.Changes> listener = changes -> {
+        if (!this.closed) updater.execute(() -> changed(changes));
+    };
+    /** The latch released when the initial walk completes. */
+    private final CountDownLatch built = new CountDownLatch(1);
+    /** Whether this index is closed. */
+    private volatile boolean closed;
+
+    /**
+     * The indexed path.
+     * @param path the path
+     * @param key the relative path string, in UTF-8
+     * @param nameStart the start of the file name in the key
+     */
+    record Entry(Path path, byte[] key, int nameStart) { }
+
+    /**
+     * The matched path.
+     * @param path the path
+     * @param relative the relative path string from the root
+     * @param score the score, higher is better
+     */
+    public record Match(Path path, String relative, int score) { }
+
+    /**
+     * Constructor.
+     * @param root the root of the workspace
+     */
+    PathIndex(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Get the shared index of the specified workspace, building it in the background if absent.
+     * @param root the root of the workspace
+     * @return the index
+     */
+    public static PathIndex of(Path root) {
+        return indexes.computeIfAbsent(root.toAbsolutePath().normalize(), r -> {
+            var index = new PathIndex(r);
+            index.build();
+            return index;
+        });
+    }
+
+    /**
+     * Get the workspace root of the specified path.
+     * This is the nearest ancestor having a version control directory,
+     * or the parent directory of the path.
+     * @param path the path of a file
+     * @return the workspace root
+     */
+    public static Path workspaceOf(Path path) {
+        Path dir = Files.isDirectory(path) ? path : path.getParent();
+        for (Path p = dir; p != null; p = p.getParent()) {
+            if (Files.isDirectory(p.resolve(".git")) || Files.isDirectory(p.resolve(".hg"))) {
+                return p;
+            }
+        }
+        return dir;
+    }
+
+    /**
+     * Start building the index on a virtual thread.
+     */
+    void build() {
+        FileWatcher.shared().addListener(listener);
+        Thread.ofVirtual().name("path-index").start(() -> {
+            long start = System.currentTimeMillis();
+            var walk = ForkJoinPool.commonPool().submit(new Walk(root, Ignore.of(null, root)));
+            while (!walk.isDone()) {
+                try {
+                    walk.get(PUBLISH_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (Exception ignore) { }
+                publish(List.of(), Set.of());
+            }
+            publish(List.of(), Set.of());
+            built.countDown();
+            log.log(System.Logger.Level.DEBUG, "indexed {0} paths in {1} ms",
+                entries.length, System.currentTimeMillis() - start);
+        });
+    }
+
+    /**
+     * Wait until the initial walk completes.
+     * @param millis the maximum time to wait
+     * @return {@code true} if the index is built
+     */
+    public boolean await(long millis) {
+        try {
+            return built.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Get the root of the workspace.
+     * @return the root
+     */
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Get the number of the indexed paths.
+     * @return the number of the indexed paths
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Search the paths matching the specified query.
+     * The entries are scored in parallel, and the best matches are returned in the ranked order.
+     * @param query the query
+     * @param limit the maximum number of the matches
+     * @return the matches
+     */
+    public List<Match> search(String query, int limit) {
+        Entry[] snapshot = entries;
+        if (limit <= 0) return List.of();
+        byte[] q = query.replace(" ", "").toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        if (q.length == 0) {
+            return Arrays.stream(snapshot).limit(limit)
+                .map(e -> new Match(e.path(), relative(e), 0)).toList();
+        }
+        int chunks = (snapshot.length + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel()
+            .mapToObj(c -> top(snapshot, c * CHUNK, Math.min(snapshot.length, (c + 1) * CHUNK), q, limit))
+            .flatMap(List::stream)
+            .sorted(RANK)
+            .limit(limit)
+            .map(s -> new Match(s.entry().path(), relative(s.entry()), s.score()))
+            .toList();
+    }
+
+    /** The scored entry. */
+    private record Scored(Entry entry, int score) { }
+
+    /** The rank of the scored entries, higher score and shorter path first. */
+    private static final Comparator<Scored> RANK = Comparator
+        .comparingInt((Scored s) -> -s.score())
+        .thenComparingInt(s -> s.entry().key().length);
+
+    private static List<Scored> top(Entry[] entries, int from, int to, byte[] q, int limit) {
+        List<Scored> list = new ArrayList<>();
+        int min = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            Entry e = entries[i];
+            int score = score(q, e.key(), e.nameStart());
+            if (score == Integer.MIN_VALUE || (list.size() >= limit && score < min)) continue;
+            list.add(new Scored(e, score));
+            if (list.size() >= limit * 2) {
+                // keep the best, to bound the memory of a chunk
+                list.sort(RANK);
+                list.subList(limit, list.size()).clear();
+                min = list.getLast().score();
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Scores the key with the query.
+     * <p>
+     * The query is matched as a case-insensitive subsequence of the key.
+     * Both the leftmost match and the rightmost match, which tends to fall in the file name,
+     * are scored, and the better one is taken.
+     * </p>
+     * @param q the lower-cased query
+     * @param key the key
+     * @param nameStart the start of the file name in the key
+     * @return the score, or {@link Integer#MIN_VALUE} if not matched
+     */
+    static int score(byte[] q, byte[] key, int nameStart) {
+        // the leftmost match, the end of which is tightened backward
+        int qi = 0;
+        int end = -1;
+        for (int i = 0; i < key.length; i++) {
+            if (lower(key[i]) == q[qi] && ++qi == q.length) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) return Integer.MIN_VALUE;
+        int left = scoreBackward(q, key, end, nameStart);
+
+        // the rightmost match
+        int right = scoreBackward(q, key, key.length - 1, nameStart);
+        return Math.max(left, right) - key.length / 8;
+    }
+
+    private static int scoreBackward(byte[] q, byte[] key, int end, int nameStart) {
+        int score = 0;
+        int qi = q.length - 1;
+        int prev = -1;
+        for (int i = end; i >= 0 && qi >= 0; i--) {
+            if (lower(key[i]) != q[qi]) continue;
+            score += 16;
+            if (prev == i + 1) score += 8;
+            else if (prev >= 0) score -= Math.min(prev - i - 1, 8);
+            if (i == 0 || isBoundary(key[i - 1], key[i])) score += 10;
+            if (i >= nameStart) score += 12;
+            prev = i;
+            qi--;
+        }
+        return (qi < 0) ? score : Integer.MIN_VALUE;
+    }
+
+    private static byte lower(byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b | 0x20) : b;
+    }
+
+    private static boolean isBoundary(byte prev, byte b) {
+        return prev == '/' || prev == '_' || prev == '-' || prev == '.' || prev == ' '
+            || (prev >= 'a' && prev <= 'z' && b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Updates the index with the changes posted by the file watcher.
+     * @param changes the changes
+     */
+    void changed(FileWatcher.Changes changes) {
+        if (closed) return;
+        List<Entry> added = new ArrayList<>();
+        Set<Path> removed = new HashSet<>();
+        for (Path path : changes.paths()) {
+            if (!path.startsWith(root) || path.equals(root) || isIgnored(path)) continue;
+            BasicFileAttributes attrs = attributes(path);
+            if (attrs == null) {
+                removed.add(path);
+            } else if (attrs.isRegularFile()) {
+                removed.add(path);
+                added.add(entryOf(path));
+            } else if (attrs.isDirectory() && !watchedDirs.contains(path)) {
+                // a new directory, as a modification of a watched one changes no entry
+                removed.add(path);
+                new Walk(path, Ignore.chain(root, path)).invoke();
+            }
+        }
+        for (Path dir : changes.overflowed()) {
+            if (!dir.startsWith(root) || closed) continue;
+            // the events are lost, so the entries of the directory are walked again
+            removed.add(dir);
+            if (Files.isDirectory(dir)) {
+                new Walk(dir, Ignore.chain(root, dir)).invoke();
+            }
+        }
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            // the entries of the walked directories are drained from the queue
+            publish(added, removed);
+        }
+    }
+
+    /**
+     * Publishes the walked entries, and the changes to the index.
+     * @param added the added entries
+     * @param removed the removed or re-walked paths, including the descendants
+     */
+    private synchronized void publish(Collection<Entry> added, Set<Path> removed) {
+        List<Entry> list = new ArrayList<>(entries.length + added.size());
+        for (Entry e : entries) {
+            if (!removed.isEmpty() && isRemoved(e.path(), removed)) continue;
+            list.add(e);
+        }
+        for (Entry e; (e = walked.poll()) != null; ) list.add(e);
+        list.addAll(added);
+        entries = list.toArray(Entry[]::new);
+        if (removed.isEmpty()) return;
+        // the re-walked directories are still watched, and only the deleted ones are unwatched
+        for (Path dir : watchedDirs) {
+            if (isRemoved(dir, removed) && Files.notExists(dir) && watchedDirs.remove(dir)) {
+                FileWatcher.shared().unwatch(dir);
+            }
+        }
+    }
+
+    private static boolean isRemoved(Path path, Set<Path> removed) {
+        for (Path p = path; p != null; p = p.getParent()) {
+            if (removed.contains(p)) return true;
+        }
+        return false;
+    }
+
+    private boolean isIgnored(Path path) {
+        Path rel = root.relativize(path);
+        for (Path name : rel) {
+            if (IGNORED_NAMES.contains(name.toString())) return true;
+        }
+        Ignore ignore = Ignore.chain(root, path.getParent());
+        return ignore.ignored(path, Files.isDirectory(path));
+    }
+
+    private Entry entryOf(Path path) {
+        String rel = root.relativize(path).toString().replace('\\', '/');
+        byte[] key = rel.getBytes(StandardCharsets.UTF_8);
+        int slash = rel.lastIndexOf('/');
+        int nameStart = (slash < 0) ? 0 : rel.substring(0, slash + 1).getBytes(StandardCharsets.UTF_8).length;
+        return new Entry(path, key, nameStart);
+    }
+
+    private static String relative(Entry e) {
+        return new String(e.key(), StandardCharsets.UTF_8);
+    }
+
+    private static BasicFileAttributes attributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        indexes.remove(root, this);
+        FileWatcher.shared().removeListener(listener);
+        updater.shutdownNow();
+        for (Path dir : watchedDirs) FileWatcher.shared().unwatch(dir);
+        watchedDirs.clear();
+    }
+
+    /**
+     * The walk of a directory, forking the walks of the subdirectories.
+     */
+    private class Walk extends RecursiveAction {
+        private final Path dir;
+        private final Ignore ignore;
+
+        Walk(Path dir, Ignore ignore) {
+            this.dir = dir;
+            this.ignore = ignore;
+        }
+
+        @Override
+        protected void compute() {
+            if (closed) return;
+            if (watchedDirs.size() < WATCH_LIMIT && watchedDirs.add(dir)) {
+                FileWatcher.shared().watch(dir);
+            }
+            List<Walk> forks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path path : stream) {
+                    if (IGNORED_NAMES.contains(path.getFileName().toString())) continue;
+                    BasicFileAttributes attrs = attributes(path);
+                    if (attrs == null || ignore.ignored(path, attrs.isDirectory())) continue;
+                    if (attrs.isDirectory()) {
+                        forks.add(new Walk(path, Ignore.of(ignore, path)));
+                    } else if (attrs.isRegularFile()) {
+                        walked.add(entryOf(path));
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                log.log(System.Logger.Level.DEBUG, e);
+            }
+            invokeAll(forks);
+        }
+    }
+
+    /**
+     * The ignore rules of a directory, read from its {@code .gitignore}.
+     * Negated patterns are not supported.
+     */
+    static class Ignore {
+        private final Ignore parent;
+        private final Path dir;
+        /** The matchers of the file name. */
+        private final List<PathMatcher> names = new ArrayList<>();
+        /** The matchers of the file name, for directories only. */
+        private final List<PathMatcher> dirNames = new ArrayList<>();
+        /** The matchers of the relative path from the directory. */
+        private final List<PathMatcher> paths = new ArrayList<>();
+
+        private Ignore(Ignore parent, Path dir) {
+            this.parent = parent;
+            this.dir = dir;
+        }
+
+        /**
+         * Create the ignore rules of the specified directory.
+         * @param parent the rules of the parent directory, or {@code null}
+         * @param dir the directory
+         * @return the ignore rules
+         */
+        static Ignore of(Ignore parent, Path dir) {
+            Path file = dir.resolve(".gitignore");
+            if (!Files.isRegularFile(file)) {
+                return (parent == null) ? new Ignore(null, dir) : parent;
+            }
+            var ignore = new Ignore(parent, dir);
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    ignore.add(line.strip());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.log(System.Logger.Level.DEBUG, e);
+            }
+            return ignore;
+        }
+
+        /**
+         * Create the ignore rules of the specified directory, reading the ancestors up to the root.
+         * @param root the root of the workspace
+         * @param dir the directory
+         * @return the ignore rules
+         */
+        static Ignore chain(Path root, Path dir) {
+            Ignore ignore = of(null, root);
+            Path p = root;
+            for (Path name : root.relativize(dir)) {
+                if (name.toString().isEmpty()) continue;
+                p = p.resolve(name);
+                ignore = of(ignore, p);
+            }
+            return ignore;
+        }
+
+        private void add(String pattern) {
+            if (pattern.isEmpty() || pattern.startsWith("#") || pattern.startsWith("!")) return;
+            boolean dirOnly = pattern.endsWith("/");
+            if (dirOnly) pattern = pattern.substring(0, pattern.length() - 1);
+            if (pattern.startsWith("/")) pattern = pattern.substring(1);
+            if (pattern.isEmpty()) return;
+            var fs = FileSystems.getDefault();
+            if (pattern.contains("/")) {
+                paths.add(fs.getPathMatcher("glob:" + pattern));
+            } else {
+                (dirOnly ? dirNames : names).add(fs.getPathMatcher("glob:" + pattern));
+            }
+        }
+
+        /**
+         * Get whether the specified path is ignored.
+         * @param path the path
+         * @param directory whether the path is a directory
+         * @return {@code true} if ignored
+         */
+        boolean ignored(Path path, boolean directory) {
+            Path name = path.getFileName();
+            for (Ignore i = this; i != null; i = i.parent) {
+                if (!path.startsWith(i.dir)) continue;
+                for (PathMatcher m : i.names) if (m.matches(name)) return true;
+                if (directory) for (PathMatcher m : i.dirNames) if (m.matches(name)) return true;
+                if (!i.paths.isEmpty()) {
+                    Path rel = i.dir.relativize(path);
+                    for (PathMatcher m : i.paths) if (m.matches(rel)) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
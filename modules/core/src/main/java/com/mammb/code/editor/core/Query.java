@@ -64,6 +64,11 @@ public interface Query<R> {
     Query<Integer> lineSize = new LineSize();
     Query<Integer> rowSize = new RowSize();
     Query<Long> size = new Size();
+    Query<Long> footprint = new Footprint();
+    Query<Path> journalPath = new JournalPath();
+    Query<Path> journalCheckpoint = new JournalCheckpoint();
+    Query<Path> journalConflict = new JournalConflict();
+    Query<Long> revision = new Revision();
     Query<Boolean> hasSelected = new HasSelected();
     Query<String> selectedText = new SelectedText();
     Query<List<String>> textAtCarets = new TextAtCarets();
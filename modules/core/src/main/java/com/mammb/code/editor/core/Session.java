@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.Executor;
 
 /**
  * Represents a session containing information such as file paths,
@@ -339,6 +340,10 @@ public interface Session {
         return new Sessions.Binary(path);
     }
 
+    static Transformer autosave(Executor writer, Executor reader) {
+        return new Sessions.Autosave(writer, reader);
+    }
+
     static Transformer rowFilter(Collection<Integer> rows, int contextSize) {
         return new Sessions.RowFilter(rows, contextSize);
     }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The Flight Recorder events of the editor.
+ * <p>
+ * Each event carries its duration, and the sizes of the operation.
+ * Callers should populate the fields only when {@link Event#shouldCommit()} is {@code true}.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public final class EditorEvents {
+
+    /** The event name prefix. */
+    private static final String PREFIX = "com.mammb.code.editor.";
+
+    private EditorEvents() { }
+
+    @Name(PREFIX + "Open")
+    @Label("Open")
+    @Category({ "Editor", "Content" })
+    @Description("Open the file as an editable content")
+    @StackTrace(false)
+    public static class Open extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Charset")
+        public String charset;
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name(PREFIX + "Save")
+    @Label("Save")
+    @Category({ "Editor", "Content" })
+    @Description("Save the content to the file")
+    @StackTrace(false)
+    public static class Save extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Charset")
+        public String charset;
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Rows")
+        public int rows;
+    }
+
+    @Name(PREFIX + "Reload")
+    @Label("Reload")
+    @Category({ "Editor", "Content" })
+    @Description("Reload the content from the file")
+    @StackTrace(false)
+    public static class Reload extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Charset")
+        public String charset;
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Rows")
+        public int rows;
+        @Label("Incremental")
+        public boolean incremental;
+    }
+
+    @Name(PREFIX + "FindAll")
+    @Label("Find All")
+    @Category({ "Editor", "Find" })
+    @Description("Find all occurrences in the content")
+    @StackTrace(false)
+    public static class FindAll extends Event {
+        @Label("Regex")
+        public boolean regex;
+        @Label("Pattern Length")
+        public int patternLength;
+        @Label("Matches")
+        public int matches;
+    }
+
+    @Name(PREFIX + "FindInFile")
+    @Label("Find In File")
+    @Category({ "Editor", "Find" })
+    @Description("Search a file as a part of find in files")
+    @StackTrace(false)
+    public static class FindInFile extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Matches")
+        public int matches;
+    }
+
+    @Name(PREFIX + "LayoutRefresh")
+    @Label("Layout Refresh")
+    @Category({ "Editor", "Layout" })
+    @Description("Rebuild the wrapped lines of the layout")
+    @StackTrace(false)
+    public static class LayoutRefresh extends Event {
+        @Label("Start Row")
+        public int startRow;
+        @Label("End Row")
+        public int endRow;
+        @Label("Lines")
+        public int lines;
+    }
+
+    @Name(PREFIX + "Diff")
+    @Label("Diff")
+    @Category({ "Editor", "Diff" })
+    @Description("Run the diff algorithm")
+    @StackTrace(false)
+    public static class Diff extends Event {
+        @Label("Original Size")
+        public int orgSize;
+        @Label("Revised Size")
+        public int revSize;
+        @Label("Changes")
+        public int changes;
+    }
+
+    @Name(PREFIX + "Paint")
+    @Label("Paint")
+    @Category({ "Editor", "Paint" })
+    @Description("Paint the editor screen")
+    @StackTrace(false)
+    @Threshold("5 ms")
+    public static class Paint extends Event {
+        @Label("Top Line")
+        public int topLine;
+        @Label("Lines")
+        public int lines;
+        @Label("Lexed Rows")
+        public int lexedRows;
+    }
+
+    @Name(PREFIX + "Stash")
+    @Label("Stash")
+    @Category({ "Editor", "Session" })
+    @Description("Stash the content for the session")
+    @StackTrace(false)
+    public static class Stash extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+        @Label("Rows")
+        public int rows;
+    }
+
+}
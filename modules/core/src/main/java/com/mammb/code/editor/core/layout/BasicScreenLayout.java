@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 import com.mammb.code.editor.core.FontMetrics;
 import com.mammb.code.editor.core.Loc;
 import com.mammb.code.editor.core.ScreenScroll;
@@ -45,6 +47,8 @@ class BasicScreenLayout implements ScreenLayout {
     private volatile List<Text> buffer = new ArrayList<>();
     /** The content layout. */
     private ContentLayout layout;
+    /** The scroll-ahead prefetch. */
+    private final ScrollAhead scrollAhead = new ScrollAhead();
 
     /**
      * Constructor.
@@ -86,12 +90,13 @@ class BasicScreenLayout implements ScreenLayout {
                 // scroll next
                 List<Text> newBuf = new ArrayList<>(buffer.subList(delta, buffer.size()));
                 int startLine = line + newBuf.size();
-                texts = layout.texts(startLine, startLine + delta);
+                texts = scrollAhead.texts(layout, startLine, startLine + delta);
                 newBuf.addAll(texts);
                 buffer = newBuf;
+                scrollAhead.request(layout, line + screenLineSize, line + screenLineSize * 3);
             } else {
                 // scroll prev
-                texts = layout.texts(line, line - delta);
+                texts = scrollAhead.texts(layout, line, line - delta);
                 List<Text> newBuf = new ArrayList<>(buffer);
                 newBuf.addAll(0, texts);
                 if (newBuf.size() > screenLineSize) {
@@ -101,6 +106,7 @@ class BasicScreenLayout implements ScreenLayout {
                     ).clear();
                 }
                 buffer = newBuf;
+                scrollAhead.request(layout, line - screenLineSize * 2, line);
             }
             texts.stream().mapToDouble(Text::width)
                 .filter(w -> w > xMax).max()
@@ -118,12 +124,14 @@ class BasicScreenLayout implements ScreenLayout {
 
     @Override
     public void refreshBuffer(int startRow, int endRow) {
+        scrollAhead.clear();
         layout.refreshAt(startRow, endRow);
         fillBuffer();// TODO optimize
     }
 
     @Override
     public void refreshBuffer() {
+        scrollAhead.clear();
         layout.refresh(0);
         fillBuffer();// TODO optimize
     }
@@ -332,12 +340,14 @@ class BasicScreenLayout implements ScreenLayout {
             if (layout.rowSize() > 50_000) return; // large files are not allowed to wrap.
             layout = new WrapLayout(layout.content(), layout.fontMetrics());
         }
+        scrollAhead.clear();
         layout.setCharsInLine(n);
         fillBuffer();
     }
 
     @Override
     public void toggleLayout(String layoutName) {
+        scrollAhead.clear();
         if ("csv".equals(layoutName) || "tsv".equals(layoutName)) {
             if (layout instanceof CsvLayout) {
                 layout = new RowLayout(layout.content(), layout.fontMetrics());
@@ -360,9 +370,15 @@ class BasicScreenLayout implements ScreenLayout {
 
     @Override
     public void tabStop(int size) {
+        scrollAhead.clear();
         fontMetrics().setTabSize(size);
     }
 
+    @Override
+    public void setPrefetchListener(BiConsumer<List<? extends Text>, BooleanSupplier> listener) {
+        scrollAhead.setListener(listener);
+    }
+
     @Override
     public int charsInLine() {
         return layout.charsInLine();
@@ -370,6 +386,7 @@ class BasicScreenLayout implements ScreenLayout {
 
     @Override
     public void updateFontMetrics(FontMetrics fontMetrics) {
+        scrollAhead.clear();
         layout.updateFontMetrics(fontMetrics);
         fillBuffer();
     }
@@ -17,7 +17,9 @@ package com.mammb.code.editor.core.layout;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.FontMetrics;
 import com.mammb.code.editor.core.Loc;
 import com.mammb.code.editor.core.text.RowText;
 import com.mammb.code.editor.core.text.Text;
@@ -52,6 +54,20 @@ interface ContentLayout extends LineLayout {
      */
     List<? extends Text> texts(int startLine, int endLine);
 
+    /**
+     * Snapshot the rows of the specified line range on the calling thread,
+     * and get the supplier that builds the text list from the snapshot.
+     * The supplier does not touch the content, and can be called on another thread,
+     * measuring the texts with the specified font metrics.
+     * @param startLine the inclusive start line
+     * @param endLine the exclusive end line
+     * @param metrics the font metrics to measure the texts on the other thread
+     * @return the supplier of the text list, or empty if the layout does not support it
+     */
+    default Optional<Supplier<List<? extends Text>>> textsLater(int startLine, int endLine, FontMetrics metrics) {
+        return Optional.empty();
+    }
+
     /**
      * Get the {@link RowText} belonging to the specified number of lines.
      * @param line the specified number of lines
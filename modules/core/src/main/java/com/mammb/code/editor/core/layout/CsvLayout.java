@@ -19,8 +19,11 @@ import com.mammb.code.editor.core.Content;
 import com.mammb.code.editor.core.FontMetrics;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import com.mammb.code.editor.core.text.ColsText;
+import com.mammb.code.editor.core.text.Text;
 
 /**
  * The CSV Layout.
@@ -94,6 +97,12 @@ public class CsvLayout extends RowLayout {
         return texts;
     }
 
+    @Override
+    public Optional<Supplier<List<? extends Text>>> textsLater(int startLine, int endLine, FontMetrics metrics) {
+        // the column widths are widened as the rows are measured, which is not thread-safe
+        return Optional.empty();
+    }
+
     @Override
     public ColsText rowText(int line) {
         return rowTextAt(line);
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.layout;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import com.mammb.code.editor.core.FontMetrics;
+
+/**
+ * The font metrics for building texts on a background worker.
+ * The advances are taken only from the ones already measured, and the code points
+ * not yet measured are collected as misses, to be measured later on the thread
+ * that owns the font. Once released, the advances are measured as usual,
+ * for the texts that measure lazily after they are built.
+ * @author Naotsugu Kobayashi
+ */
+class MeasuredMetrics implements FontMetrics {
+
+    /** The font metrics. */
+    private final FontMetrics pear;
+    /** The code points not yet measured. */
+    private final Set<Integer> misses = ConcurrentHashMap.newKeySet();
+    /** Whether released to measure as usual. */
+    private volatile boolean released = false;
+
+    /**
+     * Constructor.
+     * @param pear the font metrics
+     */
+    MeasuredMetrics(FontMetrics pear) {
+        this.pear = pear;
+    }
+
+    /**
+     * Get the code points not yet measured.
+     * @return the code points
+     */
+    Set<Integer> misses() {
+        return misses;
+    }
+
+    /**
+     * Release to measure as usual.
+     */
+    void release() {
+        released = true;
+    }
+
+    @Override
+    public double getAdvance(int codePoint) {
+        if (released) return pear.getAdvance(codePoint);
+        double advance = pear.getMeasuredAdvance(codePoint);
+        if (Double.isNaN(advance)) {
+            misses.add(codePoint);
+            return pear.standardCharWidth();
+        }
+        return advance;
+    }
+
+    @Override
+    public double getMeasuredAdvance(int codePoint) {
+        return pear.getMeasuredAdvance(codePoint);
+    }
+
+    @Override
+    public double getMaxAscent() {
+        return pear.getMaxAscent();
+    }
+
+    @Override
+    public double getAscent() {
+        return pear.getAscent();
+    }
+
+    @Override
+    public double getXheight() {
+        return pear.getXheight();
+    }
+
+    @Override
+    public int getBaseline() {
+        return pear.getBaseline();
+    }
+
+    @Override
+    public double getDescent() {
+        return pear.getDescent();
+    }
+
+    @Override
+    public double getMaxDescent() {
+        return pear.getMaxDescent();
+    }
+
+    @Override
+    public double getLeading() {
+        return pear.getLeading();
+    }
+
+    @Override
+    public double getLineHeight() {
+        return pear.getLineHeight();
+    }
+
+    @Override
+    public double standardCharWidth() {
+        return pear.standardCharWidth();
+    }
+
+    @Override
+    public int getTabSize() {
+        return pear.getTabSize();
+    }
+
+    @Override
+    public void setTabSize(int size) {
+        pear.setTabSize(size);
+    }
+
+}
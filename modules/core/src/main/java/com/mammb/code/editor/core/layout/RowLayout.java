@@ -17,6 +17,7 @@ package com.mammb.code.editor.core.layout;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import com.mammb.code.editor.core.Content;
 import com.mammb.code.editor.core.FontMetrics;
@@ -79,6 +80,15 @@ class RowLayout implements ContentLayout {
             ).mapToObj(this::rowText).toList();
     }
 
+    @Override
+    public Optional<Supplier<List<? extends Text>>> textsLater(int startLine, int endLine, FontMetrics metrics) {
+        int start = Math.clamp(startLine, 0, content.rows());
+        List<String> values = IntStream.range(start, Math.clamp(endLine, 0, content.rows() + 1))
+            .mapToObj(content::getText).toList();
+        return Optional.of(() -> IntStream.range(0, values.size())
+            .mapToObj(i -> RowText.of(start + i, values.get(i), metrics)).toList());
+    }
+
     @Override
     public RowText rowText(int line) {
         return rowTextAt(line);
@@ -17,6 +17,8 @@ package com.mammb.code.editor.core.layout;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 import com.mammb.code.editor.core.Content;
 import com.mammb.code.editor.core.FontMetrics;
 import com.mammb.code.editor.core.Loc;
@@ -181,6 +183,14 @@ public interface ScreenLayout extends LineLayout {
      */
     void tabStop(int size);
 
+    /**
+     * Set the listener to be called with the texts prefetched ahead of scrolling.
+     * The listener is called on a background worker, with the supplier that answers
+     * whether the texts are still current, i.e. the layout has not been refreshed since.
+     * @param listener the listener
+     */
+    void setPrefetchListener(BiConsumer<List<? extends Text>, BooleanSupplier> listener);
+
     /**
      * Get the number of half-lines on the screen.
      * @return the number of half-lines on the screen
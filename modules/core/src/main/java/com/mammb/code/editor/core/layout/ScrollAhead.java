@@ -0,0 +1,182 @@
+/*
+ * Copyright 2023-2024 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.layout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import com.mammb.code.editor.core.FontMetrics;
+import com.mammb.code.editor.core.text.Text;
+
+/**
+ * The scroll-ahead prefetch.
+ * Snapshots the rows beyond the screen in the scroll direction on the calling thread,
+ * builds the texts from the snapshot on a background worker,
+ * and keeps them in a bounded cache keyed by line number.
+ * The worker measures the texts only with the advances already measured, and the texts
+ * with a code point not yet measured are discarded, to be measured on the calling thread
+ * on the next request.
+ * The cache is invalidated whenever the layout is refreshed, and the results
+ * of the snapshot taken before the invalidation are discarded, along with the
+ * results of the listener, which share the generation of the cache.
+ * @author Naotsugu Kobayashi
+ */
+class ScrollAhead {
+
+    /** logger. */
+    private static final System.Logger log = System.getLogger(ScrollAhead.class.getName());
+
+    /** The worker shared by all layouts. */
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(
+        Thread.ofVirtual().name("scroll-ahead").factory());
+
+    /** The maximum number of lines to be cached. */
+    private static final int CAPACITY = 1024;
+
+    /** The prefetched texts keyed by line number. */
+    private final Map<Integer, Text> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Text> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    /** The generation of the cache, incremented on each invalidation. */
+    private long generation = 0;
+    /** The code points missed by the worker, to be measured on the calling thread. */
+    private final Set<Integer> misses = new HashSet<>();
+    /** The pending prefetch. */
+    private Future<?> pending;
+    /** The listener called on the worker with the prefetched texts and the validity of them. */
+    private BiConsumer<List<? extends Text>, BooleanSupplier> listener = (_, _) -> { };
+
+    /**
+     * Get the texts in the specified line range.
+     * If all lines are prefetched, they are served from the cache,
+     * otherwise they are fetched from the layout.
+     * @param layout the content layout
+     * @param startLine the inclusive start line
+     * @param endLine the exclusive end line
+     * @return the text list
+     */
+    List<? extends Text> texts(ContentLayout layout, int startLine, int endLine) {
+        synchronized (cache) {
+            List<Text> texts = new ArrayList<>(Math.max(0, endLine - startLine));
+            for (int line = startLine; line < endLine; line++) {
+                Text text = cache.get(line);
+                if (text == null) {
+                    texts = null;
+                    break;
+                }
+                texts.add(text);
+            }
+            if (texts != null) return texts;
+        }
+        return layout.texts(startLine, endLine);
+    }
+
+    /**
+     * Request a prefetch of the specified line range.
+     * The rows are snapshot here, and the texts are built from them on the worker.
+     * A pending request that has not yet started is discarded.
+     * @param layout the content layout
+     * @param startLine the inclusive start line
+     * @param endLine the exclusive end line
+     */
+    void request(ContentLayout layout, int startLine, int endLine) {
+        int start = Math.max(0, startLine);
+        int end = Math.min(layout.lineSize(), endLine);
+        if (start >= end) return;
+        long gen;
+        synchronized (cache) {
+            if (!misses.isEmpty()) {
+                FontMetrics fm = layout.fontMetrics();
+                misses.forEach(fm::getAdvance);
+                misses.clear();
+            }
+            gen = generation;
+            while (start < end && cache.containsKey(start)) start++;
+            while (start < end && cache.containsKey(end - 1)) end--;
+            if (start >= end) return;
+        }
+        var metrics = new MeasuredMetrics(layout.fontMetrics());
+        Optional<Supplier<List<? extends Text>>> snapshot = layout.textsLater(start, end, metrics);
+        if (snapshot.isEmpty()) return;
+        if (pending != null) pending.cancel(false);
+        final int s = start;
+        pending = worker.submit(() -> prefetch(snapshot.get(), metrics, s, gen));
+    }
+
+    /**
+     * Set the listener called on the worker with the prefetched texts.
+     * The listener should discard its results once the supplied validity turns false.
+     * @param listener the listener
+     */
+    void setListener(BiConsumer<List<? extends Text>, BooleanSupplier> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Invalidate the cache.
+     */
+    void clear() {
+        synchronized (cache) {
+            generation++;
+            cache.clear();
+        }
+        if (pending != null) pending.cancel(false);
+    }
+
+    private void prefetch(Supplier<List<? extends Text>> snapshot, MeasuredMetrics metrics, int startLine, long gen) {
+        try {
+            List<? extends Text> texts;
+            try {
+                texts = snapshot.get();
+            } finally {
+                metrics.release();
+            }
+            synchronized (cache) {
+                if (gen != generation) return;
+                if (!metrics.misses().isEmpty()) {
+                    misses.addAll(metrics.misses());
+                    return;
+                }
+                for (int i = 0; i < texts.size(); i++) {
+                    cache.put(startLine + i, texts.get(i));
+                }
+            }
+            listener.accept(texts, () -> isCurrent(gen));
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "prefetch failed", e);
+        }
+    }
+
+    private boolean isCurrent(long gen) {
+        synchronized (cache) {
+            return gen == generation;
+        }
+    }
+
+}
@@ -22,10 +22,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 import com.mammb.code.editor.core.Content;
 import com.mammb.code.editor.core.FontMetrics;
 import com.mammb.code.editor.core.Loc;
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.editor.core.text.RowText;
 import com.mammb.code.editor.core.text.SubText;
 import com.mammb.code.editor.core.text.Text;
@@ -68,6 +70,8 @@ class WrapLayout implements ContentLayout {
 
     @Override
     public void refresh(int line) {
+        var event = new EditorEvents.LayoutRefresh();
+        event.begin();
         lines.subList(line, lines.size()).clear();
         int i = 0;
         if (!lines.isEmpty()) {
@@ -79,13 +83,17 @@ class WrapLayout implements ContentLayout {
                 i = range.row() + 1;
             }
         }
+        int startRow = i;
         for (; i < content.rows(); i++) {
             lines.addAll(subRanges(i));
         }
+        commit(event, startRow, content.rows() - 1);
     }
 
     @Override
     public void refreshAt(int startRow, int endRow) {
+        var event = new EditorEvents.LayoutRefresh();
+        event.begin();
 
         int fluctuations = (content.rows() - 1) - lines.getLast().row();
 
@@ -123,6 +131,16 @@ class WrapLayout implements ContentLayout {
                 expects.forEach(System.out::println);
             }
         }
+        commit(event, startRow, endRow);
+    }
+
+    private void commit(EditorEvents.LayoutRefresh event, int startRow, int endRow) {
+        if (event.shouldCommit()) {
+            event.startRow = startRow;
+            event.endRow = endRow;
+            event.lines = lines.size();
+            event.commit();
+        }
     }
 
     @Override
@@ -160,6 +178,30 @@ class WrapLayout implements ContentLayout {
         }).flatMap(Collection::stream).map(Text.class::cast).toList();
     }
 
+    @Override
+    public Optional<Supplier<List<? extends Text>>> textsLater(int startLine, int endLine, FontMetrics metrics) {
+        if (startLine == endLine ||
+            (startLine >= lines.size() && endLine >= lines.size())) return Optional.of(List::of);
+        SubRange startRange = subRange(Math.min(startLine, endLine));
+        SubRange endRange   = subRange(Math.max(startLine, endLine) - 1);
+        int startRow = startRange.row();
+        List<String> values = IntStream.rangeClosed(startRow, endRange.row())
+            .mapToObj(content::getText).toList();
+        double width = charsInLine * metrics.standardCharWidth();
+
+        return Optional.of(() -> IntStream.range(0, values.size()).mapToObj(i -> {
+            int row = startRow + i;
+            var subs = SubText.of(RowText.of(row, values.get(i), metrics), width);
+            if (row == endRange.row() && subs.size() >= endRange.subLine() + 1) {
+                subs.subList(endRange.subLine() + 1, subs.size()).clear();
+            }
+            if (row == startRow) {
+                subs.subList(0, startRange.subLine()).clear();
+            }
+            return subs;
+        }).flatMap(Collection::stream).map(Text.class::cast).toList());
+    }
+
     @Override
     public RowText rowText(int line) {
         return rowTextAt(subRange(line).row());
@@ -24,6 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -129,6 +130,16 @@ public abstract class ContentAdapter implements Content {
         pear().reloadWith(charset);
     }
 
+    @Override
+    public Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        return pear().reloadIncrementally(points);
+    }
+
+    @Override
+    public int appendTail() {
+        return pear().appendTail();
+    }
+
     @Override
     public void write(Path path) {
         pear().write(path);
@@ -159,5 +170,10 @@ public abstract class ContentAdapter implements Content {
         return pear().query(query);
     }
 
+    @Override
+    public void onSharedEdit(Consumer<SharedContent.Edit> listener) {
+        pear().onSharedEdit(listener);
+    }
+
     abstract protected Content pear();
 }
@@ -18,6 +18,7 @@ package com.mammb.code.editor.core.model;
 import com.mammb.code.editor.core.Find;
 import com.mammb.code.editor.core.Point;
 import com.mammb.code.editor.core.Point.*;
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.piecetable.Pos;
 import com.mammb.code.piecetable.SearchContext;
 import java.util.ArrayList;
@@ -42,9 +43,17 @@ public class FindImpl implements Find {
     @Override
     public List<PointLen> all(Spec spec) {
         if (spec.isEmpty()) return List.of();
+        var event = new EditorEvents.FindAll();
+        event.begin();
         List<PointLen> list = new ArrayList<>();
         sc.findAll(spec(spec), seg -> seg.value().stream()
             .map(p -> PointLen.of(p.row(), p.col(), p.len())).forEach(list::add));
+        if (event.shouldCommit()) {
+            event.regex = spec.patternType() == Find.PatternType.REGEX;
+            event.patternLength = spec.pattern().length();
+            event.matches = list.size();
+            event.commit();
+        }
         return list;
     }
 
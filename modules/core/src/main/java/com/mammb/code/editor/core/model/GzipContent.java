@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Files;
+import com.mammb.code.editor.core.Name;
+import com.mammb.code.editor.core.Query;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The read-only content of a gzip-compressed file.
+ * <p>
+ * The file is inflated in a single streaming pass into a temporary spool file,
+ * which is then viewed as a {@link MappedContent}. The sparse row index of the
+ * mapped content lets any row be read without inflating from the start again,
+ * and the heap stays small however large the file is.
+ * The spools are created in the directory of the application, as the stashes are,
+ * so that the ones left by a crash can be deleted on the next start.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class GzipContent extends ContentAdapter {
+
+    /** logger. */
+    private static final System.Logger log = System.getLogger(GzipContent.class.getName());
+    /** The gzip magic number. */
+    private static final int MAGIC = 0x1f8b;
+    /** The suffix of the spool files. */
+    private static final String SPOOL_SUFFIX = ".spool";
+
+    /** The path of the gzip file. */
+    private final Path path;
+    /** The directory of the spool files, or {@code null} for the temporary directory. */
+    private final Path spoolDir;
+    /** The path of the spool file holding the inflated text. */
+    private Path spool;
+    /** The pear content. */
+    private Content pear;
+    /** The last modified time of the gzip file, as inflated. */
+    private FileTime lastModifiedTime;
+
+    private GzipContent(Path path, Path spoolDir) {
+        this.path = path;
+        this.spoolDir = spoolDir;
+    }
+
+    /**
+     * Create a new {@link GzipContent} by inflating the specified file into the temporary directory.
+     * @param path the path of the gzip file
+     * @param consumer the progress callback, which accepts the number of compressed bytes inflated
+     * @return a new {@link GzipContent}
+     */
+    public static GzipContent of(Path path, Consumer<Long> consumer) {
+        return of(path, null, consumer);
+    }
+
+    /**
+     * Create a new {@link GzipContent} by inflating the specified file into the spool directory.
+     * @param path the path of the gzip file
+     * @param spoolDir the directory of the spool files, or {@code null} for the temporary directory
+     * @param consumer the progress callback, which accepts the number of compressed bytes inflated
+     * @return a new {@link GzipContent}
+     */
+    public static GzipContent of(Path path, Path spoolDir, Consumer<Long> consumer) {
+        var content = new GzipContent(path, spoolDir);
+        content.inflate(consumer);
+        return content;
+    }
+
+    /**
+     * Deletes the spool files left in the specified directory, by a crash of the application.
+     * This is expected to be called on start, before any gzip file is opened.
+     * @param spoolDir the directory of the spool files
+     */
+    public static void deleteSpools(Path spoolDir) {
+        if (!Files.isReadableDirectory(spoolDir)) return;
+        try (var paths = Files.list(spoolDir)) {
+            paths.filter(p -> p.getFileName().toString().endsWith(SPOOL_SUFFIX))
+                .forEach(Files::deleteQuietly);
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "failed to delete the spools", e);
+        }
+    }
+
+    /**
+     * Get whether the specified file is a gzip file, by its extension and magic number.
+     * @param path the path of the file
+     * @return {@code true} if the file is a gzip file
+     */
+    public static boolean isGzip(Path path) {
+        if (path == null || path.getFileName() == null) return false;
+        String name = path.getFileName().toString().toLowerCase();
+        if (!name.endsWith(".gz") && !name.endsWith(".tgz")) return false;
+        try (InputStream in = java.nio.file.Files.newInputStream(path)) {
+            return ((in.read() << 8) | in.read()) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void inflate(Consumer<Long> consumer) {
+        // taken before inflating, so that a change while inflating is seen as a change
+        FileTime modified = Files.lastModifiedTime(path);
+        Path temp = Files.createTempFile(spoolDir, path.getFileName().toString() + "_", SPOOL_SUFFIX);
+        try (FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+             InputStream in = new GZIPInputStream(Channels.newInputStream(fc), 64 * 1024);
+             OutputStream out = java.nio.file.Files.newOutputStream(temp)) {
+            byte[] buf = new byte[64 * 1024];
+            long reported = 0;
+            for (int n; (n = in.read(buf)) >= 0; ) {
+                out.write(buf, 0, n);
+                long position = fc.position();
+                if (position > reported) {
+                    consumer.accept(position - reported);
+                    reported = position;
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteQuietly(temp);
+            throw new RuntimeException(e);
+        }
+        Content old = pear;
+        Path oldSpool = spool;
+        pear = MappedContent.of(temp, _ -> { });
+        spool = temp;
+        lastModifiedTime = modified;
+        // the spool is deleted once unmapped by the close of its content
+        if (old != null) old.close();
+        if (oldSpool != null) Files.deleteQuietly(oldSpool);
+    }
+
+    @Override
+    public Optional<Path> path() {
+        return Optional.of(path);
+    }
+
+    @Override
+    public Optional<FileTime> lastModifiedTime() {
+        return Optional.ofNullable(lastModifiedTime);
+    }
+
+    @Override
+    public void reload() {
+        inflate(_ -> { });
+    }
+
+    @Override
+    public int appendTail() {
+        // a compressed file is not followed
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        pear.close();
+        Files.deleteQuietly(spool);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R query(Query<R> query) {
+        return switch (query) {
+            case QueryRecords.ModelName _ -> {
+                Name name = Name.of(path, false);
+                yield (R) Name.of(name.canonical(), name.plain(), "[" + name.plain() + "]");
+            }
+            default -> super.query(query);
+        };
+    }
+
+    @Override
+    protected Content pear() {
+        return pear;
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import com.mammb.code.editor.core.tools.Diff;
+import com.mammb.code.editor.core.tools.Source;
+import com.mammb.code.editor.core.tools.SourcePair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The incremental reload.
+ * Diffs the rows of the content against the rows on disk, and applies only
+ * the changed hunks as a single edit, so that the undo history is kept
+ * and the reload is undone at once.
+ * The rows are compared without their row endings, so the caller is expected
+ * to fall back to a full reload when the row ending style has changed.
+ * @author Naotsugu Kobayashi
+ */
+final class IncrementalReload {
+
+    /** The maximum number of rows to be diffed, beyond which a full reload is cheaper. */
+    static final int DIFF_LIMIT = 50_000;
+
+    /** The content. */
+    private final Content content;
+    /** The rows on disk, without the row endings. */
+    private final List<String> lines;
+    /** The changed hunks, in ascending order. */
+    private final List<Hunk> hunks = new ArrayList<>();
+
+    /**
+     * The changed hunk, where the rows {@code [orgFrom, orgTo)} are replaced
+     * with the lines {@code [revFrom, revTo)}.
+     */
+    private record Hunk(int orgFrom, int orgTo, int revFrom, int revTo) { }
+
+    /** The row with its hash, to make the comparison cheap. */
+    private record Row(int hash, String text) {
+        static Row of(String text) {
+            return new Row(text.hashCode(), text);
+        }
+    }
+
+    private IncrementalReload(Content content, List<String> lines) {
+        this.content = content;
+        this.lines = lines.isEmpty() ? List.of("") : lines;
+    }
+
+    /**
+     * Apply the lines on disk to the content.
+     * @param content the content
+     * @param lines the rows on disk, without the row endings
+     * @param points the points to be moved along the changes
+     * @return the moved points, or empty if the changes are too large to be diffed
+     */
+    static Optional<List<Point>> apply(Content content, List<String> lines, List<Point> points) {
+        var reload = new IncrementalReload(content, lines);
+        if (!reload.diff()) return Optional.empty();
+        if (!reload.hunks.isEmpty()) {
+            String ending = content.query(Query.rowEndingChars);
+            List<Point.Range> ranges = new ArrayList<>(reload.hunks.size());
+            List<Function<String, String>> texts = new ArrayList<>(reload.hunks.size());
+            for (Hunk hunk : reload.hunks) {
+                Replace replace = reload.replace(hunk, ending);
+                ranges.add(replace.range());
+                texts.add(_ -> replace.text());
+            }
+            content.replace(ranges, texts);
+        }
+        return Optional.of(points.stream().map(reload::move).toList());
+    }
+
+    private boolean diff() {
+        int n = content.rows();
+        int m = lines.size();
+        int head = 0;
+        while (head < n && head < m && row(head).equals(lines.get(head))) head++;
+        int tail = 0;
+        while (tail < n - head && tail < m - head
+            && row(n - 1 - tail).equals(lines.get(m - 1 - tail))) tail++;
+
+        int orgSize = n - head - tail;
+        int revSize = m - head - tail;
+        if (orgSize == 0 && revSize == 0) return true;
+        if (orgSize + revSize > DIFF_LIMIT) return false;
+
+        List<Row> org = new ArrayList<>(orgSize);
+        for (int i = head; i < n - tail; i++) org.add(Row.of(row(i)));
+        List<Row> rev = lines.subList(head, m - tail).stream().map(Row::of).toList();
+
+        for (var change : Diff.run(new SourcePair<>(Source.of(org), Source.of(rev))).changes()) {
+            hunks.add(new Hunk(
+                head + change.orgFrom(), head + change.orgTo(),
+                head + change.revFrom(), head + change.revTo()));
+        }
+        return true;
+    }
+
+    /** The replacement of a hunk. */
+    private record Replace(Point.Range range, String text) { }
+
+    /**
+     * Get the replacement of the rows of the hunk, in the points before the changes.
+     * The last row has no row ending, so a hunk that reaches the last row
+     * replaces up to the end of the content instead of the start of the next row.
+     * @param hunk the hunk
+     * @param ending the row ending of the content
+     * @return the replacement
+     */
+    private Replace replace(Hunk hunk, String ending) {
+        int last = content.rows() - 1;
+        List<String> revs = lines.subList(hunk.revFrom(), hunk.revTo());
+        if (hunk.orgTo() <= last) {
+            var sb = new StringBuilder();
+            revs.forEach(line -> sb.append(line).append(ending));
+            return new Replace(new Point.Range(Point.of(hunk.orgFrom(), 0), Point.of(hunk.orgTo(), 0)), sb.toString());
+        }
+        Point end = Point.of(last, row(last).length());
+        if (hunk.orgFrom() > last) {
+            return new Replace(new Point.Range(end, end), ending + String.join(ending, revs));
+        } else if (revs.isEmpty()) {
+            // also removes the row ending of the preceding row, which becomes the last row
+            int prev = hunk.orgFrom() - 1;
+            return new Replace(new Point.Range(Point.of(prev, row(prev).length()), end), "");
+        } else {
+            return new Replace(new Point.Range(Point.of(hunk.orgFrom(), 0), end), String.join(ending, revs));
+        }
+    }
+
+    /**
+     * Move the point along the changes.
+     * A point in a changed hunk is moved to the start of the hunk.
+     * @param point the point before the changes
+     * @return the point after the changes
+     */
+    private Point move(Point point) {
+        int row = point.row();
+        int col = point.col();
+        int shift = 0;
+        for (Hunk hunk : hunks) {
+            if (row < hunk.orgFrom()) break;
+            if (row < hunk.orgTo()) {
+                row = hunk.revFrom();
+                col = shift = 0;
+                break;
+            }
+            shift = hunk.revTo() - hunk.orgTo();
+        }
+        row = Math.clamp(row + shift, 0, content.rows() - 1);
+        return Point.of(row, Math.min(col, row(row).length()));
+    }
+
+    private String row(int i) {
+        String row = content.getText(i);
+        int end = row.length();
+        if (end > 0 && row.charAt(end - 1) == '\n') end--;
+        if (end > 0 && row.charAt(end - 1) == '\r') end--;
+        return row.substring(0, end);
+    }
+
+}
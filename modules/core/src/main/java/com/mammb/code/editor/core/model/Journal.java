@@ -0,0 +1,386 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Point;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The append-only journal of the edits made to a content loaded from a file.
+ * <p>
+ * The journal begins with the identity of the base file, and continues with
+ * the operations of the content in the order they are applied. Replaying the
+ * operations onto the base file rebuilds the content, including its undo history.
+ * The records are buffered, and synced to the storage when a record is written
+ * more than a second after the last sync, or when {@link #sync()} is called.
+ * The last records before the editing pauses are therefore left unsynced until the
+ * next checkpoint of the autosave, and are lost if the application crashes in between.
+ * The records are written out on the caller thread, and synced to the storage on a
+ * single writer thread, so as not to block the editing.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+class Journal implements Closeable {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(Journal.class.getName());
+
+    /** The magic number of the journal, "MEJ1". */
+    static final int MAGIC = 0x4d454a31;
+    /** The interval of syncing to the storage, in nanoseconds. */
+    private static final long SYNC_INTERVAL = 1_000_000_000L;
+    /** The single writer thread syncing the journals to the storage, in order. */
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(
+        Thread.ofVirtual().name("journal-sync").factory());
+
+    private static final byte INSERT = 1;
+    private static final byte INSERT_ALL = 2;
+    private static final byte DELETE = 3;
+    private static final byte DELETE_ALL = 4;
+    private static final byte BACKSPACE = 5;
+    private static final byte BACKSPACE_ALL = 6;
+    private static final byte REPLACE = 7;
+    private static final byte REPLACE_ALL = 8;
+    private static final byte UNDO = 9;
+    private static final byte REDO = 10;
+    private static final byte INSERT_FLUSH = 11;
+    private static final byte CLEAR_FLUSH = 12;
+
+    /** The path of the journal. */
+    private final Path path;
+    /** The channel of the journal. */
+    private final FileChannel channel;
+    /** The buffered output of the journal. */
+    private final DataOutputStream out;
+    /** The time of the last sync. */
+    private long syncedAt = System.nanoTime();
+
+    /**
+     * The identity of the base file.
+     * @param path the path of the base file
+     * @param size the size of the base file
+     * @param lastModified the last modified time of the base file, in milliseconds
+     * @param charset the name of the charset the base file is read with
+     */
+    record Header(Path path, long size, long lastModified, String charset) { }
+
+    /**
+     * Constructor.
+     * @param path the path of the journal
+     * @param channel the channel opened to append
+     */
+    private Journal(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    /**
+     * Create a new journal with the header.
+     * @param path the path of the journal
+     * @param header the header
+     * @return a new journal
+     * @throws IOException if an I/O error occurs
+     */
+    static Journal create(Path path, Header header) throws IOException {
+        var journal = new Journal(path, FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        journal.out.writeInt(MAGIC);
+        writeString(journal.out, header.path().toString());
+        journal.out.writeLong(header.size());
+        journal.out.writeLong(header.lastModified());
+        writeString(journal.out, header.charset());
+        journal.sync();
+        return journal;
+    }
+
+    /**
+     * Create a new journal as a copy of the source journal, to continue appending to the copy.
+     * @param source the source journal
+     * @param path the path of the new journal
+     * @return a new journal
+     * @throws IOException if an I/O error occurs
+     */
+    static Journal fork(Path source, Path path) throws IOException {
+        Files.copy(source, path);
+        return new Journal(path, FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Get whether the file is a journal or not.
+     * @param path the path of the file
+     * @return {@code true} if the file is a journal
+     */
+    static boolean is(Path path) {
+        try (var in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Read the header of the journal.
+     * @param path the path of the journal
+     * @return the header
+     * @throws IOException if an I/O error occurs, or the file is not a journal
+     */
+    static Header header(Path path) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * Replay the operations of the journal onto the content of the base file.
+     * A record truncated by a crash ends the replay.
+     * @param path the path of the journal
+     * @param content the content of the base file
+     * @return the number of operations replayed
+     * @throws IOException if an I/O error occurs, or the file is not a journal
+     */
+    static int replay(Path path, Content content) throws IOException {
+        int count = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            readHeader(in);
+            for (;;) {
+                int op = in.read();
+                if (op < 0) break;
+                switch (op) {
+                    case INSERT -> { var p = readPoint(in); content.insert(p, readString(in)); }
+                    case INSERT_ALL -> { var ps = readPoints(in); content.insert(ps, readString(in)); }
+                    case DELETE -> content.delete(readPoint(in));
+                    case DELETE_ALL -> content.delete(readPoints(in));
+                    case BACKSPACE -> content.backspace(readPoint(in));
+                    case BACKSPACE_ALL -> content.backspace(readPoints(in));
+                    case REPLACE -> { var s = readPoint(in); var e = readPoint(in); content.replace(s, e, readString(in)); }
+                    case REPLACE_ALL -> {
+                        int n = in.readInt();
+                        List<Point.Range> ranges = new ArrayList<>(n);
+                        for (int i = 0; i < n; i++) ranges.add(new Point.Range(readPoint(in), readPoint(in)));
+                        List<Function<String, String>> texts = new ArrayList<>(n);
+                        for (int i = 0; i < n; i++) { String text = readString(in); texts.add(_ -> text); }
+                        content.replace(ranges, texts);
+                    }
+                    case UNDO -> content.undo();
+                    case REDO -> content.redo();
+                    case INSERT_FLUSH -> { var p = readPoint(in); content.insertFlush(p, readString(in)); }
+                    case CLEAR_FLUSH -> content.clearFlush();
+                    default -> throw new IOException("unknown journal record: " + op);
+                }
+                count++;
+            }
+        } catch (EOFException e) {
+            // the last record was not written completely
+        }
+        return count;
+    }
+
+    void insert(Point point, String text) throws IOException {
+        out.writeByte(INSERT);
+        writePoint(point);
+        writeString(out, text);
+        written();
+    }
+
+    void insert(List<Point> points, String text) throws IOException {
+        out.writeByte(INSERT_ALL);
+        writePoints(points);
+        writeString(out, text);
+        written();
+    }
+
+    void delete(Point point) throws IOException {
+        out.writeByte(DELETE);
+        writePoint(point);
+        written();
+    }
+
+    void delete(List<Point> points) throws IOException {
+        out.writeByte(DELETE_ALL);
+        writePoints(points);
+        written();
+    }
+
+    void backspace(Point point) throws IOException {
+        out.writeByte(BACKSPACE);
+        writePoint(point);
+        written();
+    }
+
+    void backspace(List<Point> points) throws IOException {
+        out.writeByte(BACKSPACE_ALL);
+        writePoints(points);
+        written();
+    }
+
+    void replace(Point start, Point end, String text) throws IOException {
+        out.writeByte(REPLACE);
+        writePoint(start);
+        writePoint(end);
+        writeString(out, text);
+        written();
+    }
+
+    void replace(List<Point.Range> ranges, List<String> texts) throws IOException {
+        out.writeByte(REPLACE_ALL);
+        out.writeInt(ranges.size());
+        for (Point.Range range : ranges) {
+            writePoint(range.start());
+            writePoint(range.end());
+        }
+        for (String text : texts) writeString(out, text);
+        written();
+    }
+
+    void undo() throws IOException {
+        out.writeByte(UNDO);
+        written();
+    }
+
+    void redo() throws IOException {
+        out.writeByte(REDO);
+        written();
+    }
+
+    void insertFlush(Point point, String text) throws IOException {
+        out.writeByte(INSERT_FLUSH);
+        writePoint(point);
+        writeString(out, text);
+        written();
+    }
+
+    void clearFlush() throws IOException {
+        out.writeByte(CLEAR_FLUSH);
+        written();
+    }
+
+    /**
+     * Write the buffered records, and sync them to the storage on the writer thread.
+     * @throws IOException if an I/O error occurs
+     */
+    void sync() throws IOException {
+        out.flush();
+        syncedAt = System.nanoTime();
+        writer.execute(this::force);
+    }
+
+    /**
+     * Get the path of the journal.
+     * @return the path of the journal
+     */
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Write the buffered records, and close the journal once synced on the writer thread.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        out.flush();
+        writer.execute(() -> {
+            force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.log(System.Logger.Level.WARNING, "failed to close the journal " + path, e);
+            }
+        });
+    }
+
+    /**
+     * Close the journal without syncing, and delete it.
+     * @throws IOException if an I/O error occurs
+     */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            // closed in the meantime when deleted, or synced by the close
+            if (channel.isOpen()) log.log(System.Logger.Level.WARNING, "failed to sync the journal " + path, e);
+        }
+    }
+
+    private void written() throws IOException {
+        if (System.nanoTime() - syncedAt > SYNC_INTERVAL) {
+            sync();
+        }
+    }
+
+    private void writePoint(Point point) throws IOException {
+        out.writeInt(point.row());
+        out.writeInt(point.col());
+    }
+
+    private void writePoints(List<Point> points) throws IOException {
+        out.writeInt(points.size());
+        for (Point point : points) writePoint(point);
+    }
+
+    private static Header readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a journal");
+        return new Header(Path.of(readString(in)), in.readLong(), in.readLong(), readString(in));
+    }
+
+    private static Point readPoint(DataInputStream in) throws IOException {
+        return Point.of(in.readInt(), in.readInt());
+    }
+
+    private static List<Point> readPoints(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<Point> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) points.add(readPoint(in));
+        return points;
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
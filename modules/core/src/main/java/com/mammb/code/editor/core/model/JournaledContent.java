@@ -0,0 +1,406 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Files;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The content of a file, whose edits are recorded to an append-only {@link Journal}.
+ * <p>
+ * The journal is started at the first edit after the file is loaded, reloaded or saved.
+ * A stash of the content refers to the journal instead of a copy of the whole content,
+ * and the content is restored by replaying the journal onto the file.
+ * Once the journal is referred to by a stash, it is kept as it is,
+ * and the subsequent edits are recorded to a copy of it.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class JournaledContent extends ContentAdapter {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(JournaledContent.class.getName());
+
+    /** The pear content. */
+    private final Content pear;
+    /** The directory of the journals. */
+    private final Path dir;
+    /** The journal, {@code null} if not started. */
+    private Journal journal;
+    /** The path of the journal referred to by a stash, {@code null} if none. */
+    private Path sealed;
+    /** The path of the journal that could not be replayed, {@code null} if none. */
+    private Path conflict;
+    /** Whether the edits can no longer be replayed from the journal. */
+    private boolean broken;
+    /** Whether the undo history goes back beyond the start of the journal. */
+    private boolean historyBefore;
+
+    /**
+     * Constructor.
+     * @param pear the pear content
+     * @param dir the directory of the journals
+     */
+    private JournaledContent(Content pear, Path dir) {
+        this.pear = Objects.requireNonNull(pear);
+        this.dir = Objects.requireNonNull(dir);
+    }
+
+    /**
+     * Create a content whose edits are recorded to a journal.
+     * @param pear the content loaded from a file
+     * @param dir the directory of the journals, or {@code null} to not record the edits
+     * @return the content
+     */
+    public static Content of(Content pear, Path dir) {
+        if (dir == null || pear.path().isEmpty()) return pear;
+        return new JournaledContent(pear, dir);
+    }
+
+    /**
+     * Get whether the file is a journal or not.
+     * @param path the path of the file
+     * @return {@code true} if the file is a journal
+     */
+    public static boolean isJournal(Path path) {
+        return Files.exists(path) && Journal.is(path);
+    }
+
+    /**
+     * Restore the content by replaying the journal onto the file.
+     * If the file has changed since the journal was started, or the journal cannot be replayed,
+     * the file is loaded as it is, and the journal is kept as {@link Query#journalConflict}
+     * so that the edits are not lost silently.
+     * @param journal the path of the journal
+     * @param path the path of the file
+     * @param dir the directory of the journals
+     * @return the restored content
+     */
+    public static Content restore(Path journal, Path path, Path dir) {
+        var content = new JournaledContent(new TextEditContent(path), dir);
+        try {
+            var header = Journal.header(journal);
+            FileTime lastModified = Files.lastModifiedTime(path);
+            if (header.size() != Files.size(path) || lastModified == null
+                    || header.lastModified() != lastModified.toMillis()) {
+                log.log(System.Logger.Level.WARNING, "{0} has changed since the journal {1}, the journal is kept",
+                    path, journal);
+                content.conflict = journal;
+                return content;
+            }
+            if (!content.pear.query(Query.charCode).name().equals(header.charset())) {
+                content.pear.reloadWith(Charset.forName(header.charset()));
+            }
+            int ops = Journal.replay(journal, content.pear);
+            content.sealed = journal;
+            log.log(System.Logger.Level.DEBUG, "replayed {0} operations from {1}", ops, journal);
+        } catch (IOException | RuntimeException e) {
+            log.log(System.Logger.Level.ERROR, "failed to replay the journal " + journal, e);
+            content.pear.reload();
+            content.conflict = journal;
+        }
+        return content;
+    }
+
+    /**
+     * Replay the journal onto the content loaded from the file, as the edits through the content.
+     * The journal is not replayed if the file has changed since the journal was started.
+     * @param journal the path of the journal
+     * @param content the content loaded from the file, and not modified
+     * @return {@code true} if replayed
+     */
+    public static boolean replay(Path journal, Content content) {
+        try {
+            var header = Journal.header(journal);
+            FileTime lastModified = content.lastModifiedTime().orElse(null);
+            if (header.size() != content.query(Query.size) || lastModified == null
+                    || header.lastModified() != lastModified.toMillis()
+                    || !content.query(Query.charCode).name().equals(header.charset())) {
+                log.log(System.Logger.Level.WARNING, "{0} has changed since the journal {1}",
+                    header.path(), journal);
+                return false;
+            }
+            int ops = Journal.replay(journal, content);
+            log.log(System.Logger.Level.DEBUG, "replayed {0} operations from {1}", ops, journal);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.log(System.Logger.Level.ERROR, "failed to replay the journal " + journal, e);
+            return false;
+        }
+    }
+
+    @Override
+    public Point insert(Point point, String text) {
+        var ret = pear.insert(point, text);
+        record(j -> j.insert(point, text));
+        return ret;
+    }
+
+    @Override
+    public List<Point> insert(List<Point> points, String text) {
+        var ret = pear.insert(points, text);
+        record(j -> j.insert(points, text));
+        return ret;
+    }
+
+    @Override
+    public String delete(Point point) {
+        var ret = pear.delete(point);
+        record(j -> j.delete(point));
+        return ret;
+    }
+
+    @Override
+    public List<Point> delete(List<Point> points) {
+        var ret = pear.delete(points);
+        record(j -> j.delete(points));
+        return ret;
+    }
+
+    @Override
+    public Point backspace(Point point) {
+        var ret = pear.backspace(point);
+        record(j -> j.backspace(point));
+        return ret;
+    }
+
+    @Override
+    public List<Point> backspace(List<Point> points) {
+        var ret = pear.backspace(points);
+        record(j -> j.backspace(points));
+        return ret;
+    }
+
+    @Override
+    public Point replace(Point start, Point end, String text) {
+        var ret = pear.replace(start, end, text);
+        record(j -> j.replace(start, end, text));
+        return ret;
+    }
+
+    @Override
+    public List<Point.Range> replace(List<Point.Range> ranges, List<Function<String, String>> funs) {
+        if (funs == null || funs.isEmpty()) return pear.replace(ranges, funs);
+        // the replaced texts are recorded, as the functions cannot be
+        String[] texts = new String[ranges.size()];
+        List<Function<String, String>> recorders = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            int index = i;
+            var fun = funs.get(i % funs.size());
+            recorders.add(s -> texts[index] = fun.apply(s));
+        }
+        var ret = pear.replace(ranges, recorders);
+        record(j -> j.replace(ranges, Arrays.asList(texts)));
+        return ret;
+    }
+
+    @Override
+    public List<Point> undo() {
+        if (historyBefore) breaks();
+        var ret = pear.undo();
+        record(Journal::undo);
+        return ret;
+    }
+
+    @Override
+    public List<Point> redo() {
+        if (historyBefore) breaks();
+        var ret = pear.redo();
+        record(Journal::redo);
+        return ret;
+    }
+
+    @Override
+    public void save(Path path) {
+        pear.save(path);
+        // the saved file is the base of the subsequent edits
+        rebase(true);
+    }
+
+    @Override
+    public void reload() {
+        pear.reload();
+        rebase(false);
+    }
+
+    @Override
+    public void reloadWith(Charset charset) {
+        pear.reloadWith(charset);
+        rebase(false);
+    }
+
+    @Override
+    public Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        var ret = pear.reloadIncrementally(points);
+        if (ret.isPresent()) rebase(true);
+        return ret;
+    }
+
+    @Override
+    public int appendTail() {
+        int appended = pear.appendTail();
+        if (appended > 0) rebase(true);
+        return appended;
+    }
+
+    @Override
+    public Point insertFlush(Point point, String text) {
+        var ret = pear.insertFlush(point, text);
+        record(j -> j.insertFlush(point, text));
+        return ret;
+    }
+
+    @Override
+    public void clearFlush() {
+        pear.clearFlush();
+        record(Journal::clearFlush);
+    }
+
+    @Override
+    public void close() {
+        pear.close();
+        discard();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R query(Query<R> query) {
+        return switch (query) {
+            case QueryRecords.JournalPath _ -> (R) journalPath();
+            case QueryRecords.JournalCheckpoint _ -> (R) checkpoint();
+            case QueryRecords.JournalConflict _ -> (R) conflict;
+            default -> super.query(query);
+        };
+    }
+
+    @Override
+    protected Content pear() {
+        return pear;
+    }
+
+    /**
+     * Syncs the journal, and keeps it as it is to be referred to by a stash.
+     * @return the path of the journal, or {@code null} if the edits cannot be replayed from a journal
+     */
+    private Path journalPath() {
+        if (broken) return null;
+        if (sealed != null && journal == null) return sealed;
+        if (journal == null) return null;
+        try {
+            // the journal is synced on the writer thread as it is closed
+            journal.close();
+            sealed = journal.path();
+            journal = null;
+            return sealed;
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "failed to sync the journal", e);
+            breaks();
+            return null;
+        }
+    }
+
+    /**
+     * Writes out the journal as a checkpoint, while the journal continues to be appended.
+     * @return the path of the journal, or {@code null} if the edits cannot be replayed from a journal
+     */
+    private Path checkpoint() {
+        if (broken) return null;
+        if (journal == null) return sealed;
+        try {
+            // synced on the single writer thread of the journals
+            journal.sync();
+            return journal.path();
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "failed to write the journal", e);
+            breaks();
+            return null;
+        }
+    }
+
+    private void record(Record record) {
+        if (broken) return;
+        try {
+            if (journal == null) {
+                journal = (sealed == null)
+                    ? Journal.create(newJournalPath(), header())
+                    : Journal.fork(sealed, newJournalPath());
+                sealed = null;
+            }
+            record.write(journal);
+        } catch (IOException | RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "failed to record the journal", e);
+            breaks();
+        }
+    }
+
+    private Journal.Header header() throws IOException {
+        Path path = pear.path().orElseThrow();
+        FileTime lastModified = pear.lastModifiedTime().orElseThrow(() -> new IOException("no last modified time"));
+        return new Journal.Header(path, Files.size(path), lastModified.toMillis(),
+            pear.query(Query.charCode).name());
+    }
+
+    private Path newJournalPath() {
+        String name = pear.path().map(Path::getFileName).map(Path::toString).orElse("");
+        return dir.resolve(String.join("_", UUID.randomUUID().toString(), name + ".journal"));
+    }
+
+    private void rebase(boolean keepsHistory) {
+        discard();
+        sealed = null;
+        broken = false;
+        historyBefore = keepsHistory;
+    }
+
+    private void breaks() {
+        discard();
+        broken = true;
+    }
+
+    /**
+     * Closes the journal, and deletes it unless referred to by a stash.
+     */
+    private void discard() {
+        if (journal == null) return;
+        try {
+            journal.delete();
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "failed to discard the journal", e);
+        }
+        journal = null;
+    }
+
+    /**
+     * The writer of a record.
+     */
+    private interface Record {
+        void write(Journal journal) throws IOException;
+    }
+
+}
@@ -0,0 +1,711 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Files;
+import com.mammb.code.editor.core.Find;
+import com.mammb.code.editor.core.Name;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The read-only content backed by a memory-mapped file.
+ * <p>
+ * The file is mapped in segments of {@link #SEGMENT_SIZE}, and a sparse index
+ * holds the byte offset of every {@link #CHECKPOINT}th row. The index is built
+ * in parallel, and rows are decoded on demand, so that a file of many gigabytes
+ * can be viewed with a small heap.
+ * Only ASCII-compatible charsets are supported, as rows are split at {@code '\n'}.
+ * The mappings are released when the content is closed or remapped.
+ * </p>
+ * <p>
+ * A progressive content, created by {@link #progressiveOf(Path, Consumer)}, is usable
+ * immediately and grows its rows while the index is built on a background thread.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class MappedContent implements Content {
+
+    /** The bit length of the mapped segment size. */
+    private static final int SEGMENT_BITS = 30;
+    /** The mapped segment size. */
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    /** The size of the chunk scanned by a single task, which divides the segment size. */
+    private static final int CHUNK_SIZE = 1 << 24;
+    /** The interval of rows between checkpoints of the offset index. */
+    static final int CHECKPOINT = 1024;
+    /** The size of the head used to detect the charset. */
+    private static final int DETECT_SIZE = 1 << 16;
+    /** The utf-8 bom. */
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    /** The path of the file. */
+    private final Path path;
+    /** The size of the chunk scanned by a single task. */
+    private final int chunkSize;
+    /** The arena of the mapped segments. */
+    private Arena arena;
+    /** The mapped segments. */
+    private ByteBuffer[] segments;
+    /** The size of the file. */
+    private long size;
+    /** The offset of the first row, excluding the bom. */
+    private long head;
+    /** The byte offsets of every {@link #CHECKPOINT}th row. */
+    private volatile long[] checkpoints;
+    /** The number of rows. */
+    private volatile int rows;
+    /** Whether the first row ends with a CRLF, found when the first newline is indexed. */
+    private volatile boolean crlf;
+    /** The charset. */
+    private Charset charset;
+    /** The last modified time. */
+    private FileTime lastModifiedTime;
+    /** The key of the mapped file, to detect the file being replaced. */
+    private Object fileKey;
+    /** The last located row, to make sequential row access cheap. */
+    private volatile Cursor cursor = new Cursor(0, 0);
+    /** The background indexer of the progressive content. */
+    private volatile Thread indexer;
+    /** Whether the progressive index is being built. */
+    private volatile boolean loading;
+
+    /** The located row and its byte offset. */
+    private record Cursor(int row, long offset) { }
+
+    /**
+     * Constructor.
+     * @param path the path of the file
+     * @param chunkSize the size of the chunk scanned by a single task, a power of two
+     */
+    private MappedContent(Path path, int chunkSize) {
+        this.path = path;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Create a new {@link MappedContent} by mapping the specified file.
+     * @param path the path of the file
+     * @param consumer the progress callback, which accepts the number of bytes indexed
+     * @return a new {@link MappedContent}
+     */
+    public static MappedContent of(Path path, Consumer<Long> consumer) {
+        return of(path, CHUNK_SIZE, consumer);
+    }
+
+    /**
+     * Create a new {@link MappedContent} with the specified chunk size.
+     * @param path the path of the file
+     * @param chunkSize the size of the chunk scanned by a single task, a power of two
+     * @param consumer the progress callback
+     * @return a new {@link MappedContent}
+     */
+    static MappedContent of(Path path, int chunkSize, Consumer<Long> consumer) {
+        var content = new MappedContent(path, chunkSize);
+        content.load(null, consumer);
+        return content;
+    }
+
+    /**
+     * Create a new progressive {@link MappedContent}.
+     * The content initially has a single row, and the rows grow chunk by chunk
+     * as the index is built on a background thread.
+     * @param path the path of the file
+     * @param consumer the progress callback, which accepts the number of bytes indexed,
+     *     the total reaches the size of the file when the index is complete
+     * @return a new {@link MappedContent}
+     */
+    public static MappedContent progressiveOf(Path path, Consumer<Long> consumer) {
+        return progressiveOf(path, CHUNK_SIZE, consumer);
+    }
+
+    /**
+     * Create a new progressive {@link MappedContent} with the specified chunk size.
+     * @param path the path of the file
+     * @param chunkSize the size of the chunk scanned at a time, a power of two
+     * @param consumer the progress callback
+     * @return a new {@link MappedContent}
+     */
+    static MappedContent progressiveOf(Path path, int chunkSize, Consumer<Long> consumer) {
+        var content = new MappedContent(path, chunkSize);
+        content.map(null);
+        content.rows = 1;
+        content.checkpoints = new long[] { content.head };
+        content.loading = true;
+        content.indexer = Thread.ofVirtual().name("progressive-index")
+            .start(() -> content.indexSequentially(consumer));
+        return content;
+    }
+
+    /**
+     * Gets whether the rows of the specified file can be split at {@code '\n'} bytes,
+     * that is, the file does not look like UTF-16 or UTF-32 by its bom or its zero bytes.
+     * @param path the path of the file
+     * @return {@code true} if the file can be viewed as a {@link MappedContent}
+     */
+    public static boolean supports(Path path) {
+        byte[] head = Files.read(path, 0, 1024);
+        if (head.length >= 2 && ((head[0] == (byte) 0xFE && head[1] == (byte) 0xFF)
+                || (head[0] == (byte) 0xFF && head[1] == (byte) 0xFE))) {
+            return false;
+        }
+        if (head.length >= 4 && head[0] == 0 && head[1] == 0 && head[2] == (byte) 0xFE && head[3] == (byte) 0xFF) {
+            return false;
+        }
+        // utf-16 without a bom has zero bytes at every other position for ascii text
+        int evenZeros = 0, oddZeros = 0;
+        for (int i = 0; i < head.length; i++) {
+            if (head[i] == 0) {
+                if (i % 2 == 0) evenZeros++; else oddZeros++;
+            }
+        }
+        return Math.max(evenZeros, oddZeros) < head.length / 4;
+    }
+
+    /**
+     * Get whether the progressive index is being built.
+     * @return {@code true} if the index is being built
+     */
+    public boolean loading() {
+        return loading;
+    }
+
+    private void load(Charset cs, Consumer<Long> consumer) {
+        stopIndexer();
+        map(cs);
+        buildIndex(consumer);
+    }
+
+    private void map(Charset cs) {
+        Arena mapped = Arena.ofShared();
+        try (var fc = FileChannel.open(path, StandardOpenOption.READ)) {
+            long newSize = fc.size();
+            int n = (int) ((newSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            var newSegments = new ByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long pos = i * SEGMENT_SIZE;
+                newSegments[i] = fc.map(FileChannel.MapMode.READ_ONLY,
+                    pos, Math.min(SEGMENT_SIZE, newSize - pos), mapped).asByteBuffer();
+            }
+            unmap();
+            arena = mapped;
+            segments = newSegments;
+            size = newSize;
+        } catch (IOException | RuntimeException e) {
+            mapped.close();
+            throw (e instanceof RuntimeException re) ? re : new RuntimeException(e);
+        }
+        head = hasBom() ? UTF8_BOM.length : 0;
+        charset = (cs != null) ? cs : (head > 0) ? StandardCharsets.UTF_8 : detectCharset();
+        cursor = new Cursor(0, head);
+        lastModifiedTime = Files.lastModifiedTime(path);
+        fileKey = Files.fileKey(path);
+    }
+
+    /**
+     * Build the sparse offset index in order, publishing the rows after each batch of chunks.
+     * The chunks of a batch are scanned in parallel, and the batch doubles up to the
+     * number of processors, so that the first rows are published early.
+     * The checkpoints are published before the rows, so that a reader who sees
+     * the rows also sees their checkpoints.
+     */
+    private void indexSequentially(Consumer<Long> consumer) {
+        long indexed = 0;
+        int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long[] cps = checkpoints;
+        long row = 0;
+        for (int from = 0, batch = 1; from < chunks && size > 0; from += batch, batch = Math.min(batch * 2, parallelism)) {
+            if (Thread.currentThread().isInterrupted()) return;
+            int first = from;
+            int to = Math.min(chunks, from + batch);
+            long[] counts = new long[to - from];
+            IntStream.range(from, to).parallel().forEach(c -> counts[c - first] = countNewlines(c));
+            if (row == 0) detectRowEnding(counts, from);
+            long[] startRows = new long[counts.length];
+            long total = row;
+            for (int i = 0; i < counts.length; i++) {
+                startRows[i] = total;
+                total += counts[i];
+            }
+            if (total + 1 > Integer.MAX_VALUE) break;
+            int n = (int) (total / CHECKPOINT) + 1;
+            if (n > cps.length) cps = Arrays.copyOf(cps, Math.max(n, cps.length * 2));
+            long[] target = cps;
+            IntStream.range(from, to).parallel().forEach(c ->
+                recordCheckpoints(target, c, startRows[c - first], counts[c - first]));
+            row = total;
+            checkpoints = cps;
+            // the last row is not yet terminated, but reading it scans forward to its end
+            rows = (int) row + 1;
+            long done = Math.min(size, (long) to * chunkSize);
+            consumer.accept(done - indexed);
+            indexed = done;
+        }
+        if (indexed < size) consumer.accept(size - indexed);
+        loading = false;
+    }
+
+    private void stopIndexer() {
+        Thread thread = indexer;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        indexer = null;
+        loading = false;
+    }
+
+    /**
+     * Release the mapped segments, so that the file is no longer locked on Windows.
+     */
+    private void unmap() {
+        if (arena != null) {
+            arena.close();
+            arena = null;
+        }
+    }
+
+    /**
+     * Build the sparse offset index in two parallel passes.
+     * The first pass counts the newlines of each chunk, and the second pass
+     * records the checkpoint offsets using the row number at the start of each chunk.
+     * @param consumer the progress callback
+     */
+    private void buildIndex(Consumer<Long> consumer) {
+        int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        long[] counts = new long[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            counts[c] = countNewlines(c);
+            consumer.accept(chunkLength(c) / 2);
+        });
+        detectRowEnding(counts, 0);
+
+        long[] startRows = new long[chunks];
+        long total = 0;
+        for (int c = 0; c < chunks; c++) {
+            startRows[c] = total;
+            total += counts[c];
+        }
+        if (total + 1 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("too many rows: " + (total + 1));
+        }
+        long[] cps = new long[(int) ((total + CHECKPOINT) / CHECKPOINT)];
+        cps[0] = head;
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            recordCheckpoints(cps, c, startRows[c], counts[c]);
+            consumer.accept(chunkLength(c) - chunkLength(c) / 2);
+        });
+        checkpoints = cps;
+        rows = (int) total + 1;
+    }
+
+    /**
+     * Detect the row ending from the byte just before the first newline, in the
+     * first of the chunks having a newline.
+     * @param counts the number of newlines of each chunk
+     * @param from the first chunk of the counts
+     */
+    private void detectRowEnding(long[] counts, int from) {
+        crlf = false;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            ByteBuffer bb = chunkBuffer(from + i);
+            long base = (long) (from + i) * chunkSize;
+            for (int pos = 0; pos < bb.limit(); pos++) {
+                if (bb.get(pos) != '\n') continue;
+                crlf = base + pos > head && byteAt(base + pos - 1) == '\r';
+                return;
+            }
+        }
+    }
+
+    private long chunkLength(int c) {
+        return Math.min(chunkSize, size - (long) c * chunkSize);
+    }
+
+    private long countNewlines(int c) {
+        if (size == 0) return 0;
+        ByteBuffer bb = chunkBuffer(c);
+        long count = 0;
+        int pos = 0;
+        int limit = bb.limit();
+        while (pos <= limit - 8) {
+            count += Long.bitCount(newlines(bb.getLong(pos)));
+            pos += 8;
+        }
+        for (; pos < limit; pos++) {
+            if (bb.get(pos) == '\n') count++;
+        }
+        return count;
+    }
+
+    private void recordCheckpoints(long[] cps, int c, long startRow, long count) {
+        long firstCheckpoint = (startRow / CHECKPOINT + 1) * CHECKPOINT;
+        if (count == 0 || firstCheckpoint > startRow + count) return;
+        ByteBuffer bb = chunkBuffer(c);
+        long base = (long) c * chunkSize;
+        long row = startRow;
+        long next = firstCheckpoint;
+        int pos = 0;
+        int limit = bb.limit();
+        while (pos <= limit - 8) {
+            long m = newlines(bb.getLong(pos));
+            int n = Long.bitCount(m);
+            // the words without the next checkpoint are skipped by their count
+            if (row + n < next) {
+                row += n;
+            } else {
+                for (; m != 0; m &= ~(Long.MIN_VALUE >>> Long.numberOfLeadingZeros(m))) {
+                    if (++row == next) {
+                        // the buffer is big-endian, so the leading bits are of the first byte
+                        cps[(int) (row / CHECKPOINT)] = base + pos + (Long.numberOfLeadingZeros(m) >>> 3) + 1;
+                        next += CHECKPOINT;
+                        if (next > startRow + count) return;
+                    }
+                }
+            }
+            pos += 8;
+        }
+        for (; pos < limit; pos++) {
+            if (bb.get(pos) == '\n' && ++row == next) {
+                cps[(int) (row / CHECKPOINT)] = base + pos + 1;
+                next += CHECKPOINT;
+                if (next > startRow + count) return;
+            }
+        }
+    }
+
+    /**
+     * Get the mask of the newlines in the word, with the high bit set of each {@code '\n'} byte.
+     * @param word the eight bytes
+     * @return the mask of the newlines
+     */
+    private static long newlines(long word) {
+        long x = word ^ 0x0A0A0A0A0A0A0A0AL;
+        // sets the high bit of each zero byte exactly, i.e. each '\n' of the original
+        long t = (x & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL;
+        return ~(t | x | 0x7F7F7F7F7F7F7F7FL);
+    }
+
+    private ByteBuffer chunkBuffer(int c) {
+        long pos = (long) c * chunkSize;
+        int offset = (int) (pos & (SEGMENT_SIZE - 1));
+        return segments[(int) (pos >>> SEGMENT_BITS)].slice(offset, (int) chunkLength(c));
+    }
+
+    private byte byteAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & (SEGMENT_SIZE - 1)));
+    }
+
+    private long indexOfNewline(long from) {
+        for (long i = from; i < size; i++) {
+            if (byteAt(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the byte offset of the specified row.
+     * @param row the row
+     * @return the byte offset
+     */
+    private long offsetOf(int row) {
+        Cursor c = cursor;
+        int fromRow;
+        long offset;
+        if (c.row() <= row && row / CHECKPOINT == c.row() / CHECKPOINT) {
+            fromRow = c.row();
+            offset = c.offset();
+        } else {
+            fromRow = row / CHECKPOINT * CHECKPOINT;
+            offset = checkpoints[row / CHECKPOINT];
+        }
+        for (int i = fromRow; i < row; i++) {
+            offset = indexOfNewline(offset) + 1;
+        }
+        cursor = new Cursor(row, offset);
+        return offset;
+    }
+
+    private byte[] bytes(long from, long to) {
+        byte[] bytes = new byte[Math.toIntExact(to - from)];
+        int written = 0;
+        while (written < bytes.length) {
+            long pos = from + written;
+            var seg = segments[(int) (pos >>> SEGMENT_BITS)];
+            int offset = (int) (pos & (SEGMENT_SIZE - 1));
+            int len = Math.min(bytes.length - written, seg.limit() - offset);
+            seg.get(offset, bytes, written, len);
+            written += len;
+        }
+        return bytes;
+    }
+
+    private boolean hasBom() {
+        if (size < UTF8_BOM.length) return false;
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (byteAt(i) != UTF8_BOM[i]) return false;
+        }
+        return true;
+    }
+
+    private Charset detectCharset() {
+        byte[] bytes = bytes(0, Math.min(size, DETECT_SIZE));
+        for (String name : List.of("UTF-8", "Windows-31J")) {
+            try {
+                CharsetDecoder decoder = Charset.forName(name).newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+                var cb = CharBuffer.allocate(bytes.length);
+                // not the end of input, as the head may end in the middle of a character
+                if (!decoder.decode(ByteBuffer.wrap(bytes), cb, false).isError()) {
+                    return decoder.charset();
+                }
+            } catch (Exception ignore) { }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    @Override
+    public String getText(int row) {
+        if (row < 0 || row >= rows) return "";
+        long from = offsetOf(row);
+        long nl = indexOfNewline(from);
+        long to = (nl < 0) ? size : nl + 1;
+        return new String(bytes(from, to), charset);
+    }
+
+    @Override
+    public String getText(Point start, Point end) {
+        var sb = new StringBuilder();
+        for (int i = start.row(); i <= end.row(); i++) {
+            String row = getText(i);
+            row = (i == end.row()) ? row.substring(0, Math.min(end.col(), row.length())) : row;
+            row = (i == start.row()) ? row.substring(Math.min(start.col(), row.length())) : row;
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public Optional<Path> path() {
+        return Optional.of(path);
+    }
+
+    @Override
+    public Optional<FileTime> lastModifiedTime() {
+        return Optional.ofNullable(lastModifiedTime);
+    }
+
+    @Override
+    public boolean readonly() {
+        return true;
+    }
+
+    @Override
+    public void save(Path path) {
+    }
+
+    @Override
+    public void reload() {
+        reloadWith(charset);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if the charset is not ASCII-compatible, e.g. UTF-16
+     */
+    @Override
+    public void reloadWith(Charset charset) {
+        if (charset != null && !SpliceWrite.spliceable(charset)) {
+            throw new IllegalArgumentException("unsupported charset for a mapped file: " + charset.name());
+        }
+        load(charset, _ -> { });
+    }
+
+    @Override
+    public int appendTail() {
+        if (loading) return 0;
+        long newSize = Files.size(path);
+        if (newSize == size) return 0;
+        if (newSize < size || !Objects.equals(fileKey, Files.fileKey(path))) return -1;
+        long from = size;
+        int before = rows;
+        // remapping is cheap, as the pages are loaded lazily
+        map(charset);
+        long row = before - 1;
+        long[] cps = checkpoints;
+        int n = (int) (row / CHECKPOINT) + 1;
+        for (long i = from; i < size; i++) {
+            if (row == 0 && byteAt(i) == '\n') crlf = i > head && byteAt(i - 1) == '\r';
+            if (byteAt(i) == '\n' && ++row % CHECKPOINT == 0) {
+                if (n == cps.length) cps = Arrays.copyOf(cps, n * 2);
+                cps[n++] = i + 1;
+            }
+        }
+        if (row + 1 > Integer.MAX_VALUE) return -1;
+        checkpoints = cps;
+        rows = (int) row + 1;
+        return rows - before;
+    }
+
+    @Override
+    public void write(Path path) {
+        try {
+            java.nio.file.Files.copy(this.path, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        stopIndexer();
+        unmap();
+        segments = new ByteBuffer[0];
+        checkpoints = new long[] { 0 };
+        size = 0;
+        rows = 1;
+        cursor = new Cursor(0, 0);
+    }
+
+    @Override
+    public Point insert(Point point, String text) {
+        return point;
+    }
+
+    @Override
+    public List<Point> insert(List<Point> points, String text) {
+        return points;
+    }
+
+    @Override
+    public String delete(Point point) {
+        return "";
+    }
+
+    @Override
+    public List<Point> delete(List<Point> points) {
+        return List.of();
+    }
+
+    @Override
+    public Point backspace(Point point) {
+        return point;
+    }
+
+    @Override
+    public List<Point> backspace(List<Point> points) {
+        return List.of();
+    }
+
+    @Override
+    public Point replace(Point start, Point end, String text) {
+        return end;
+    }
+
+    @Override
+    public List<Point.Range> replace(List<Point.Range> ranges, List<Function<String, String>> funs) {
+        return ranges;
+    }
+
+    @Override
+    public List<Point> undo() {
+        return List.of();
+    }
+
+    @Override
+    public List<Point> redo() {
+        return List.of();
+    }
+
+    @Override
+    public Point insertFlush(Point point, String text) {
+        return point;
+    }
+
+    @Override
+    public void clearFlush() {
+    }
+
+    @Override
+    public Find find() {
+        return new RowScanFind(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R query(Query<R> query) {
+        return switch (query) {
+            case QueryRecords.RowEndingSymbol _ -> (R) (crlf ? "CRLF" : "LF");
+            case QueryRecords.RowEndingChars _  -> (R) (crlf ? "\r\n" : "\n");
+            case QueryRecords.CharCode _        -> (R) charset;
+            case QueryRecords.CharCodeSymbol _  -> (R) charsetName();
+            case QueryRecords.Modified _        -> (R) Boolean.FALSE;
+            case QueryRecords.Revision _        -> (R) Long.valueOf(0);
+            case QueryRecords.Bom _             -> (R) ((head > 0) ? UTF8_BOM.clone() : new byte[0]);
+            case QueryRecords.ModelName _       -> (R) readonlyName(Name.of(path, false));
+            case QueryRecords.Size _            -> (R) Long.valueOf(size);
+            case QueryRecords.Footprint _       -> (R) Long.valueOf(checkpoints.length * 8L);
+            default                             -> null;
+        };
+    }
+
+    private String charsetName() {
+        var name = charset.displayName();
+        return switch (name) {
+            case "windows-31j" -> "SJIS";
+            default -> name;
+        };
+    }
+
+    private Name readonlyName(Name name) {
+        return Name.of(name.canonical(), name.plain(),
+            "[" + name.plain() + "]" + (loading ? " (loading)" : ""));
+    }
+
+}
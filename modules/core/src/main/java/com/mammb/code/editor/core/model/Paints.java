@@ -24,8 +24,10 @@ import com.mammb.code.editor.core.Point;
 import com.mammb.code.editor.core.Rgba;
 import com.mammb.code.editor.core.Theme;
 import com.mammb.code.editor.core.layout.ScreenLayout;
+import com.mammb.code.editor.core.text.RowText;
 import com.mammb.code.editor.core.text.Style;
 import com.mammb.code.editor.core.text.StyledText;
+import com.mammb.code.editor.core.text.SubText;
 import com.mammb.code.editor.core.text.Symbols;
 import com.mammb.code.editor.core.text.Text;
 import java.util.Arrays;
@@ -79,9 +81,19 @@ public class Paints {
         double x, y = 0;
         double prevRow = -1;
         List<Style.StyleSpan> spans = List.of();
-        for (Text text : screenLayout.screenLines()) {
+        for (Text line : screenLayout.screenLines()) {
             x = 0;
-            if (text.row() != prevRow) {
+            Text text = line;
+            if (text instanceof RowText row && RowText.isLong(row)) {
+                // long rows are painted only around the visible columns
+                double margin = screenLayout.screenWidth() / 2;
+                SubText window = SubText.windowOf(row,
+                    screenLayout.xShift() - margin,
+                    screenLayout.xShift() + screenLayout.screenWidth() + margin);
+                x = row.widthTo(window.fromIndex());
+                text = window;
+            }
+            if (text.row() != prevRow || RowText.isLong(text)) {
                 // update the spans only if the row is different from the previous one
                 // reuse the previous style for the same row
                 spans = decorate.apply(text);
@@ -129,7 +141,7 @@ public class Paints {
                 }
                 x += st.width();
             }
-            y += text.height();
+            y += line.height();
         }
     }
 
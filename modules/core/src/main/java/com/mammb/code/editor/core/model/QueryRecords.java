@@ -70,6 +70,16 @@ public interface QueryRecords {
     record RowSize() implements Query<Integer> { }
     /** The query of content size. */
     record Size() implements Query<Long> { }
+    /** The query of the estimated heap footprint, in bytes. */
+    record Footprint() implements Query<Long> { }
+    /** The query of the journal path to be referred to by a stash. */
+    record JournalPath() implements Query<Path> { }
+    /** The query of the journal path, written out as a checkpoint to be recovered from. */
+    record JournalCheckpoint() implements Query<Path> { }
+    /** The query of the journal kept unreplayed, as the file has changed since the journal was started. */
+    record JournalConflict() implements Query<Path> { }
+    /** The query of the revision, incremented on each edit. */
+    record Revision() implements Query<Long> { }
     /** The query of has selected. */
     record HasSelected() implements Query<Boolean> { }
     /** The query of selected text. */
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Find;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Point.PointLen;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link Find} implementation that scans the rows of the content one by one.
+ * Used for the contents that are not backed by a piece table.
+ * @author Naotsugu Kobayashi
+ */
+class RowScanFind implements Find {
+
+    /** The content. */
+    private final Content content;
+    /** The founds of the last {@link #all(Spec)}. */
+    private volatile List<PointLen> founds = List.of();
+
+    /**
+     * Constructor.
+     * @param content the content
+     */
+    RowScanFind(Content content) {
+        this.content = content;
+    }
+
+    @Override
+    public List<PointLen> all(Spec spec) {
+        if (spec.isEmpty()) return List.of();
+        Pattern pattern = pattern(spec);
+        List<PointLen> list = new ArrayList<>();
+        for (int row = 0; row < content.rows(); row++) {
+            if (Thread.currentThread().isInterrupted()) break;
+            Matcher matcher = pattern.matcher(stripEnding(content.getText(row)));
+            while (matcher.find()) {
+                if (matcher.end() == matcher.start()) continue;
+                list.add(PointLen.of(row, matcher.start(), matcher.end() - matcher.start()));
+            }
+        }
+        founds = List.copyOf(list);
+        return list;
+    }
+
+    @Override
+    public Optional<PointLen> nextOne(Point base, Spec spec) {
+        if (spec.isEmpty()) return Optional.empty();
+        Pattern pattern = pattern(spec);
+        for (int row = base.row(); row < content.rows(); row++) {
+            Matcher matcher = pattern.matcher(stripEnding(content.getText(row)));
+            int from = (row == base.row()) ? base.col() : 0;
+            if (from <= matcher.regionEnd() && matcher.find(from) && matcher.end() > matcher.start()) {
+                return Optional.of(PointLen.of(row, matcher.start(), matcher.end() - matcher.start()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<PointLen> prevOne(Point base, Spec spec) {
+        if (spec.isEmpty()) return Optional.empty();
+        Pattern pattern = pattern(spec);
+        for (int row = Math.min(base.row(), content.rows() - 1); row >= 0; row--) {
+            Matcher matcher = pattern.matcher(stripEnding(content.getText(row)));
+            int to = (row == base.row()) ? base.col() : Integer.MAX_VALUE;
+            PointLen last = null;
+            while (matcher.find() && matcher.start() < to) {
+                if (matcher.end() > matcher.start()) {
+                    last = PointLen.of(row, matcher.start(), matcher.end() - matcher.start());
+                }
+            }
+            if (last != null) return Optional.of(last);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<PointLen> founds() {
+        return founds;
+    }
+
+    @Override
+    public Optional<PointLen> next(Point base) {
+        return founds.stream()
+            .filter(p -> p.row() > base.row() || (p.row() == base.row() && p.col() >= base.col()))
+            .findFirst();
+    }
+
+    @Override
+    public Optional<PointLen> prev(Point base) {
+        return founds.reversed().stream()
+            .filter(p -> p.row() < base.row() || (p.row() == base.row() && p.col() < base.col()))
+            .findFirst();
+    }
+
+    @Override
+    public void clear() {
+        founds = List.of();
+    }
+
+    private static Pattern pattern(Spec spec) {
+        return switch (spec.patternType()) {
+            case REGEX -> Pattern.compile(spec.pattern());
+            case CASE_INSENSITIVE -> Pattern.compile(Pattern.quote(spec.pattern()),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            default -> Pattern.compile(Pattern.quote(spec.pattern()));
+        };
+    }
+
+    private static String stripEnding(String text) {
+        int end = text.length();
+        if (end > 0 && text.charAt(end - 1) == '\n') end--;
+        if (end > 0 && text.charAt(end - 1) == '\r') end--;
+        return text.substring(0, end);
+    }
+
+}
@@ -21,14 +21,26 @@ import com.mammb.code.editor.core.Context;
 import com.mammb.code.editor.core.Files;
 import com.mammb.code.editor.core.Query;
 import com.mammb.code.editor.core.Session;
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.editor.core.layout.ScreenLayout;
 import com.mammb.code.editor.core.tools.BinaryView;
 import com.mammb.code.editor.core.tools.HunkGatherer;
 import com.mammb.code.editor.core.tools.Source16;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * The session utilities for the model.
@@ -61,15 +73,26 @@ public class Sessions {
                 return Session.empty();
             }
 
-            Path stashPath = writeStash(ctx, content);
+            var event = new EditorEvents.Stash();
+            event.begin();
+            // the journal of the edits is referred to instead of a copy, if any
+            Path stashPath = content.query(Query.journalPath);
+            if (stashPath == null) stashPath = writeStash(ctx, content);
             if (stashPath == null) {
                 log.log(System.Logger.Level.ERROR, "failed to write stash file");
                 return Session.empty();
             }
+            if (event.shouldCommit()) {
+                event.path = stashPath.toString();
+                event.bytes = Files.size(stashPath);
+                event.rows = content.rows();
+                event.commit();
+            }
 
+            // the time the content is based on, as the file may have changed since
             return Session.of(
                 content.path().orElse(null),
-                content.path().map(Files::lastModifiedTime).orElse(null),
+                content.lastModifiedTime().orElse(null),
                 stashPath,
                 content.query(Query.modelName).plain(),
                 content.query(Query.charCode),
@@ -79,6 +102,106 @@ public class Sessions {
 
     }
 
+    /**
+     * The Autosave class takes a snapshot of the modified content to be recovered after a crash.
+     * The journal of the edits is written out if any. Otherwise, the rows are read in batches
+     * on the reader, the thread owning the content, and are encoded and written atomically
+     * by the writer in the background, so that a large content does not stall the reader.
+     * The rows are read again from the start if the content is edited in between.
+     */
+    public static class Autosave extends Transformer {
+        /** The number of rows read at once on the reader. */
+        private static final int BATCH_ROWS = 4096;
+        /** The number of attempts to read the rows of the same revision. */
+        private static final int ATTEMPTS = 3;
+        /** The time to wait for a batch of rows, beyond which the autosave is abandoned. */
+        private static final long READ_TIMEOUT_MILLIS = 1_000;
+        private final Executor writer;
+        private final Executor reader;
+        public Autosave(Executor writer, Executor reader) {
+            this.writer = writer;
+            this.reader = reader;
+        }
+        @Override
+        public Session apply(Context ctx, Content content) {
+            if (!content.query(Query.modified)) {
+                return Session.empty();
+            }
+            Path altPath = content.query(Query.journalCheckpoint);
+            if (altPath == null) {
+                altPath = ctx.config().stashPath().resolve(String.join("_", UUID.randomUUID().toString(),
+                    content.query(Query.modelName).plain() + ".autosave"));
+                Charset charset = content.query(Query.charCode);
+                Path target = altPath;
+                writer.execute(() -> write(content, target, charset == null ? StandardCharsets.UTF_8 : charset));
+            }
+            return Session.of(
+                content.path().orElse(null),
+                content.path().map(Files::lastModifiedTime).orElse(null),
+                altPath,
+                content.query(Query.modelName).plain(),
+                content.query(Query.charCode),
+                content.readonly(),
+                viewport.topLine(), viewport.lineWidth(), viewport.caretRow(), viewport.caretCol());
+        }
+        private void write(Content content, Path target, Charset charset) {
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                    if (!writeRows(content, tmp, charset)) continue;
+                    try (var channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    }
+                    java.nio.file.Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    return;
+                }
+                log.log(System.Logger.Level.WARNING, "the content kept changing, not autosaved: " + target);
+            } catch (IOException | ExecutionException | TimeoutException e) {
+                log.log(System.Logger.Level.ERROR, "failed to write autosave file: " + target, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                Files.deleteQuietly(tmp);
+            }
+        }
+        /**
+         * Writes the rows of the content read in batches on the reader.
+         * @return {@code true} if written, {@code false} if the content is edited in between
+         */
+        private boolean writeRows(Content content, Path tmp, Charset charset)
+                throws IOException, InterruptedException, ExecutionException, TimeoutException {
+            try (var out = java.nio.file.Files.newBufferedWriter(tmp, charset)) {
+                Rows first = null;
+                for (int from = 0; first == null || from < first.rows(); from += BATCH_ROWS) {
+                    int start = from;
+                    Rows batch = CompletableFuture.supplyAsync(() -> Rows.of(content, start), reader)
+                        .get(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) first = batch;
+                    if (!Objects.equals(first.revision(), batch.revision())) return false;
+                    for (String text : batch.texts()) out.write(text);
+                }
+                return true;
+            }
+        }
+        /**
+         * The batch of rows read on the reader.
+         * @param revision the revision of the content
+         * @param rows the number of rows of the content
+         * @param texts the texts of the rows of the batch
+         */
+        private record Rows(Long revision, int rows, String[] texts) {
+            static Rows of(Content content, int from) {
+                int rows = content.rows();
+                int to = Math.min(rows, from + BATCH_ROWS);
+                String[] texts = new String[Math.max(0, to - from)];
+                for (int i = from; i < to; i++) {
+                    texts[i - from] = content.getText(i);
+                }
+                return new Rows(content.query(Query.revision), rows, texts);
+            }
+        }
+    }
+
     public static class Current extends Transformer {
         @Override
         public Session apply(Context ctx, Content content) {
@@ -136,14 +259,15 @@ public class Sessions {
         public Binary as(Session.Viewport viewport) { return this; }
         @Override
         public Session apply(Context ctx, Content content) {
-            if (path == null) {
+            // the current content is viewed, if no path is specified
+            Path source = (path == null) ? writeStash(ctx, content) : path;
+            if (source == null) {
                 return Session.empty();
             }
-            // TODO from current content
             String name = content.query(Query.modelName).plain() + ".binary";
             Path outPath = ctx.config().stashPath().resolve(String.join(
                 "_", UUID.randomUUID().toString(), name));
-            Path view = Files.write(outPath, BinaryView.run(new Source16(path)));
+            Path view = Files.write(outPath, BinaryView.run(new Source16(source)));
 
             return Session.of(
                 null,
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Files;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import com.mammb.code.editor.core.Session;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The view of a content shared between the editors of the same file.
+ * A single buffer is held per canonical path and reference counted by its views,
+ * so that the edits made through one view are visible in the others,
+ * and the other views are notified of the rows affected by the edits.
+ * @author Naotsugu Kobayashi
+ */
+public class SharedContent extends ContentAdapter {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(SharedContent.class.getName());
+
+    /** The buffers, keyed by canonical path. */
+    private static final Map<Path, Buffer> buffers = new HashMap<>();
+
+    /** The shared buffer, replaced when saved as another file. */
+    private Buffer buffer;
+
+    /** The edit listener. */
+    private Consumer<Edit> listener;
+
+    /** The first row of the IME flush inserted through this view, {@code -1} if none. */
+    private int flushFrom = -1;
+
+    /** The last row of the IME flush inserted through this view. */
+    private int flushTo = -1;
+
+    /** The stash not restored, as the file has changed since, {@code null} if none. */
+    private Path conflict;
+
+    /**
+     * The edit made through another view.
+     * Rows after {@code to} are shifted by {@code delta}.
+     * @param from the first affected row
+     * @param to the last affected row, before the edit
+     * @param delta the number of rows added, or removed if negative
+     */
+    public record Edit(int from, int to, int delta) {
+        /**
+         * Get whether the edit may affect every row.
+         * @return {@code true} if the edit may affect every row
+         */
+        public boolean whole() {
+            return from == 0 && to == Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The buffer shared between views.
+     */
+    private static class Buffer {
+        /** The key of this buffer. */
+        private Path key;
+        /** The content. */
+        private final Content content;
+        /** The factory of the content. */
+        private final Function<Path, Content> factory;
+        /** The views. */
+        private final List<SharedContent> views = new ArrayList<>();
+        private Buffer(Path key, Content content, Function<Path, Content> factory) {
+            this.key = key;
+            this.content = content;
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * Constructor.
+     */
+    private SharedContent() {
+    }
+
+    /**
+     * Acquire a view of the content of the specified file.
+     * If the file is already open, a view of the same buffer is returned,
+     * otherwise the content is created with the specified factory.
+     * @param path the path of the file
+     * @param factory the factory of the content
+     * @return a new view of the content
+     */
+    public static SharedContent acquire(Path path, Function<Path, Content> factory) {
+        var view = new SharedContent();
+        view.attach(path, factory);
+        return view;
+    }
+
+    /**
+     * Acquire a view of the content of the file, and restore the stash of the session into it.
+     * If the file is open in another view and the buffer is modified, the buffer is the more
+     * recent state of the edits, as when the session is hibernated while the file is edited in
+     * another view. Otherwise the stashed edits are restored only if based on the same time of
+     * the file as the stash, and the stash is kept as a conflict if not.
+     * @param session the session having the path of the file and the path of the stash
+     * @param factory the factory of the content
+     * @return a new view of the content
+     */
+    public static SharedContent restore(Session session, Function<Path, Content> factory) {
+        var view = new SharedContent();
+        boolean shared = view.attach(session.path(), factory);
+        Path stash = session.altPath();
+        boolean journal = JournaledContent.isJournal(stash);
+        if (journal && stash.equals(view.query(Query.journalCheckpoint))) {
+            // the journal of the buffer itself
+            return view;
+        }
+        if (shared && view.query(Query.modified)) {
+            // the journal may be referred to by another session, and only a copy is no longer referred to
+            if (!journal) Files.deleteQuietly(stash);
+            return view;
+        }
+        boolean restored = Objects.equals(view.lastModifiedTime().orElse(null), session.lastModifiedTime())
+            && (journal ? JournaledContent.replay(stash, view) : replaceAll(view, stash, session.charset()));
+        if (restored) {
+            Files.deleteQuietly(stash);
+        } else {
+            log.log(System.Logger.Level.WARNING, "{0} could not be restored onto {1}, the stash is kept",
+                stash, session.path());
+            view.conflict = stash;
+        }
+        return view;
+    }
+
+    private static boolean replaceAll(Content content, Path stash, Charset charset) {
+        try {
+            String text = java.nio.file.Files.readString(stash, (charset == null) ? StandardCharsets.UTF_8 : charset);
+            int last = content.rows() - 1;
+            content.replace(Point.of(0, 0), Point.of(last, content.getText(last).length()), text);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.log(System.Logger.Level.ERROR, "failed to restore the stash " + stash, e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the number of views sharing the content of the specified file.
+     * @param path the path of the file
+     * @return the number of views
+     */
+    public static int views(Path path) {
+        synchronized (buffers) {
+            Buffer buffer = buffers.get(keyOf(path));
+            return (buffer == null) ? 0 : buffer.views.size();
+        }
+    }
+
+    /**
+     * Attach this view to the buffer of the specified file, creating the buffer if absent.
+     * @param path the path of the file
+     * @param factory the factory of the content
+     * @return {@code true} if attached to an existing buffer
+     */
+    private boolean attach(Path path, Function<Path, Content> factory) {
+        Path key = keyOf(path);
+        synchronized (buffers) {
+            Buffer existing = buffers.get(key);
+            if (existing != null) {
+                existing.views.add(this);
+                buffer = existing;
+                return true;
+            }
+        }
+        // the file is read outside the lock
+        Content content = factory.apply(path);
+        synchronized (buffers) {
+            Buffer existing = buffers.get(key);
+            if (existing != null) {
+                content.close();
+            } else {
+                buffers.put(key, new Buffer(key, content, factory));
+            }
+            buffer = buffers.get(key);
+            buffer.views.add(this);
+            return existing != null;
+        }
+    }
+
+    /**
+     * Detach this view from its buffer, closing the buffer if no view remains.
+     */
+    private void detach() {
+        Buffer detached = buffer;
+        synchronized (buffers) {
+            if (!detached.views.remove(this) || !detached.views.isEmpty()) return;
+            buffers.remove(detached.key, detached);
+        }
+        detached.content.close();
+    }
+
+    private static Path keyOf(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    @Override
+    public Point insert(Point point, String text) {
+        int rows = rows();
+        var ret = pear().insert(point, text);
+        notify(point.row(), point.row(), rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point> insert(List<Point> points, String text) {
+        int rows = rows();
+        var ret = pear().insert(points, text);
+        notify(points, rows);
+        return ret;
+    }
+
+    @Override
+    public String delete(Point point) {
+        int rows = rows();
+        var ret = pear().delete(point);
+        notify(point.row(), point.row(), rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point> delete(List<Point> points) {
+        int rows = rows();
+        var ret = pear().delete(points);
+        notify(points, rows);
+        return ret;
+    }
+
+    @Override
+    public Point backspace(Point point) {
+        int rows = rows();
+        var ret = pear().backspace(point);
+        notify(Math.max(0, point.row() - 1), point.row(), rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point> backspace(List<Point> points) {
+        int rows = rows();
+        var ret = pear().backspace(points);
+        notify(points, rows);
+        return ret;
+    }
+
+    @Override
+    public Point replace(Point start, Point end, String text) {
+        int rows = rows();
+        var ret = pear().replace(start, end, text);
+        notify(Math.min(start.row(), end.row()), Math.max(start.row(), end.row()), rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point.Range> replace(List<Point.Range> ranges, List<Function<String, String>> fun) {
+        int rows = rows();
+        var ret = pear().replace(ranges, fun);
+        int from = ranges.stream().mapToInt(r -> r.min().row()).min().orElse(0);
+        int to = ranges.stream().mapToInt(r -> r.max().row()).max().orElse(0);
+        notify(from, to, rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point> undo() {
+        int rows = rows();
+        var ret = pear().undo();
+        notifyWhole(rows);
+        return ret;
+    }
+
+    @Override
+    public List<Point> redo() {
+        int rows = rows();
+        var ret = pear().redo();
+        notifyWhole(rows);
+        return ret;
+    }
+
+    @Override
+    public void save(Path path) {
+        Path key = keyOf(path);
+        boolean alone;
+        synchronized (buffers) {
+            alone = key.equals(buffer.key)
+                || (buffer.views.size() == 1 && !buffers.containsKey(key));
+        }
+        if (alone) {
+            pear().save(path);
+            synchronized (buffers) {
+                if (!key.equals(buffer.key)) {
+                    buffers.remove(buffer.key, buffer);
+                    buffer.key = key;
+                    buffers.put(key, buffer);
+                }
+            }
+            return;
+        }
+        // the other views remain on their file, and only this view moves to the saved file
+        int rows = rows();
+        pear().write(path);
+        Function<Path, Content> factory = buffer.factory;
+        detach();
+        if (attach(path, factory)) {
+            // the buffer of the saved file open in other views is overwritten
+            reload();
+        }
+        if (listener != null) listener.accept(new Edit(0, Integer.MAX_VALUE, rows() - rows));
+    }
+
+    @Override
+    public void reload() {
+        int rows = rows();
+        pear().reload();
+        notifyWhole(rows);
+    }
+
+    @Override
+    public void reloadWith(Charset charset) {
+        int rows = rows();
+        pear().reloadWith(charset);
+        notifyWhole(rows);
+    }
+
+    @Override
+    public Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        int rows = rows();
+        var ret = pear().reloadIncrementally(points);
+        if (ret.isPresent()) notifyWhole(rows);
+        return ret;
+    }
+
+    @Override
+    public int appendTail() {
+        int rows = rows();
+        int appended = pear().appendTail();
+        if (appended > 0) notify(Math.max(0, rows - 1), Math.max(0, rows - 1), rows);
+        return appended;
+    }
+
+    @Override
+    public Point insertFlush(Point point, String text) {
+        int rows = rows();
+        var ret = pear().insertFlush(point, text);
+        if (flushFrom < 0) flushFrom = point.row();
+        flushTo = Math.max(flushTo, ret.row());
+        notify(point.row(), point.row(), rows);
+        return ret;
+    }
+
+    @Override
+    public void clearFlush() {
+        int rows = rows();
+        pear().clearFlush();
+        if (flushFrom < 0) return;
+        // only the rows of the flush inserted through this view are affected
+        notify(flushFrom, flushTo, rows);
+        flushFrom = flushTo = -1;
+    }
+
+    @Override
+    public void onSharedEdit(Consumer<Edit> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void close() {
+        detach();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R query(Query<R> query) {
+        if (query instanceof QueryRecords.JournalConflict) {
+            return (R) conflict;
+        }
+        if (query instanceof QueryRecords.Footprint) {
+            // the buffer is accounted once, by the first of its views
+            synchronized (buffers) {
+                if (!buffer.views.isEmpty() && buffer.views.getFirst() != this) return (R) Long.valueOf(0);
+            }
+        }
+        return super.query(query);
+    }
+
+    @Override
+    protected Content pear() {
+        return buffer.content;
+    }
+
+    private void notify(List<Point> points, int rowsBefore) {
+        int from = points.stream().mapToInt(Point::row).min().orElse(0);
+        int to = points.stream().mapToInt(Point::row).max().orElse(0);
+        notify(from, to, rowsBefore);
+    }
+
+    private void notifyWhole(int rowsBefore) {
+        notify(0, Integer.MAX_VALUE, rowsBefore);
+    }
+
+    private void notify(int from, int to, int rowsBefore) {
+        List<SharedContent> others;
+        synchronized (buffers) {
+            if (buffer.views.size() <= 1) return;
+            others = buffer.views.stream().filter(v -> v != this && v.listener != null).toList();
+        }
+        var edit = new Edit(from, to, rows() - rowsBefore);
+        others.forEach(v -> v.listener.accept(edit));
+    }
+
+}
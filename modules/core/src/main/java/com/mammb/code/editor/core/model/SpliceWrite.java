@@ -0,0 +1,244 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.piecetable.RowEnding;
+import com.mammb.code.piecetable.TextEdit;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The splice write.
+ * Writes the text by copying the untouched rows at the head and the tail
+ * straight from the file on disk with {@link FileChannel#transferTo}, and by
+ * encoding only the rows in between. The file is then replaced atomically.
+ * The rows are found by a byte scan for the row ending of the text edit, and the
+ * rows at the boundaries are checked against the text edit, so that the file is
+ * written as a whole if they disagree, as with a lone carriage return.
+ * The text edit must be reopened on the file once written, as it still reads
+ * the untouched pieces from the replaced file.
+ * @author Naotsugu Kobayashi
+ */
+final class SpliceWrite {
+
+    /** The size of the buffer to scan and encode. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The text edit. */
+    private final TextEdit edit;
+    /** The path of the file on disk, which the text edit was loaded from. */
+    private final Path path;
+    /** The last byte of the row ending of the text edit. */
+    private final byte newline;
+
+    private SpliceWrite(TextEdit edit, Path path) {
+        this.edit = edit;
+        this.path = path;
+        this.newline = (edit.rowEnding() == RowEnding.CR) ? (byte) '\r' : (byte) '\n';
+    }
+
+    /**
+     * Writes the text edit to the file it was loaded from.
+     * The file on disk must be unchanged since loaded or saved.
+     * @param edit the text edit
+     * @param path the path of the file
+     * @param head the number of rows at the head untouched since loaded or saved
+     * @param tail the number of rows at the tail untouched since loaded or saved
+     * @return {@code true} if written, {@code false} if the text edit needs to be written as a whole
+     */
+    static boolean write(TextEdit edit, Path path, int head, int tail) {
+        if (!spliceable(edit.charset())) return false;
+        int rows = edit.rows();
+        head = Math.min(head, rows);
+        tail = Math.min(tail, rows - head);
+        if (head == 0 && tail == 0) return false;
+        try {
+            return new SpliceWrite(edit, path).write(head, tail);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets whether the rows of the charset can be found by a byte scan for the newline,
+     * that is, the newline is a single byte which never appears in other characters.
+     * @param charset the charset
+     * @return {@code true} if the rows can be found by a byte scan
+     */
+    static boolean spliceable(Charset charset) {
+        String name = charset.name();
+        if (name.startsWith("UTF-16") || name.startsWith("UTF-32") || name.contains("2022")) {
+            return false;
+        }
+        byte[] lf = "\n".getBytes(charset);
+        return lf.length == 1 && lf[0] == '\n';
+    }
+
+    private boolean write(int head, int tail) throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), null);
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long[] headRow = (head == 0) ? new long[] { 0, edit.bom().length } : forward(in, head);
+            long[] tailRow = (tail == 0) ? new long[] { size, size } : backward(in, size, tail);
+            if (headRow == null || tailRow == null || headRow[1] > tailRow[0]
+                    || (head > 0 && !matches(in, headRow, head - 1))
+                    || (tail > 0 && !matches(in, tailRow, edit.rows() - tail))) {
+                Files.deleteIfExists(temp);
+                return false;
+            }
+            long headEnd = headRow[1];
+            long tailStart = tailRow[0];
+            transfer(in, 0, headEnd, out);
+            encode(head, edit.rows() - tail, out);
+            transfer(in, tailStart, size - tailStart, out);
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        com.mammb.code.editor.core.Files.keepAttributes(path, temp);
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the n-th row from the start, that is, the positions following the
+     * (n - 1)-th and the n-th newline.
+     * @param in the channel
+     * @param n the number of newlines
+     * @return the start and the end of the row, {@code null} if not found
+     */
+    private long[] forward(FileChannel in, int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long start = edit.bom().length;
+        long pos = 0;
+        for (;;) {
+            buf.clear();
+            int read = in.read(buf, pos);
+            if (read <= 0) return null;
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) != newline) continue;
+                if (--n == 0) return new long[] { start, pos + i + 1 };
+                start = pos + i + 1;
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * Finds the n-th row from the end, that is, the positions following the
+     * n-th and the (n - 1)-th newline from the end.
+     * @param in the channel
+     * @param size the size of the channel
+     * @param n the number of newlines
+     * @return the start and the end of the row, {@code null} if not found
+     */
+    private long[] backward(FileChannel in, long size, int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long rowEnd = size;
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - BUFFER_SIZE);
+            buf.clear().limit((int) (end - start));
+            int read = 0;
+            while (buf.hasRemaining()) {
+                int r = in.read(buf, start + read);
+                if (r < 0) return null;
+                read += r;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                if (buf.get(i) != newline) continue;
+                if (--n == 0) return new long[] { start + i + 1, rowEnd };
+                rowEnd = start + i + 1;
+            }
+            end = start;
+        }
+        return null;
+    }
+
+    /**
+     * Gets whether the bytes of the row on disk are the row of the text edit,
+     * that is, the text edit finds the rows at the same positions.
+     * @param in the channel
+     * @param range the start and the end of the row on disk
+     * @param row the row of the text edit
+     * @return {@code true} if the same
+     */
+    private boolean matches(FileChannel in, long[] range, int row) throws IOException {
+        byte[] bytes = edit.getText(row).getBytes(edit.charset());
+        if (range[1] - range[0] != bytes.length) return false;
+        ByteBuffer buf = ByteBuffer.allocate(bytes.length);
+        while (buf.hasRemaining()) {
+            if (in.read(buf, range[0] + buf.position()) < 0) return false;
+        }
+        return Arrays.equals(buf.array(), bytes);
+    }
+
+    private static void transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        while (count > 0) {
+            long n = in.transferTo(position, count, out);
+            if (n <= 0) throw new IOException("failed to transfer " + count + " bytes");
+            position += n;
+            count -= n;
+        }
+    }
+
+    private void encode(int fromRow, int toRow, FileChannel out) throws IOException {
+        CharsetEncoder encoder = edit.charset().newEncoder()
+            .onMalformedInput(CodingErrorAction.IGNORE)
+            .onUnmappableCharacter(CodingErrorAction.IGNORE);
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = fromRow; i < toRow; i++) {
+            CharBuffer row = CharBuffer.wrap(edit.getText(i));
+            while (encoder.encode(row, buf, false).isOverflow()) {
+                drain(buf, out);
+            }
+        }
+        encoder.encode(CharBuffer.allocate(0), buf, true);
+        while (encoder.flush(buf).isOverflow()) {
+            drain(buf, out);
+        }
+        drain(buf, out);
+    }
+
+    private static void drain(ByteBuffer buf, FileChannel out) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Files;
+import com.mammb.code.editor.core.Name;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The content restored from a stash, and bound to the path of the original file.
+ * The content remains modified until it is saved or reloaded from the original file,
+ * and the stash is deleted once it is no longer referred to.
+ * @author Naotsugu Kobayashi
+ */
+public class StashedContent extends ContentAdapter {
+
+    /** The pear content. */
+    private Content pear;
+
+    /** The path of the stash. */
+    private final Path stash;
+
+    /** The path of the original file. */
+    private final Path path;
+
+    /** The last modified time of the original file, when stashed. */
+    private final FileTime lastModifiedTime;
+
+    /** Whether it has been synced with the original file or not. */
+    private boolean synced = false;
+
+    /**
+     * Constructor.
+     */
+    private StashedContent(Content pear, Path stash, Path path, FileTime lastModifiedTime) {
+        this.pear = Objects.requireNonNull(pear);
+        this.stash = Objects.requireNonNull(stash);
+        this.path = Objects.requireNonNull(path);
+        this.lastModifiedTime = lastModifiedTime;
+    }
+
+    /**
+     * Create a content restored from the stash.
+     * @param stash the path of the stash
+     * @param path the path of the original file
+     * @param lastModifiedTime the last modified time of the original file, when stashed
+     * @param charset the charset of the stash, or {@code null} to detect it
+     * @return {@link StashedContent}
+     */
+    public static Content of(Path stash, Path path, FileTime lastModifiedTime, Charset charset) {
+        return new StashedContent(new TextEditContent(stash, charset), stash, path, lastModifiedTime);
+    }
+
+    @Override
+    public Optional<Path> path() {
+        return synced ? pear.path() : Optional.of(path);
+    }
+
+    @Override
+    public Optional<FileTime> lastModifiedTime() {
+        return synced ? pear.lastModifiedTime() : Optional.ofNullable(lastModifiedTime);
+    }
+
+    @Override
+    public void save(Path path) {
+        pear.save(path);
+        if (!synced) {
+            synced = true;
+            Files.deleteQuietly(stash);
+        }
+    }
+
+    @Override
+    public void reload() {
+        if (synced) {
+            pear.reload();
+        } else {
+            pear.close();
+            pear = new TextEditContent(path);
+            synced = true;
+            Files.deleteQuietly(stash);
+        }
+    }
+
+    @Override
+    public void close() {
+        pear.close();
+        if (!synced) Files.deleteQuietly(stash);
+    }
+
+    @Override
+    public void reloadWith(Charset charset) {
+        if (!synced) reload();
+        pear.reloadWith(charset);
+    }
+
+    @Override
+    public Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        return synced ? pear.reloadIncrementally(points) : Optional.empty();
+    }
+
+    @Override
+    public int appendTail() {
+        return synced ? pear.appendTail() : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> R query(Query<R> query) {
+        return switch (query) {
+            case QueryRecords.Modified _ when !synced -> (R) Boolean.TRUE;
+            case QueryRecords.ModelName _ when !synced -> (R) Name.of(path, true);
+            default -> super.query(query);
+        };
+    }
+
+    @Override
+    protected Content pear() {
+        return pear;
+    }
+
+}
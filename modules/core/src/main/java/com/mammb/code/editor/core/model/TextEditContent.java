@@ -21,23 +21,31 @@ import com.mammb.code.editor.core.Find;
 import com.mammb.code.editor.core.Name;
 import com.mammb.code.editor.core.Point;
 import com.mammb.code.editor.core.Query;
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.editor.core.model.QueryRecords.Bom;
 import com.mammb.code.editor.core.model.QueryRecords.CharCode;
 import com.mammb.code.editor.core.model.QueryRecords.CharCodeSymbol;
+import com.mammb.code.editor.core.model.QueryRecords.Footprint;
 import com.mammb.code.editor.core.model.QueryRecords.ModelName;
 import com.mammb.code.editor.core.model.QueryRecords.Modified;
+import com.mammb.code.editor.core.model.QueryRecords.Revision;
 import com.mammb.code.editor.core.model.QueryRecords.RowEndingSymbol;
 import com.mammb.code.editor.core.model.QueryRecords.RowEndingChars;
 import com.mammb.code.editor.core.model.QueryRecords.Size;
 import com.mammb.code.piecetable.CharsetMatch;
 import com.mammb.code.piecetable.Pos;
+import com.mammb.code.piecetable.RowEnding;
 import com.mammb.code.piecetable.TextEdit;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -50,14 +58,44 @@ import java.util.function.Function;
  */
 public class TextEditContent implements Content {
 
+    /** logger. */
+    private static final System.Logger log = System.getLogger(TextEditContent.class.getName());
+    /**
+     * The maximum size of the tails appended since loaded or rebased, beyond which
+     * the text edit is reopened on the followed file rather than holding the tails in memory.
+     */
+    private static final long TAIL_LIMIT = 64L * 1024 * 1024;
+    /** The reader of the tail of the followed file. */
+    private static final Executor TAIL_READER = r -> Thread.ofVirtual().name("tail-read").start(r);
+    /** The minimum size of the file to be saved by splicing the untouched rows. */
+    private static final long SPLICE_THRESHOLD = 16L * 1024 * 1024;
+
     /** The text edit. */
     private TextEdit edit;
     /** The flushes (text being edited with IME). */
     private final List<Point.PointText> flushes = new ArrayList<>();
     /** Whether it has been modified or not. */
     private boolean modified = false;
+    /** The revision, incremented on each edit and save. */
+    private long revision = 0;
     /** The last modified time. */
     private FileTime lastModifiedTime;
+    /** The size of the file loaded or appended so far. */
+    private long followedSize;
+    /** The key of the loaded file, to detect the file being replaced. */
+    private Object fileKey;
+    /** The size of the tails appended since loaded or rebased. */
+    private long appendedSize;
+    /** The pending read of the tail of the followed file. */
+    private CompletableFuture<Tail> tailRead;
+    /** Whether a tail has been appended since loaded or rebased, which is in the undo history until rebased. */
+    private boolean tailAppended;
+    /** The number of edited chars since loaded, as an estimate of the undo history. */
+    private long edited;
+    /** The number of rows at the head untouched since loaded or saved. */
+    private int cleanHead = Integer.MAX_VALUE;
+    /** The number of rows at the tail untouched since loaded or saved. */
+    private int cleanTail = Integer.MAX_VALUE;
 
     /**
      * Default constructor for the TextEditContent class.
@@ -74,8 +112,28 @@ public class TextEditContent implements Content {
      * @param path the path to the file whose content will initialize the editor
      */
     public TextEditContent(Path path) {
+        var event = new EditorEvents.Open();
+        event.begin();
         edit = TextEdit.of(path);
         lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        commit(event);
+    }
+
+    /**
+     * Constructs a new TextEditContent instance using the specified path, decoded with the charset.
+     * @param path the path to the file whose content will initialize the editor
+     * @param charset the charset of the file, or {@code null} to detect it
+     */
+    public TextEditContent(Path path, Charset charset) {
+        var event = new EditorEvents.Open();
+        event.begin();
+        edit = (charset == null)
+            ? TextEdit.of(path)
+            : TextEdit.of(path, CharsetMatch.of(charset));
+        lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        commit(event);
     }
 
     /**
@@ -86,8 +144,12 @@ public class TextEditContent implements Content {
      * @param consumer the consumer that accepts segment fraction values for processing
      */
     public TextEditContent(Path path, Consumer<Long> consumer) {
+        var event = new EditorEvents.Open();
+        event.begin();
         edit = TextEdit.of(path, seg -> consumer.accept(seg.fraction()));
         lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        commit(event);
     }
 
     /**
@@ -101,16 +163,24 @@ public class TextEditContent implements Content {
 
     @Override
     public Point insert(Point point, String text) {
+        settleTail();
         String txt = edit.rowEnding().unify(text).toString();
         modified = true;
+        revision++;
+        edited += txt.length();
+        touched(point.row(), point.row());
         var pos = edit.insert(point.row(), point.col(), txt);
         return Point.of(pos.row(), pos.col());
     }
 
     @Override
     public List<Point> insert(List<Point> points, String text) {
+        settleTail();
         String txt = edit.rowEnding().unify(text).toString();
         modified = true;
+        revision++;
+        edited += (long) txt.length() * points.size();
+        touched(points, 0, 0);
         var pos = edit.insert(points.stream()
             .map(p -> Pos.of(p.row(), p.col())).toList(), txt);
         return pos.stream().map(p -> Point.of(p.row(), p.col())).toList();
@@ -118,13 +188,21 @@ public class TextEditContent implements Content {
 
     @Override
     public String delete(Point point) {
+        settleTail();
         modified = true;
+        revision++;
+        edited++;
+        touched(point.row(), point.row() + 1);
         return edit.delete(point.row(), point.col());
     }
 
     @Override
     public List<Point> delete(List<Point> points) {
+        settleTail();
         modified = true;
+        revision++;
+        edited += points.size();
+        touched(points, 0, 1);
         var pos = edit.delete(points.stream()
             .map(p -> Pos.of(p.row(), p.col())).toList());
         return pos.stream().map(p -> Point.of(p.row(), p.col())).toList();
@@ -132,14 +210,22 @@ public class TextEditContent implements Content {
 
     @Override
     public Point backspace(Point point) {
+        settleTail();
         modified = true;
+        revision++;
+        edited++;
+        touched(point.row() - 1, point.row());
         var pos = edit.backspace(point.row(), point.col());
         return Point.of(pos.row(), pos.col());
     }
 
     @Override
     public List<Point> backspace(List<Point> points) {
+        settleTail();
         modified = true;
+        revision++;
+        edited += points.size();
+        touched(points, -1, 0);
         var pos = edit.backspace(points.stream()
             .map(p -> Pos.of(p.row(), p.col())).toList());
         return pos.stream().map(p -> Point.of(p.row(), p.col())).toList();
@@ -147,8 +233,12 @@ public class TextEditContent implements Content {
 
     @Override
     public Point replace(Point start, Point end, String text) {
+        settleTail();
         modified = true;
+        revision++;
         String txt = edit.rowEnding().unify(text).toString();
+        edited += txt.length();
+        touched(Math.min(start.row(), end.row()), Math.max(start.row(), end.row()));
         var pos = edit.replace(start.row(), start.col(), end.row(), end.col(), _ -> txt);
         return Point.of(pos.row(), pos.col());
     }
@@ -160,7 +250,13 @@ public class TextEditContent implements Content {
             return ranges;
         }
 
+        settleTail();
         modified = true;
+        revision++;
+        edited += ranges.size();
+        for (Point.Range r : ranges) {
+            touched(r.min().row(), r.max().row());
+        }
 
         AtomicInteger index = new AtomicInteger(0);
         var requests = ranges.stream()
@@ -182,16 +278,24 @@ public class TextEditContent implements Content {
 
     @Override
     public List<Point> undo() {
+        // the appended tail of the followed file is not an edit of the user
+        if (tailAppended && !rebaseTail()) return List.of();
         if (!edit.hasUndoRecord()) return List.of();
+        // the undo may reach beyond the save, where the rows touched are unknown
+        touched(0, edit.rows());
         var ret = edit.undo().stream().map(p -> Point.of(p.row(), p.col())).toList();
         modified = (edit.path() == null && edit.rawSize() > 0) || edit.hasUndoRecord();
+        revision++;
         return ret;
     }
 
     @Override
     public List<Point> redo() {
+        if (tailAppended && !rebaseTail()) return List.of();
+        touched(0, edit.rows());
         var ret = edit.redo().stream().map(p -> Point.of(p.row(), p.col())).toList();
         modified |= !ret.isEmpty();
+        revision++;
         return ret;
     }
 
@@ -245,9 +349,84 @@ public class TextEditContent implements Content {
 
     @Override
     public void save(Path path) {
-        edit.save(path);
+        var event = new EditorEvents.Save();
+        event.begin();
+        if (splice(path)) {
+            rebase(path);
+        } else {
+            edit.save(path);
+        }
         modified = false;
+        revision++;
+        untouched();
         lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        if (event.shouldCommit()) {
+            event.path = String.valueOf(path);
+            event.charset = edit.charset().name();
+            event.bytes = edit.rawSize();
+            event.rows = edit.rows();
+            event.commit();
+        }
+    }
+
+    /**
+     * Saves the file in place by splicing the rows untouched since loaded or saved,
+     * if the file is large, and is unchanged on disk.
+     * @param path the path to be saved
+     * @return {@code true} if saved
+     */
+    private boolean splice(Path path) {
+        Path loaded = edit.path();
+        if (loaded == null || !loaded.equals(path) || followedSize < SPLICE_THRESHOLD
+                || Files.size(path) != followedSize
+                || !Objects.equals(lastModifiedTime, Files.lastModifiedTime(path))
+                || !Objects.equals(fileKey, Files.fileKey(path))) {
+            return false;
+        }
+        return SpliceWrite.write(edit, path, cleanHead, cleanTail);
+    }
+
+    /**
+     * Reopens the text edit on the file written by splicing, as the text edit
+     * still reads the untouched pieces from the replaced file it holds open,
+     * or on the followed file holding the appended tails.
+     * The undo history is cleared as on a save of the text edit.
+     * @param path the path saved or followed
+     */
+    private void rebase(Path path) {
+        Charset charset = edit.charset();
+        edit.close();
+        edit = TextEdit.of(path, CharsetMatch.of(charset));
+        edited = 0;
+        tailAppended = false;
+    }
+
+    /**
+     * Marks the rows to be touched by an edit.
+     * @param fromRow the first row to be touched
+     * @param toRow the last row to be touched
+     */
+    private void touched(int fromRow, int toRow) {
+        cleanHead = Math.min(cleanHead, Math.max(0, fromRow));
+        cleanTail = Math.min(cleanTail, Math.max(0, edit.rows() - 1 - toRow));
+    }
+
+    private void touched(List<Point> points, int before, int after) {
+        for (Point p : points) {
+            touched(p.row() + before, p.row() + after);
+        }
+    }
+
+    private void untouched() {
+        cleanHead = Integer.MAX_VALUE;
+        cleanTail = Integer.MAX_VALUE;
+    }
+
+    private void followed(Path path) {
+        followedSize = Files.size(path);
+        fileKey = Files.fileKey(path);
+        appendedSize = 0;
     }
 
     @Override
@@ -259,15 +438,193 @@ public class TextEditContent implements Content {
     public void reloadWith(Charset charset) {
         Path path = edit.path();
         if (path == null) return;
+        var event = new EditorEvents.Reload();
+        event.begin();
         edit.close();
         edit = (charset == null)
             ? TextEdit.of(path)
             : TextEdit.of(path, CharsetMatch.of(charset));
         flushes.clear();
         modified = false;
+        revision++;
+        untouched();
+        edited = 0;
+        tailAppended = false;
+        lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.charset = edit.charset().name();
+            event.bytes = edit.rawSize();
+            event.rows = edit.rows();
+            event.commit();
+        }
+    }
+
+    @Override
+    public Optional<List<Point>> reloadIncrementally(List<Point> points) {
+        Path path = edit.path();
+        if (path == null || modified || !flushes.isEmpty()) return Optional.empty();
+        // the rows are diffed without their row endings, which the content cannot change
+        RowEnding ending = rowEndingOf(path, edit.charset());
+        if (ending != null && ending != edit.rowEnding()) return Optional.empty();
+        List<String> lines;
+        try {
+            lines = Files.readStrictAllLines(path, edit.charset());
+        } catch (RuntimeException e) {
+            // malformed input for the current charset
+            return Optional.empty();
+        }
+        if (!lines.isEmpty() && lines.getFirst().startsWith("\uFEFF")) {
+            lines = new ArrayList<>(lines);
+            lines.set(0, lines.getFirst().substring(1));
+        }
+        var event = new EditorEvents.Reload();
+        event.begin();
+        var moved = IncrementalReload.apply(this, lines, points);
+        if (moved.isEmpty()) return moved;
+        modified = false;
+        revision++;
+        untouched();
         lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.charset = edit.charset().name();
+            event.bytes = edit.rawSize();
+            event.rows = edit.rows();
+            event.incremental = true;
+            event.commit();
+        }
+        return moved;
+    }
+
+    /**
+     * Gets the row ending of the file, by the first row ending in the head of the file.
+     * @param path the path of the file
+     * @param cs the charset of the file
+     * @return the row ending, or {@code null} if the head has no row ending
+     */
+    private static RowEnding rowEndingOf(Path path, Charset cs) {
+        String head = new String(Files.read(path, 0, 64 * 1024), cs);
+        int lf = head.indexOf('\n');
+        int cr = head.indexOf('\r');
+        if (cr < 0) return (lf < 0) ? null : RowEnding.LF;
+        return (lf == cr + 1) ? RowEnding.CRLF : RowEnding.CR;
     }
 
+    /**
+     * {@inheritDoc}
+     * The file is read on a background thread, and the tail read is appended
+     * on the next call, so the caller is expected to poll this method.
+     * The appended tail is not undone, and the content remains unmodified.
+     * The text edit has no way to append without recording the undo history, so the tails
+     * are appended as edits, and the history is rebased on the file before the next edit.
+     */
+    @Override
+    public int appendTail() {
+        Path path = edit.path();
+        if (path == null || modified) return 0;
+        var read = tailRead;
+        if (read != null && !read.isDone()) return 0;
+        int appended = (read == null) ? 0 : appendTail(path, read);
+        long from = followedSize;
+        tailRead = (appended < 0) ? null : CompletableFuture.supplyAsync(() -> readTail(path, from), TAIL_READER);
+        return appended;
+    }
+
+    private int appendTail(Path path, CompletableFuture<Tail> read) {
+        Tail tail;
+        try {
+            tail = read.join();
+        } catch (CompletionException e) {
+            // the file may be missing for a moment while rotated
+            log.log(System.Logger.Level.DEBUG, "failed to read the tail of " + path, e);
+            return 0;
+        }
+        // the content has been saved or reloaded since the read
+        if (tail.from() != followedSize || tail.size() == followedSize) return 0;
+        if (tail.size() < followedSize || !Objects.equals(fileKey, tail.fileKey())) {
+            return -1;
+        }
+        if (appendedSize + tail.size() - followedSize > TAIL_LIMIT) {
+            int rows = edit.rows();
+            return rebaseTail() ? edit.rows() - rows : -1;
+        }
+        Charset cs = edit.charset();
+        if ("\n".getBytes(cs).length != 1) return -1;
+        byte[] bytes = tail.bytes();
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') end--;
+        // wait for the last row to be terminated
+        if (end == 0) return 0;
+        int rows = edit.rows();
+        int last = rows - 1;
+        String text = edit.rowEnding().unify(new String(bytes, 0, end, cs)).toString();
+        touched(last, last);
+        edit.insert(last, edit.getText(last).length(), text);
+        tailAppended = true;
+        revision++;
+        followedSize += end;
+        appendedSize += end;
+        lastModifiedTime = tail.lastModifiedTime();
+        return edit.rows() - rows;
+    }
+
+    /**
+     * Rebases the appended tails before an edit, so that the undo history holds only the edits.
+     * If the followed file has been replaced, the tails are left as edits, as the content
+     * no longer matches any file.
+     */
+    private void settleTail() {
+        if (tailAppended && !rebaseTail()) {
+            tailAppended = false;
+        }
+    }
+
+    /**
+     * Reopens the text edit on the followed file, which holds the tails appended so far,
+     * so that the tails become the base of the text edit instead of edits in the undo history.
+     * The bytes written to the file since the last tail are read as well.
+     * @return {@code true} if reopened, {@code false} if the file has been truncated or replaced
+     */
+    private boolean rebaseTail() {
+        Path path = edit.path();
+        if (Files.size(path) < followedSize || !Objects.equals(fileKey, Files.fileKey(path))) {
+            return false;
+        }
+        rebase(path);
+        revision++;
+        untouched();
+        lastModifiedTime = Files.lastModifiedTime(path);
+        followed(path);
+        return true;
+    }
+
+    /**
+     * Reads the tail of the file beyond the specified position.
+     * @param path the path of the file
+     * @param from the position to read from
+     * @return the tail read
+     */
+    private static Tail readTail(Path path, long from) {
+        long size = Files.size(path);
+        byte[] bytes = (size > from && size - from <= TAIL_LIMIT)
+            ? Files.read(path, from, (int) (size - from))
+            : new byte[0];
+        return new Tail(from, size, Files.fileKey(path), Files.lastModifiedTime(path), bytes);
+    }
+
+    /**
+     * The tail of the followed file.
+     * @param from the position read from
+     * @param size the size of the file
+     * @param fileKey the key of the file
+     * @param lastModifiedTime the last modified time of the file
+     * @param bytes the bytes read from the position
+     */
+    private record Tail(long from, long size, Object fileKey, FileTime lastModifiedTime, byte[] bytes) { }
+
     @Override
     public void write(Path path) {
         edit.write(path);
@@ -306,10 +663,36 @@ public class TextEditContent implements Content {
             case Bom _              -> (R) edit.bom();
             case ModelName _        -> (R) Name.of(edit.path(), modified);
             case Size _             -> (R) Long.valueOf(edit.rawSize());
+            case Footprint _        -> (R) Long.valueOf(footprint());
+            case Revision _         -> (R) Long.valueOf(revision);
             default                 -> null;
         };
     }
 
+    /**
+     * Estimates the heap footprint of this content.
+     * The text, the row index, and the undo history are accounted,
+     * where an edited char is assumed to hold a piece record at worst.
+     * @return the estimated footprint, in bytes
+     */
+    private long footprint() {
+        return edit.rawSize() + edit.rows() * 16L + edited * 48;
+    }
+
+    /**
+     * Commit the open event, if enabled.
+     * @param event the open event
+     */
+    private void commit(EditorEvents.Open event) {
+        if (event.shouldCommit()) {
+            event.path = String.valueOf(edit.path());
+            event.charset = edit.charset().name();
+            event.bytes = edit.rawSize();
+            event.rows = edit.rows();
+            event.commit();
+        }
+    }
+
     /**
      * Get the charset name.
      * @return the charset name
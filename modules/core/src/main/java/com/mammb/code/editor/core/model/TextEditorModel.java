@@ -25,6 +25,7 @@ import com.mammb.code.editor.core.Draw;
 import com.mammb.code.editor.core.EditorModel;
 import com.mammb.code.editor.core.Files;
 import com.mammb.code.editor.core.Find;
+import com.mammb.code.editor.core.FrameTimings;
 import com.mammb.code.editor.core.HoverOn;
 import com.mammb.code.editor.core.FontMetrics;
 import com.mammb.code.editor.core.Point;
@@ -34,6 +35,7 @@ import com.mammb.code.editor.core.ScreenScroll;
 import com.mammb.code.editor.core.Session;
 import com.mammb.code.editor.core.Action;
 import com.mammb.code.editor.core.Theme;
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.editor.core.editing.EditingFunctions;
 import com.mammb.code.editor.core.Loc;
 import com.mammb.code.editor.core.layout.ScreenLayout;
@@ -44,6 +46,7 @@ import com.mammb.code.editor.core.text.Style.StyleSpan;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
@@ -99,6 +102,12 @@ public class TextEditorModel implements EditorModel {
     private Find find;
     /** The decorate. */
     private Decorate decorate;
+    /** The frame timings. */
+    private final FrameTimings frameTimings = new FrameTimings();
+    /** The number of rows of the read-only content at the last paint. */
+    private int paintedRows;
+    /** Whether the content has been edited through another view since the last paint. */
+    private boolean sharedEdited;
 
     /**
      * Constructor.
@@ -123,6 +132,8 @@ public class TextEditorModel implements EditorModel {
         this.find = find;
         this.decorate = decorate;
         this.marginLeft += screenLayout.standardCharWidth() * 8;
+        this.screenLayout.setPrefetchListener(this.decorate::prefetch);
+        this.content.onSharedEdit(this::sharedEdit);
     }
 
     /**
@@ -145,6 +156,16 @@ public class TextEditorModel implements EditorModel {
             // if scrolling occurs, paint() is called from the scroll event
             return;
         }
+        sharedEdited = false;
+        var event = new EditorEvents.Paint();
+        event.begin();
+        long start = System.nanoTime();
+        decorate.drainStats();
+        if (content.readonly() && content.rows() != paintedRows) {
+            // the read-only content may grow in the background
+            paintedRows = content.rows();
+            screenLayout.refreshBuffer();
+        }
         calcScreenLayout();
         draw.clear();
         Paints.selection(draw, marginTop, marginLeft, screenLayout, carets);
@@ -152,6 +173,19 @@ public class TextEditorModel implements EditorModel {
         Paints.map(draw, marginTop, marginLeft, screenLayout, decorate, scroll.width());
         Paints.caret(draw, marginTop, marginLeft, caretVisible, screenLayout, carets);
         Paints.leftGarter(draw, marginTop, marginLeft, screenLayout, carets);
+        var stats = decorate.drainStats();
+        frameTimings.painted(System.nanoTime() - start, stats);
+        if (event.shouldCommit()) {
+            event.topLine = screenLayout.topLine();
+            event.lines = screenLayout.screenLineSize();
+            event.lexedRows = stats.lexedRows();
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean needsPaint() {
+        return sharedEdited;
     }
 
     @Override
@@ -493,6 +527,11 @@ public class TextEditorModel implements EditorModel {
         this.caretVisible = visible;
     }
 
+    @Override
+    public FrameTimings frameTimings() {
+        return frameTimings;
+    }
+
     private void input(String text) {
         if (carets.size() == 1) {
             Caret c = carets.getPrimaryOne();
@@ -690,14 +729,18 @@ public class TextEditorModel implements EditorModel {
         if (Objects.equals(currentRowEnding, newRowEnding) && Objects.equals(currentCharset, newCharset)) {
             return;
         }
-        save(path);
-        close();
-        Files.writeWith(path, currentCharset, newCharset, newRowEnding.str());
+        // the rows are streamed from the buffer in a single pass, and the buffer is then
+        // reloaded from the converted file, as it holds the bytes of the old encoding
+        byte[] bom = Objects.equals(currentCharset, newCharset) ? content.query(Query.bom) : new byte[0];
+        Files.writeWith(path, content.rows(), content::getText, newCharset, bom, newRowEnding.str());
         reload(newCharset);
     }
 
     @Override
     public void reload(Charset charset) {
+        if (charset == null && reloadIncrementally()) {
+            return;
+        }
         if (charset == null) {
             content.reload();
         } else {
@@ -708,6 +751,66 @@ public class TextEditorModel implements EditorModel {
         find = content.find();
     }
 
+    private boolean reloadIncrementally() {
+        List<Point> points = new ArrayList<>(carets.points());
+        int topRow = screenLayout.screenLines().isEmpty() ? 0 : screenLayout.screenLines().getFirst().row();
+        points.add(Point.of(topRow, 0));
+        var moved = content.reloadIncrementally(points);
+        if (moved.isEmpty()) return false;
+        aroundEdit(() -> {
+            screenLayout.refreshBuffer();
+            carets.at(moved.get().subList(0, points.size() - 1));
+            scrollAt(screenLayout.rowToFirstLine(moved.get().getLast().row()));
+        });
+        return true;
+    }
+
+    @Override
+    public boolean followTail() {
+        int rows = content.rows();
+        // the view follows the tail only while the caret is at the tail
+        boolean atTail = carets.size() == 1 && !carets.hasMarked()
+            && carets.getPrimaryOne().row() >= rows - 1;
+        int appended = content.appendTail();
+        if (appended < 0) {
+            // the file has been truncated or replaced
+            content.reload();
+            find = content.find();
+            screenLayout.refreshBuffer();
+            if (!atTail) moveTo(0);
+        } else if (appended > 0) {
+            screenLayout.refreshBuffer(rows - 1, content.rows() - 1);
+        } else {
+            return false;
+        }
+        if (atTail) {
+            moveCaretBottom(false);
+            scrollToCaret();
+        }
+        return true;
+    }
+
+    private void sharedEdit(SharedContent.Edit edit) {
+        // the highlights and the flush marks are placed on the rows before the edit
+        decorate.clear();
+        if (edit.delta() == 0 && !edit.whole()) {
+            screenLayout.refreshBuffer(edit.from(), edit.to());
+        } else {
+            screenLayout.refreshBuffer();
+        }
+        int last = Math.max(0, content.rows() - 1);
+        for (Caret c : carets.carets()) {
+            int row = c.row();
+            if (row > edit.to()) row += edit.delta();
+            row = Math.clamp(row, 0, last);
+            if (row != c.row() || (row >= edit.from() && row <= edit.to())) {
+                c.clearMark();
+                c.at(row, Math.clamp(c.col(), 0, screenLayout.rowTextAt(row).textLength()));
+            }
+        }
+        sharedEdited = true;
+    }
+
     @Override
     public void close() {
         content.close();
@@ -849,7 +952,7 @@ public class TextEditorModel implements EditorModel {
 
     @Override
     public TextEditorModel with(Session session) {
-        var model = new TextEditorModel(Content.of(session), screenLayout.fontMetrics(), scroll, ctx);
+        var model = new TextEditorModel(Content.of(session, ctx.config().stashPath()), screenLayout.fontMetrics(), scroll, ctx);
         if (session.lineWidth() > 0) {
             model.wrap(session.lineWidth());
         }
@@ -867,6 +970,7 @@ public class TextEditorModel implements EditorModel {
 
         if (isImeOn() || action.isEmpty()) return;
 
+        long start = System.nanoTime();
         switch (action) {
             case Input a        -> aroundEdit(() -> input(a.attr()));
             case Delete _       -> aroundEdit(this::delete);
@@ -913,6 +1017,7 @@ public class TextEditorModel implements EditorModel {
         decorate.clearFlushMarks();
         BracketFind.apply(carets.getPrimaryOne().point(), query(Query.charAtCaret), screenLayout.screenRows()).forEach(p ->
             decorate.addFlushMark(p.row(), new StyleSpan(new Style.AroundSq(Theme.current.cautionColor()), p.col(), 1)));
+        frameTimings.applied(System.nanoTime() - start);
     }
 
     @Override
@@ -935,6 +1040,7 @@ public class TextEditorModel implements EditorModel {
             case QueryRecords.BytesAtCaret _      -> (R) Contents.bytesAt(content, carets.getPrimaryOne().point());
             case QueryRecords.ContentPath _       -> (R) content.path();
             case QueryRecords.LastModifiedTime _  -> (R) content.lastModifiedTime();
+            case QueryRecords.Footprint _         -> (R) Long.valueOf(footprint());
             case null -> null;
             default -> content.query(query);
         };
@@ -942,6 +1048,16 @@ public class TextEditorModel implements EditorModel {
 
     // -- private -------------------------------------------------------------
 
+    /**
+     * Estimates the heap footprint of this model, the content and the line index of the layout.
+     * @return the estimated footprint, in bytes
+     */
+    private long footprint() {
+        Long footprint = content.query(Query.footprint);
+        if (footprint == null) footprint = content.query(Query.size);
+        return ((footprint == null) ? 0 : footprint) + screenLayout.lineSize() * 8L;
+    }
+
     private void aroundEdit(Runnable runnable) {
         decorate.clear();
         runnable.run();
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.text;
+
+import com.mammb.code.editor.core.FontMetrics;
+import java.util.Arrays;
+
+/**
+ * The row text for long rows.
+ * The advances are measured lazily in chunks, from the head of the row up to
+ * the requested index, so that a huge single row is only measured as far as
+ * it is actually viewed.
+ * @author Naotsugu Kobayashi
+ */
+class ChunkedRowText implements RowText {
+
+    /** The number of characters in a chunk. */
+    static final int CHUNK_SIZE = 1024;
+
+    /** The number of rows. */
+    private final int row;
+    /** The text value. */
+    private final String value;
+    /** The font metrics. */
+    private final FontMetrics fm;
+    /** Handle tab?. */
+    private final boolean handleTab;
+    /** The height. */
+    private final double height;
+    /** The uniformity. */
+    private final boolean uniformity;
+    /** The advances for each chunk, allocated when measured. */
+    private final double[][] chunks;
+    /** The cumulative width at the start of each chunk. */
+    private final double[] chunkStartWidths;
+    /** The index measured so far (exclusive). */
+    private int measured = 0;
+    /** The width measured so far. */
+    private double measuredWidth = 0;
+    /** The materialized advances. */
+    private double[] advances;
+
+    /**
+     * Constructor.
+     * @param row the number of rows
+     * @param value the text value
+     * @param fm the font metrics
+     * @param handleTab handle tab
+     */
+    ChunkedRowText(int row, String value, FontMetrics fm, boolean handleTab) {
+        this.row = row;
+        this.value = value;
+        this.fm = fm;
+        this.handleTab = handleTab;
+        this.height = fm.getLineHeight();
+        this.uniformity = !handleTab || value.indexOf('\t') < 0;
+        int n = (value.length() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.chunks = new double[n][];
+        this.chunkStartWidths = new double[n + 1];
+    }
+
+    @Override
+    public int row() {
+        return row;
+    }
+
+    @Override
+    public String value() {
+        return value;
+    }
+
+    @Override
+    public double[] advances() {
+        if (advances == null) {
+            advances = advances(0, value.length());
+        }
+        return advances;
+    }
+
+    @Override
+    public double[] advances(int from, int to) {
+        if (advances != null) {
+            return Arrays.copyOfRange(advances, from, to);
+        }
+        measureTo(to);
+        double[] ret = new double[to - from];
+        for (int i = from; i < to; i++) {
+            ret[i - from] = measuredAt(i);
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Until the whole row has been measured, the unmeasured part is
+     * estimated with the standard character width.
+     */
+    @Override
+    public double width() {
+        return measuredWidth + (value.length() - measured) * fm.standardCharWidth();
+    }
+
+    @Override
+    public double height() {
+        return height;
+    }
+
+    @Override
+    public boolean uniformity() {
+        return uniformity;
+    }
+
+    @Override
+    public double widthTo(int index) {
+        index = Math.clamp(index, 0, value.length());
+        measureTo(index);
+        int k = index / CHUNK_SIZE;
+        double w = chunkStartWidths[k];
+        for (int i = k * CHUNK_SIZE; i < index; i++) {
+            w += measuredAt(i);
+        }
+        return w;
+    }
+
+    @Override
+    public int indexTo(double width) {
+        for (int k = 0; k < chunks.length; k++) {
+            int chunkEnd = Math.min((k + 1) * CHUNK_SIZE, value.length());
+            measureTo(chunkEnd);
+            double chunkEndWidth = (chunkEnd == value.length()) ? measuredWidth : chunkStartWidths[k + 1];
+            if (chunkEndWidth <= width) continue;
+            double w = chunkStartWidths[k];
+            for (int i = k * CHUNK_SIZE; i < chunkEnd; i++) {
+                double ad = measuredAt(i);
+                if (w + ad > width) return i;
+                w += ad;
+            }
+        }
+        return Math.min(value.length(), textLength());
+    }
+
+    /**
+     * Measure the advances up to the specified index.
+     * @param index the index (exclusive)
+     */
+    private void measureTo(int index) {
+        index = Math.min(index, value.length());
+        while (measured < index) {
+            int i = measured;
+            int step = 1;
+            double advance;
+            char ch1 = value.charAt(i);
+            if (Character.isHighSurrogate(ch1) && i + 1 < value.length()) {
+                advance = fm.getAdvance(ch1, value.charAt(i + 1));
+                step = 2;
+            } else if (handleTab && ch1 == '\t') {
+                // width-based tab
+                double tabWidth = fm.getTabSize() * fm.standardCharWidth();
+                double gap = tabWidth - (measuredWidth % tabWidth);
+                advance = (0 < gap && gap < fm.standardCharWidth()) ? tabWidth + gap : gap;
+            } else if (Character.isISOControl(ch1)) {
+                advance = 0;
+                step = 2;
+            } else {
+                advance = fm.getAdvance(ch1);
+            }
+            if (advance != 0) {
+                int k = i / CHUNK_SIZE;
+                if (chunks[k] == null) chunks[k] = new double[CHUNK_SIZE];
+                chunks[k][i % CHUNK_SIZE] = advance;
+            }
+            measuredWidth += advance;
+            measured = Math.min(i + step, value.length());
+            for (int n = i + 1; n <= measured; n++) {
+                if (n % CHUNK_SIZE == 0) chunkStartWidths[n / CHUNK_SIZE] = measuredWidth;
+            }
+        }
+    }
+
+    @Override
+    public double advanceAt(int index) {
+        if (advances != null) return advances[index];
+        measureTo(index + 1);
+        return measuredAt(index);
+    }
+
+    /**
+     * Get the measured advance at the specified index.
+     * @param index the index
+     * @return the advance
+     */
+    private double measuredAt(int index) {
+        double[] chunk = chunks[index / CHUNK_SIZE];
+        return (chunk == null) ? 0 : chunk[index % CHUNK_SIZE];
+    }
+
+}
@@ -42,6 +42,8 @@ public interface LinedText extends Text {
             @Override
             public double[] advances() { return peer.advances(); }
             @Override
+            public double advanceAt(int index) { return peer.advanceAt(index); }
+            @Override
             public double width() { return peer.width(); }
             @Override
             public double height() { return peer.height(); }
@@ -23,6 +23,9 @@ import com.mammb.code.editor.core.FontMetrics;
  */
 public interface RowText extends LinedText {
 
+    /** The row length above which a row is measured and painted in chunks. */
+    int LONG_ROW_LENGTH = 10_000;
+
     @Override
     default int line() {
         return row();
@@ -48,6 +51,9 @@ public interface RowText extends LinedText {
      * @return a new {@link RowText}
      */
     static RowText of(int row, String text, FontMetrics fm, boolean handleTab) {
+        if (text.length() > LONG_ROW_LENGTH) {
+            return new ChunkedRowText(row, text, fm, handleTab);
+        }
         double width = 0;
         boolean uniformity = true;
         double[] advances = new double[text.length()];
@@ -86,4 +92,14 @@ public interface RowText extends LinedText {
         return new RowTextRecord(row, text, advances, width, fm.getLineHeight(), uniformity);
     }
 
+    /**
+     * Gets whether the specified text belongs to a long row.
+     * @param text the text
+     * @return {@code true} if the text belongs to a long row
+     */
+    static boolean isLong(Text text) {
+        Text row = (text instanceof SubText sub) ? sub.parent() : text;
+        return row.length() > LONG_ROW_LENGTH;
+    }
+
 }
@@ -16,7 +16,6 @@
 package com.mammb.code.editor.core.text;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -145,6 +144,10 @@ public interface StyledText extends Text {
             return peer.advances();
         }
         @Override
+        public double advanceAt(int index) {
+            return peer.advanceAt(index);
+        }
+        @Override
         public double width() {
             return peer.width();
         }
@@ -179,11 +182,19 @@ public interface StyledText extends Text {
         }
         @Override
         public double[] advances() {
-            return Arrays.copyOfRange(peer.advances(), start, end);
+            return peer.advances(start, end);
+        }
+        @Override
+        public double advanceAt(int index) {
+            return peer.advanceAt(start + index);
         }
         @Override
         public double width() {
-            return Arrays.stream(peer.advances(), start, end).sum();
+            double w = 0;
+            for (int i = start; i < end; i++) {
+                w += peer.advanceAt(i);
+            }
+            return w;
         }
         @Override
         public double height() {
@@ -16,7 +16,6 @@
 package com.mammb.code.editor.core.text;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -75,8 +74,27 @@ public interface SubText extends Text {
         return subs;
     }
 
+    /**
+     * Get the sub text of the given row that is visible in the specified horizontal range.
+     * @param rowText the original text
+     * @param fromX the x-coordinate of the left edge
+     * @param toX the x-coordinate of the right edge
+     * @return the visible sub text
+     */
+    static SubText windowOf(RowText rowText, double fromX, double toX) {
+        int from = rowText.indexTo(Math.max(0, fromX));
+        int to = rowText.indexTo(toX);
+        to = (to >= rowText.textLength())
+            ? rowText.length()
+            : Math.min(rowText.length(), to + (rowText.isHighSurrogate(to) ? 2 : 1));
+        from = Math.min(from, to);
+        return new SubTextRecord(rowText, from, to, rowText.widthTo(to) - rowText.widthTo(from));
+    }
+
     /**
      * implementation of {@link SubText}.
+     * The sub text is a view over the parent row, the accessors work on the
+     * parent value and advances by offset so as not to copy them on each call.
      */
     record SubTextRecord(RowText parent, int fromIndex, int toIndex, double width) implements SubText {
         @Override
@@ -89,12 +107,92 @@ public interface SubText extends Text {
         }
         @Override
         public double[] advances() {
-            return Arrays.copyOfRange(parent.advances(), fromIndex, toIndex);
+            return parent.advances(fromIndex, toIndex);
+        }
+        @Override
+        public double[] advances(int from, int to) {
+            return parent.advances(fromIndex + from, fromIndex + to);
         }
         @Override
         public double height() {
             return parent.height();
         }
+        @Override
+        public int length() {
+            return toIndex - fromIndex;
+        }
+        @Override
+        public boolean isEmpty() {
+            return toIndex == fromIndex;
+        }
+        @Override
+        public double advanceAt(int index) {
+            return parent.advanceAt(fromIndex + index);
+        }
+        @Override
+        public boolean uniformity() {
+            double w = -1;
+            for (int i = fromIndex; i < toIndex; i++) {
+                double advance = parent.advanceAt(i);
+                if (advance == 0.0) continue;
+                if (w < 0) {
+                    w = advance;
+                } else if (w != advance) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        @Override
+        public boolean isEndWithLf() {
+            return length() > 0 && charAt(length() - 1) == '\n';
+        }
+        @Override
+        public boolean isEndWithCrLf() {
+            return length() > 1 && charAt(length() - 2) == '\r' && charAt(length() - 1) == '\n';
+        }
+        @Override
+        public int textLength() {
+            int len = length();
+            return isEndWithCrLf() ? len - 2 : isEndWithLf() ? len - 1 : len;
+        }
+        @Override
+        public boolean isSurrogate(int index) {
+            if (0 > index || index >= length()) return false;
+            return Character.isSurrogate(charAt(index));
+        }
+        @Override
+        public boolean isHighSurrogate(int index) {
+            if (0 > index || index >= length()) return false;
+            return Character.isHighSurrogate(charAt(index));
+        }
+        @Override
+        public boolean isLowSurrogate(int index) {
+            if (0 > index || index >= length()) return false;
+            return Character.isLowSurrogate(charAt(index));
+        }
+        @Override
+        public double widthTo(int index) {
+            int to = fromIndex + Math.clamp(index, 0, length());
+            double w = 0;
+            for (int i = fromIndex; i < to; i++) {
+                w += parent.advanceAt(i);
+            }
+            return w;
+        }
+        @Override
+        public int indexTo(double width) {
+            double w = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                double ad = parent.advanceAt(i);
+                if (w + ad > width) return i - fromIndex;
+                w += ad;
+            }
+            return Math.min(length(), textLength());
+        }
+        private char charAt(int index) {
+            return parent.value().charAt(fromIndex + index);
+        }
     }
 
 }
@@ -44,6 +44,25 @@ public interface Text {
      */
     double[] advances();
 
+    /**
+     * Get the advances in the specified range.
+     * @param from the inclusive start index
+     * @param to the exclusive end index
+     * @return the advances in the specified range
+     */
+    default double[] advances(int from, int to) {
+        return Arrays.copyOfRange(advances(), from, to);
+    }
+
+    /**
+     * Get the advance at the specified index.
+     * @param index the index
+     * @return the advance at the specified index
+     */
+    default double advanceAt(int index) {
+        return advances()[index];
+    }
+
     /**
      * Get the width.
      * @return the width
@@ -15,6 +15,7 @@
  */
 package com.mammb.code.editor.core.tools;
 
+import com.mammb.code.editor.core.jfr.EditorEvents;
 import com.mammb.code.editor.core.tools.ChangeSet.Change;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,6 +35,7 @@ public final class Diff {
     public interface Result {
         Iterable<? extends CharSequence> asUnifyTexts();
         Iterable<? extends CharSequence> asUnifiedFormText(int contextSize);
+        List<Change> changes();
     }
 
     /**
@@ -43,8 +45,16 @@ public final class Diff {
      * @param <T> the type of source element
      */
     public static <T> Result run(SourcePair<T> source) {
+        var event = new EditorEvents.Diff();
+        event.begin();
         Node path = buildPath(source);
         List<Change> changes = buildChanges(path);
+        if (event.shouldCommit()) {
+            event.orgSize = source.org().size();
+            event.revSize = source.rev().size();
+            event.changes = changes.size();
+            event.commit();
+        }
         return new ChangeSet<>(source, changes);
     }
 
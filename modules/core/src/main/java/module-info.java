@@ -20,6 +20,7 @@
  */
 module code.editor.core {
     requires com.mammb.code.piecetable;
+    requires jdk.jfr;
     exports com.mammb.code.editor.core;
     exports com.mammb.code.editor.core.text;
     exports com.mammb.code.editor.core.syntax;
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import com.mammb.code.editor.core.syntax.Syntax;
+import com.mammb.code.editor.core.text.RowText;
+import com.mammb.code.editor.core.text.SubText;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link Decorate}.
+ * @author Naotsugu Kobayashi
+ */
+class DecorateTest {
+
+    @Test
+    void scrollLongRow() {
+        var sb = new StringBuilder();
+        while (sb.length() <= RowText.LONG_ROW_LENGTH * 2) {
+            sb.append("int a = \"text\"; /* comment */ var b = 'c'; ");
+        }
+        var row = RowText.of(0, sb.append("\n").toString(), new FontMetricsTestImpl());
+
+        var scrolled = Decorate.of(Syntax.of("java"));
+        for (int x = 0; x < row.length() - 200; x += 97) {
+            var window = SubText.windowOf(row, x, x + 200);
+            // a fresh decorate lexes the row from its start
+            var expected = Decorate.of(Syntax.of("java")).apply(window);
+            assertEquals(expected, scrolled.apply(window));
+        }
+    }
+
+    @Test
+    void keepLongRows() {
+        var value = "int a = 0; ".repeat(RowText.LONG_ROW_LENGTH / 10) + "\n";
+        var row0 = RowText.of(0, value, new FontMetricsTestImpl());
+        var row1 = RowText.of(1, value, new FontMetricsTestImpl());
+        var decorate = Decorate.of(Syntax.of("java"));
+        decorate.apply(SubText.windowOf(row0, 100, 300));
+        decorate.apply(SubText.windowOf(row1, 100, 300));
+        decorate.drainStats();
+
+        // the rows on screen do not evict each other
+        decorate.apply(SubText.windowOf(row0, 100, 300));
+        decorate.apply(SubText.windowOf(row1, 100, 300));
+        assertEquals(0, decorate.drainStats().lexedRows());
+    }
+
+}
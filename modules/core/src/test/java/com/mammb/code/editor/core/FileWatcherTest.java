@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link FileWatcher}.
+ * @author Naotsugu Kobayashi
+ */
+class FileWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void coalesce() throws Exception {
+        try (var watcher = new FileWatcher()) {
+            if (!watcher.available()) return;
+            var batches = new LinkedBlockingQueue<FileWatcher.Changes>();
+            watcher.addListener(batches::add);
+            Path a = java.nio.file.Files.writeString(tempDir.resolve("a.txt"), "a");
+            watcher.watch(a);
+
+            java.nio.file.Files.writeString(a, "aa");
+            java.nio.file.Files.writeString(tempDir.resolve("b.txt"), "b");
+
+            var changes = new HashSet<Path>();
+            while (!changes.contains(tempDir.resolve("b.txt"))) {
+                var batch = batches.poll(10, TimeUnit.SECONDS);
+                assertNotNull(batch);
+                changes.addAll(batch.paths());
+            }
+            assertTrue(changes.contains(a));
+        }
+    }
+
+    @Test
+    void unwatch() throws Exception {
+        try (var watcher = new FileWatcher()) {
+            if (!watcher.available()) return;
+            var batches = new LinkedBlockingQueue<FileWatcher.Changes>();
+            watcher.addListener(batches::add);
+            Path a = tempDir.resolve("a.txt");
+            watcher.watch(a);
+            watcher.watch(tempDir);
+            watcher.unwatch(a);
+            // the directory is still watched
+            java.nio.file.Files.writeString(a, "a");
+            assertNotNull(batches.poll(10, TimeUnit.SECONDS));
+
+            watcher.unwatch(tempDir);
+            batches.clear();
+            java.nio.file.Files.writeString(tempDir.resolve("b.txt"), "b");
+            assertNull(batches.poll(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void watchAfterFailure() throws Exception {
+        try (var watcher = new FileWatcher()) {
+            if (!watcher.available()) return;
+            var batches = new LinkedBlockingQueue<FileWatcher.Changes>();
+            watcher.addListener(batches::add);
+            // the directory to be registered does not exist yet
+            Path a = tempDir.resolve("sub").resolve("a.txt");
+            watcher.watch(a);
+
+            java.nio.file.Files.createDirectory(a.getParent());
+            watcher.watch(a);
+            java.nio.file.Files.writeString(a, "a");
+            assertNotNull(batches.poll(10, TimeUnit.SECONDS));
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link Files}.
+ * @author Naotsugu Kobayashi
+ */
+class FilesTest {
+
+    @Test
+    void writeWithLineSeparator(@TempDir Path tempDir) throws IOException {
+        var path = java.nio.file.Files.writeString(tempDir.resolve("test.txt"), "ab\r\ncd\r\nef");
+        var rows = List.of("ab\r\n", "cd\r\n", "ef");
+        Files.writeWith(path, rows.size(), rows::get, StandardCharsets.UTF_8, new byte[0], "\n");
+        assertEquals("ab\ncd\nef", java.nio.file.Files.readString(path));
+        try (var files = java.nio.file.Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void writeWithKeepsPermissions(@TempDir Path tempDir) throws IOException {
+        var path = java.nio.file.Files.writeString(tempDir.resolve("run.sh"), "echo a\n");
+        try {
+            java.nio.file.Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rwxr-x---"));
+        } catch (UnsupportedOperationException e) {
+            return; // not a posix file system
+        }
+        var rows = List.of("echo b\n", "");
+        Files.writeWith(path, rows.size(), rows::get, StandardCharsets.UTF_8, new byte[0], "\n");
+        assertEquals("echo b\n", java.nio.file.Files.readString(path));
+        assertEquals(PosixFilePermissions.fromString("rwxr-x---"), java.nio.file.Files.getPosixFilePermissions(path));
+    }
+
+    @Test
+    void writeWithCharset(@TempDir Path tempDir) throws IOException {
+        var path = java.nio.file.Files.writeString(tempDir.resolve("test.txt"), "");
+        var sjis = Charset.forName("Shift_JIS");
+        var rows = List.of("あい\n", "うえお\n", "");
+        Files.writeWith(path, rows.size(), rows::get, sjis, new byte[0], "\r\n");
+        assertEquals("あい\r\nうえお\r\n", java.nio.file.Files.readString(path, sjis));
+    }
+
+    @Test
+    void writeWithBom(@TempDir Path tempDir) throws IOException {
+        var path = java.nio.file.Files.writeString(tempDir.resolve("test.txt"), "");
+        var bom = new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+        var rows = List.of("a".repeat(70_000) + "\n", "b");
+        Files.writeWith(path, rows.size(), rows::get, StandardCharsets.UTF_8, bom, "\n");
+        byte[] bytes = java.nio.file.Files.readAllBytes(path);
+        assertEquals(3 + 70_000 + 1 + 1, bytes.length);
+        assertEquals((byte) 0xEF, bytes[0]);
+        assertEquals("b", new String(bytes, bytes.length - 1, 1, StandardCharsets.UTF_8));
+    }
+
+}
@@ -17,11 +17,13 @@ package com.mammb.code.editor.core;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +53,24 @@ class FindInFilesTest {
         assertEquals(0, results.get(1).col());
     }
 
+    @Test
+    void runWithGzip(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("app.log.gz");
+        try (var out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("start\nfoo hello\nend\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<FindInFiles.Found> results = new ArrayList<>();
+        FindInFiles.run(tempDir, "hello", results::addAll).get();
+        assertTrue(results.isEmpty());
+
+        FindInFiles.run(tempDir, "hello", true, results::addAll).get();
+        assertEquals(1, results.size());
+        assertEquals("foo hello", results.getFirst().snippet());
+        assertEquals(2, results.getFirst().line());
+        assertEquals(4, results.getFirst().col());
+    }
+
     @Test
     void runWithInterrupt(@TempDir Path tempDir) throws Exception {
         Path file1 = tempDir.resolve("file1.txt");
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link Histogram}.
+ * @author Naotsugu Kobayashi
+ */
+class HistogramTest {
+
+    @Test
+    void exactValues() {
+        var h = new Histogram();
+        for (int i = 1; i <= 10; i++) h.record(i);
+        assertEquals(10, h.count());
+        assertEquals(10, h.max());
+        assertEquals(5.5, h.mean());
+        assertEquals(5, h.valueAt(50));
+        assertEquals(9, h.valueAt(90));
+        assertEquals(10, h.valueAt(100));
+    }
+
+    @Test
+    void largeValues() {
+        var h = new Histogram();
+        h.record(1_000_000);
+        h.record(2_000_000);
+        h.record(Long.MAX_VALUE);
+        long p30 = h.valueAt(30);
+        assertTrue(p30 >= 1_000_000 && p30 < 1_000_000 * 1.04, "p30:" + p30);
+        long p50 = h.valueAt(50);
+        assertTrue(p50 >= 2_000_000 && p50 < 2_000_000 * 1.04, "p50:" + p50);
+        assertEquals(Long.MAX_VALUE, h.valueAt(100));
+    }
+
+    @Test
+    void indexOf() {
+        assertEquals(63, Histogram.indexOf(63));
+        assertEquals(64, Histogram.indexOf(64));
+        assertEquals(64, Histogram.indexOf(65));
+        assertEquals(65, Histogram.indexOf(66));
+        assertEquals(65, Histogram.highestEquivalent(Histogram.indexOf(64)));
+        assertTrue(Histogram.indexOf(Long.MAX_VALUE) >= 0);
+    }
+
+    @Test
+    void reset() {
+        var h = new Histogram();
+        h.record(-1);
+        h.record(100);
+        assertEquals(0, h.valueAt(50));
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.valueAt(99));
+    }
+
+}
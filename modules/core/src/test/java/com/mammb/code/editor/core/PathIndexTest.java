@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link PathIndex}.
+ * @author Naotsugu Kobayashi
+ */
+class PathIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void score() {
+        byte[] q = "ed".getBytes(StandardCharsets.UTF_8);
+        int name = PathIndex.score(q, "src/Editor.java".getBytes(StandardCharsets.UTF_8), 4);
+        int dir = PathIndex.score(q, "editor/Main.java".getBytes(StandardCharsets.UTF_8), 7);
+        int scattered = PathIndex.score(q, "src/ModelData.java".getBytes(StandardCharsets.UTF_8), 4);
+        assertTrue(name > dir);
+        assertTrue(name > scattered);
+        assertEquals(Integer.MIN_VALUE,
+            PathIndex.score(q, "src/Main.java".getBytes(StandardCharsets.UTF_8), 4));
+    }
+
+    @Test
+    void search() throws Exception {
+        Files.createDirectories(tempDir.resolve("src/main"));
+        Files.createDirectories(tempDir.resolve("build/classes"));
+        Files.createDirectories(tempDir.resolve(".git"));
+        Files.writeString(tempDir.resolve(".gitignore"), "# comment\nbuild/\n*.log\n");
+        Files.writeString(tempDir.resolve("src/main/Editor.java"), "");
+        Files.writeString(tempDir.resolve("src/main/Model.java"), "");
+        Files.writeString(tempDir.resolve("build/classes/Editor.class"), "");
+        Files.writeString(tempDir.resolve("editor.log"), "");
+        Files.writeString(tempDir.resolve(".git/config"), "");
+
+        try (var index = new PathIndex(tempDir)) {
+            index.build();
+            assertTrue(index.await(10_000));
+            assertEquals(3, index.size()); // .gitignore, Editor.java, Model.java
+
+            List<PathIndex.Match> matches = index.search("edit", 10);
+            assertEquals(1, matches.size());
+            assertEquals("src/main/Editor.java", matches.getFirst().relative());
+
+            matches = index.search("sm java", 10);
+            assertEquals(2, matches.size());
+
+            // incremental update
+            Path added = Files.writeString(tempDir.resolve("src/main/EditorPane.java"), "");
+            Files.delete(tempDir.resolve("src/main/Model.java"));
+            index.changed(new FileWatcher.Changes(Set.of(added, tempDir.resolve("src/main/Model.java"),
+                tempDir.resolve("editor.log")), Set.of()));
+            assertEquals(3, index.size());
+            assertEquals(List.of("src/main/Editor.java", "src/main/EditorPane.java"),
+                index.search("editor", 10).stream().map(PathIndex.Match::relative).toList());
+
+            // a new directory
+            Files.createDirectories(tempDir.resolve("doc/api"));
+            Files.writeString(tempDir.resolve("doc/api/index.html"), "");
+            index.changed(new FileWatcher.Changes(Set.of(tempDir.resolve("doc")), Set.of()));
+            assertEquals("doc/api/index.html", index.search("index", 10).getFirst().relative());
+
+            // a watched directory is walked again only when its events are lost
+            int size = index.size();
+            index.changed(new FileWatcher.Changes(Set.of(tempDir.resolve("doc")), Set.of()));
+            assertEquals(size, index.size());
+            Files.writeString(tempDir.resolve("doc/api/guide.html"), "");
+            index.changed(new FileWatcher.Changes(Set.of(), Set.of(tempDir.resolve("doc"))));
+            assertEquals(size + 1, index.size());
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.layout;
+
+import com.mammb.code.editor.core.FontMetricsTestImpl;
+import com.mammb.code.editor.core.text.RowText;
+import org.junit.jupiter.api.Test;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link MeasuredMetrics}.
+ * @author Naotsugu Kobayashi
+ */
+class MeasuredMetricsTest {
+
+    @Test
+    void misses() {
+        // only the ascii is measured
+        var fm = new FontMetricsTestImpl() {
+            @Override
+            public double getMeasuredAdvance(int codePoint) {
+                return (codePoint < 0x80) ? getAdvance(codePoint) : Double.NaN;
+            }
+        };
+        var metrics = new MeasuredMetrics(fm);
+        RowText.of(0, "abc", metrics);
+        assertTrue(metrics.misses().isEmpty());
+
+        RowText.of(0, "aあb", metrics);
+        assertEquals(Set.of((int) 'あ'), metrics.misses());
+
+        metrics.release();
+        assertEquals(fm.getAdvance('あ'), metrics.getAdvance('あ'));
+    }
+
+}
@@ -62,6 +62,22 @@ class WrapLayoutTest {
         assertEquals(new SubRange(0, 2, 3, 20, 30), lines.get(2));
     }
 
+    @Test
+    void textsLater() {
+        String text = "abc".repeat(10) + "\n" + "123".repeat(10) + "\n";
+        var target = new WrapLayout(content(text), new FontMetricsTestImpl());
+        target.setCharsInLine(20);
+
+        var later = target.textsLater(1, 3, target.fontMetrics()).orElseThrow();
+        var expected = target.texts(1, 3);
+        var actual = later.get();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row(), actual.get(i).row());
+            assertEquals(expected.get(i).value(), actual.get(i).value());
+        }
+    }
+
     @Test
     void rowToFirstLine() {
         String text = "abc".repeat(10); // 30 char
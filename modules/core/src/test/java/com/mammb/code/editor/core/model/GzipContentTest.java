@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Query;
+import com.mammb.code.editor.core.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link GzipContent}.
+ * @author Naotsugu Kobayashi
+ */
+class GzipContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void of() throws Exception {
+        var sb = new StringBuilder();
+        int n = MappedContent.CHECKPOINT * 3 + 5;
+        for (int i = 0; i < n; i++) {
+            sb.append("row").append(i).append('\n');
+        }
+        Path path = gzip(tempDir.resolve("a.log.gz"), sb.toString());
+        assertTrue(GzipContent.isGzip(path));
+
+        var progress = new AtomicLong();
+        var content = GzipContent.of(path, progress::addAndGet);
+        assertEquals(Files.size(path), progress.get());
+        assertEquals(n + 1, content.rows());
+        assertEquals("row2049\n", content.getText(2049));
+        assertEquals("row0\n", content.getText(0));
+        assertTrue(content.readonly());
+        assertEquals(path, content.path().orElseThrow());
+        assertEquals("a.log.gz", content.query(Query.modelName).plain());
+        content.close();
+    }
+
+    @Test
+    void spool() throws Exception {
+        Path path = gzip(tempDir.resolve("a.log.gz"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        Path left = Files.writeString(dir.resolve("b.log.gz_1.spool"), "b");
+        Path journal = Files.writeString(dir.resolve("c.journal"), "c");
+        GzipContent.deleteSpools(dir);
+        assertFalse(Files.exists(left));
+        assertTrue(Files.exists(journal));
+
+        var content = GzipContent.of(path, dir, _ -> { });
+        assertEquals("abc\n", content.getText(0));
+        try (var spools = Files.list(dir)) {
+            assertEquals(1, spools.filter(p -> p.toString().endsWith(".spool")).count());
+        }
+        content.close();
+    }
+
+    @Test
+    void isGzip() throws Exception {
+        assertFalse(GzipContent.isGzip(Files.writeString(tempDir.resolve("a.gz"), "abc")));
+        assertFalse(GzipContent.isGzip(gzip(tempDir.resolve("a.txt"), "abc")));
+    }
+
+    @Test
+    void lastModifiedTime() throws Exception {
+        Path path = gzip(tempDir.resolve("a.log.gz"), "abc\n");
+        FileTime opened = Files.getLastModifiedTime(path);
+        var content = GzipContent.of(path, _ -> { });
+
+        // the time as inflated, so that the change on disk is seen
+        FileTime changed = FileTime.fromMillis(opened.toMillis() + 5_000);
+        Files.setLastModifiedTime(path, changed);
+        assertEquals(opened, content.lastModifiedTime().orElseThrow());
+        content.reload();
+        assertEquals(changed, content.lastModifiedTime().orElseThrow());
+        content.close();
+    }
+
+    @Test
+    void session() throws Exception {
+        Path path = gzip(tempDir.resolve("a.log.gz"), "abc\ndef\n");
+        var content = Content.of(Session.of(path));
+        assertEquals("def\n", content.getText(1));
+        content.close();
+    }
+
+    private static Path gzip(Path path, String text) throws Exception {
+        try (var out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return path;
+    }
+
+}
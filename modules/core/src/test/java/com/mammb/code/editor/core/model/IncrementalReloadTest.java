@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link IncrementalReload}.
+ * @author Naotsugu Kobayashi
+ */
+class IncrementalReloadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void changedRows() throws Exception {
+        assertReload("a\nb\nc\nd\n", "a\nB\nc\nx\ny\nd\n");
+        assertReload("a\nb\nc\n", "b\nc\n");
+        assertReload("a\nb\nc\n", "a\nb\n");
+        assertReload("a\nb\nc", "a\nb\nC");
+        assertReload("a\nb\nc", "a\nb");
+        assertReload("a\nb", "a\nb\nc\n");
+        assertReload("a\n", "a\n\nx");
+        assertReload("a\nb\n", "");
+        assertReload("", "a\nb\n");
+        assertReload("a\r\nb\r\n", "a\r\nx\r\nb\r\n");
+    }
+
+    @Test
+    void pointsAndUndo() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\nc\nd\n");
+        var content = new TextEditContent(path);
+        Files.writeString(path, "x\ny\na\nB\nc\nd\n");
+
+        var moved = content.reloadIncrementally(
+            List.of(Point.of(0, 1), Point.of(1, 1), Point.of(3, 1))).orElseThrow();
+        assertEquals(List.of(Point.of(2, 1), Point.of(3, 0), Point.of(5, 1)), moved);
+        assertFalse(content.query(Query.modified));
+
+        // the previous text is restored by a single undo
+        assertFalse(content.undo().isEmpty());
+        assertEquals("b\n", content.getText(1));
+        assertEquals(5, content.rows());
+    }
+
+    @Test
+    void rowEndingChanged() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\n");
+        var content = new TextEditContent(path);
+        Files.writeString(path, "a\r\nb\r\n");
+        assertTrue(content.reloadIncrementally(List.of()).isEmpty());
+    }
+
+    private void assertReload(String org, String rev) throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), org);
+        var content = new TextEditContent(path);
+        Files.writeString(path, rev);
+        assertTrue(content.reloadIncrementally(List.of()).isPresent());
+        var sb = new StringBuilder();
+        for (int i = 0; i < content.rows(); i++) {
+            sb.append(content.getText(i));
+        }
+        assertEquals(rev, sb.toString());
+    }
+
+}
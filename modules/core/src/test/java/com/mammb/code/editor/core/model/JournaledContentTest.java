@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link JournaledContent}.
+ * @author Naotsugu Kobayashi
+ */
+class JournaledContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void restore() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\ndef\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+        assertNull(content.query(Query.journalPath));
+
+        content.insert(Point.of(0, 3), "1\n2");
+        content.delete(Point.of(2, 0));
+        content.replace(List.of(new Point.Range(Point.of(0, 0), Point.of(0, 3))),
+            List.<Function<String, String>>of(String::toUpperCase));
+        content.undo();
+        content.redo();
+        String text = text(content);
+
+        Path journal = content.query(Query.journalPath);
+        assertTrue(JournaledContent.isJournal(journal));
+        assertTrue(Files.size(journal) < 200);
+        content.close();
+        assertTrue(Files.exists(journal));
+
+        var restored = JournaledContent.restore(journal, path, dir);
+        assertEquals(text, text(restored));
+        assertTrue(restored.query(Query.modified));
+        // the undo history is replayed as well
+        restored.undo();
+        assertEquals("abc1\n2\nef\n", text(restored));
+        restored.close();
+    }
+
+    @Test
+    void checkpoint() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+        long revision = content.query(Query.revision);
+
+        content.insert(Point.of(0, 3), "d");
+        assertEquals(revision + 1, (long) content.query(Query.revision));
+        Path journal = content.query(Query.journalCheckpoint);
+        // the checkpoint can be restored while the journal continues to be appended
+        Path copy = Files.copy(journal, tempDir.resolve("copy.journal"));
+        var restored = JournaledContent.restore(copy, path, dir);
+        assertEquals("abcd\n", text(restored));
+        restored.close();
+
+        content.insert(Point.of(0, 4), "e");
+        assertEquals(journal, content.query(Query.journalCheckpoint));
+        assertTrue(Files.size(journal) > Files.size(copy));
+        content.close();
+    }
+
+    @Test
+    void fork() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+
+        content.insert(Point.of(0, 0), "x");
+        Path journal = content.query(Query.journalPath);
+        long size = Files.size(journal);
+
+        // the journal referred to by a stash is kept as it is
+        content.insert(Point.of(0, 0), "y");
+        Path forked = content.query(Query.journalPath);
+        assertNotEquals(journal, forked);
+        assertEquals(size, Files.size(journal));
+        assertEquals("yxabc\n", text(JournaledContent.restore(forked, path, dir)));
+        assertEquals("xabc\n", text(JournaledContent.restore(journal, path, dir)));
+    }
+
+    @Test
+    void discard() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+
+        content.insert(Point.of(0, 0), "x");
+        content.close();
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void baseChanged() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+        content.insert(Point.of(0, 0), "x");
+        Path journal = content.query(Query.journalPath);
+        content.close();
+
+        Files.writeString(path, "changed\n");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        var restored = JournaledContent.restore(journal, path, dir);
+        assertEquals("changed\n", text(restored));
+        assertEquals(journal, restored.query(Query.journalConflict));
+        assertTrue(Files.exists(journal));
+    }
+
+    @Test
+    void undoBeyondSave() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "abc\n");
+        Path dir = Files.createDirectory(tempDir.resolve("stash"));
+        var content = JournaledContent.of(new TextEditContent(path), dir);
+        content.insert(Point.of(0, 0), "x");
+        content.save(path);
+
+        // the undo history before the save cannot be replayed from the file
+        content.undo();
+        assertNull(content.query(Query.journalPath));
+    }
+
+    private static String text(Content content) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < content.rows(); i++) sb.append(content.getText(i));
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Find;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link MappedContent}.
+ * @author Naotsugu Kobayashi
+ */
+class MappedContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void getText() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "abc\nde\r\n\nあい");
+        var content = MappedContent.of(path, _ -> { });
+        assertEquals(4, content.rows());
+        assertEquals("abc\n", content.getText(0));
+        assertEquals("de\r\n", content.getText(1));
+        assertEquals("\n", content.getText(2));
+        assertEquals("あい", content.getText(3));
+        assertEquals("c\nd", content.getText(Point.of(0, 2), Point.of(1, 1)));
+        assertTrue(content.readonly());
+        assertEquals(StandardCharsets.UTF_8, content.query(Query.charCode));
+    }
+
+    @Test
+    void trailingNewline() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "abc\n");
+        var content = MappedContent.of(path, _ -> { });
+        assertEquals(2, content.rows());
+        assertEquals("", content.getText(1));
+    }
+
+    @Test
+    void empty() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "");
+        var content = MappedContent.of(path, _ -> { });
+        assertEquals(1, content.rows());
+        assertEquals("", content.getText(0));
+    }
+
+    @Test
+    void checkpoints() throws Exception {
+        var sb = new StringBuilder();
+        int n = MappedContent.CHECKPOINT * 5 + 7;
+        for (int i = 0; i < n; i++) {
+            sb.append("row").append(i).append('\n');
+        }
+        Path path = Files.writeString(tempDir.resolve("a.log"), sb);
+        var progress = new AtomicLong();
+        // small chunks, so that rows and checkpoints straddle the chunk boundaries
+        var content = MappedContent.of(path, 64, progress::addAndGet);
+        assertEquals(n + 1, content.rows());
+        assertEquals(Files.size(path), progress.get());
+        // random access, backward and forward across checkpoints
+        assertEquals("row" + (n - 1) + "\n", content.getText(n - 1));
+        assertEquals("row1024\n", content.getText(1024));
+        assertEquals("row1023\n", content.getText(1023));
+        assertEquals("row0\n", content.getText(0));
+        for (int i = 3000; i < 3100; i++) {
+            assertEquals("row" + i + "\n", content.getText(i));
+        }
+    }
+
+    @Test
+    void progressive() throws Exception {
+        var sb = new StringBuilder();
+        int n = MappedContent.CHECKPOINT * 3 + 5;
+        for (int i = 0; i < n; i++) {
+            sb.append("row").append(i).append('\n');
+        }
+        Path path = Files.writeString(tempDir.resolve("a.log"), sb);
+        var indexed = new AtomicLong();
+        var content = MappedContent.progressiveOf(path, 64, indexed::addAndGet);
+        int rows = content.rows();
+        assertTrue(rows >= 1);
+        assertEquals("row0\n", content.getText(0));
+        while (content.loading()) {
+            // every published row is readable while indexing continues
+            assertTrue(content.rows() >= rows);
+            rows = content.rows();
+            int last = rows - 1;
+            assertEquals(last < n ? "row" + last + "\n" : "", content.getText(last));
+            Thread.onSpinWait();
+        }
+        assertEquals(n + 1, content.rows());
+        assertEquals("row" + (n - 1) + "\n", content.getText(n - 1));
+        assertEquals("row2048\n", content.getText(2048));
+        assertEquals(Files.size(path), indexed.get());
+        content.close();
+    }
+
+    @Test
+    void supports() throws Exception {
+        assertTrue(MappedContent.supports(Files.writeString(tempDir.resolve("a.txt"), "abc\nあい\n")));
+        assertFalse(MappedContent.supports(Files.writeString(tempDir.resolve("b.txt"), "abc\n", StandardCharsets.UTF_16)));
+        assertFalse(MappedContent.supports(Files.writeString(tempDir.resolve("c.txt"), "abc\n", StandardCharsets.UTF_16LE)));
+    }
+
+    @Test
+    void checkpointsOfVariousRows() throws Exception {
+        var random = new Random(1);
+        var rows = new ArrayList<String>();
+        var sb = new StringBuilder();
+        for (int i = 0; i < MappedContent.CHECKPOINT * 6; i++) {
+            // rows shorter and longer than a word, so that newlines fall at every byte of the words
+            String row = "r".repeat(random.nextInt(20)) + i + "\n";
+            rows.add(row);
+            sb.append(row);
+        }
+        Path path = Files.writeString(tempDir.resolve("a.log"), sb);
+        var content = MappedContent.of(path, 64, _ -> { });
+        var progressive = MappedContent.progressiveOf(path, 64, _ -> { });
+        while (progressive.loading()) Thread.onSpinWait();
+        assertEquals(rows.size() + 1, content.rows());
+        assertEquals(rows.size() + 1, progressive.rows());
+        for (int i = rows.size() - 1; i >= 0; i -= 97) {
+            assertEquals(rows.get(i), content.getText(i));
+            assertEquals(rows.get(i), progressive.getText(i));
+        }
+        progressive.close();
+    }
+
+    @Test
+    void rowEnding() throws Exception {
+        // the first newline is in a later chunk
+        Path path = Files.writeString(tempDir.resolve("a.log"), "x".repeat(200) + "\r\nabc\n");
+        var content = MappedContent.of(path, 64, _ -> { });
+        assertEquals("CRLF", content.query(Query.rowEndingSymbol));
+        assertEquals("\r\n", content.query(Query.rowEndingChars));
+        content.close();
+
+        Files.writeString(path, "abc");
+        content = MappedContent.of(path, 64, _ -> { });
+        assertEquals("LF", content.query(Query.rowEndingSymbol));
+        Files.writeString(path, "abc\r\n", StandardOpenOption.APPEND);
+        content.appendTail();
+        assertEquals("CRLF", content.query(Query.rowEndingSymbol));
+        content.close();
+    }
+
+    @Test
+    void appendTail() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "row0\n");
+        var content = MappedContent.of(path, 64, _ -> { });
+        var sb = new StringBuilder();
+        for (int i = 1; i < MappedContent.CHECKPOINT * 2; i++) {
+            sb.append("row").append(i).append('\n');
+        }
+        Files.writeString(path, sb, StandardOpenOption.APPEND);
+        assertEquals(MappedContent.CHECKPOINT * 2 - 1, content.appendTail());
+        assertEquals(MappedContent.CHECKPOINT * 2 + 1, content.rows());
+        assertEquals("row1500\n", content.getText(1500));
+        assertEquals("row1024\n", content.getText(1024));
+        assertEquals(0, content.appendTail());
+
+        Files.writeString(path, "x\n");
+        assertEquals(-1, content.appendTail());
+    }
+
+    @Test
+    void reloadWith() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "abc\nde\n");
+        var content = MappedContent.of(path, _ -> { });
+        content.reloadWith(StandardCharsets.ISO_8859_1);
+        assertEquals(StandardCharsets.ISO_8859_1, content.query(Query.charCode));
+        assertEquals("de\n", content.getText(1));
+        assertThrows(IllegalArgumentException.class, () -> content.reloadWith(StandardCharsets.UTF_16));
+        assertEquals(StandardCharsets.ISO_8859_1, content.query(Query.charCode));
+        content.close();
+        assertEquals("", content.getText(0));
+        Files.delete(path);
+    }
+
+    @Test
+    void find() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "foo bar\nbaz foo\nqux\n");
+        var find = MappedContent.of(path, _ -> { }).find();
+        assertEquals(2, find.all(Find.specOf("foo", false)).size());
+        var next = find.nextOne(Point.of(0, 1), Find.specOf("FOO", true)).orElseThrow();
+        assertEquals(1, next.row());
+        assertEquals(4, next.col());
+        var prev = find.prevOne(Point.of(1, 4), Find.specOf("foo", false)).orElseThrow();
+        assertEquals(0, prev.row());
+        assertEquals(0, prev.col());
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import com.mammb.code.editor.core.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link SharedContent}.
+ * @author Naotsugu Kobayashi
+ */
+class SharedContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shared() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\n");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+        var c2 = SharedContent.acquire(tempDir.resolve(".").resolve("a.txt"), TextEditContent::new);
+        assertEquals(2, SharedContent.views(path));
+
+        List<SharedContent.Edit> edits = new ArrayList<>();
+        c2.onSharedEdit(edits::add);
+
+        c1.insert(Point.of(0, 1), "x\ny");
+        assertEquals("ax\n", c2.getText(0));
+        assertEquals("y\n", c2.getText(1));
+        assertEquals(List.of(new SharedContent.Edit(0, 0, 1)), edits);
+
+        // edits through the listening view itself are not notified
+        c2.insert(Point.of(2, 0), "z");
+        assertEquals(1, edits.size());
+        assertEquals("zb\n", c1.getText(2));
+
+        c1.undo();
+        assertTrue(edits.getLast().whole());
+    }
+
+    @Test
+    void close() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+        var c2 = SharedContent.acquire(path, TextEditContent::new);
+
+        c1.close();
+        c1.close();
+        assertEquals(1, SharedContent.views(path));
+        assertEquals("a\n", c2.getText(0));
+
+        c2.close();
+        assertEquals(0, SharedContent.views(path));
+
+        // a new buffer is read after all views are closed
+        Files.writeString(path, "b\n");
+        Content c3 = SharedContent.acquire(path, TextEditContent::new);
+        assertEquals("b\n", c3.getText(0));
+        c3.close();
+    }
+
+    @Test
+    void restore() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+
+        // the stash recovered while the file is open in another view
+        Path stash = Files.writeString(tempDir.resolve("stash"), "a\nb\n");
+        var session = Session.of(path, Files.getLastModifiedTime(path), stash, "",
+            StandardCharsets.UTF_8, false, 0, 0, 0, 0);
+        var c2 = SharedContent.restore(session, TextEditContent::new);
+        assertEquals(2, SharedContent.views(path));
+        assertEquals("b\n", c1.getText(1));
+        assertTrue(c1.query(Query.modified));
+        assertFalse(Files.exists(stash));
+
+        // the buffer modified in another view is more recent than the stash
+        c2.close();
+        c1.insert(Point.of(2, 0), "c");
+        Files.writeString(stash, "a\n");
+        var c3 = SharedContent.restore(session, TextEditContent::new);
+        assertEquals("c", c3.getText(2));
+        assertFalse(Files.exists(stash));
+        c1.close();
+        c3.close();
+
+        // the stash recovered onto the file changed since is kept as a conflict
+        Files.writeString(stash, "a\nb\n");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        var c4 = SharedContent.restore(session, TextEditContent::new);
+        assertEquals(1, SharedContent.views(path));
+        assertFalse(c4.query(Query.modified));
+        assertEquals(stash, c4.query(Query.journalConflict));
+        assertTrue(Files.exists(stash));
+        c4.close();
+    }
+
+    @Test
+    void saveAs() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        Path other = tempDir.resolve("b.txt");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+        var c2 = SharedContent.acquire(path, TextEditContent::new);
+
+        c1.insert(Point.of(1, 0), "b");
+        c1.save(other);
+        // only the saving view moves to the saved file
+        assertEquals(1, SharedContent.views(path));
+        assertEquals(1, SharedContent.views(other));
+        assertEquals(other, c1.path().orElseThrow());
+        assertEquals(path, c2.path().orElseThrow());
+        assertEquals("a\nb", Files.readString(other));
+        assertEquals("b", c2.getText(1));
+        c1.close();
+        c2.close();
+        assertEquals(0, SharedContent.views(other));
+        assertEquals(0, SharedContent.views(path));
+    }
+
+    @Test
+    void saveAsAlone() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        Path other = tempDir.resolve("b.txt");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+
+        c1.save(other);
+        assertEquals(0, SharedContent.views(path));
+        assertEquals(1, SharedContent.views(other));
+        c1.close();
+        assertEquals(0, SharedContent.views(other));
+    }
+
+    @Test
+    void imeFlush() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\nc\n");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+        var c2 = SharedContent.acquire(path, TextEditContent::new);
+        List<SharedContent.Edit> edits = new ArrayList<>();
+        c2.onSharedEdit(edits::add);
+
+        c1.insertFlush(Point.of(1, 0), "x");
+        c1.clearFlush();
+        assertEquals(new SharedContent.Edit(1, 1, 0), edits.getLast());
+        assertEquals("b\n", c2.getText(1));
+
+        // nothing is notified without a flush
+        c1.clearFlush();
+        assertEquals(2, edits.size());
+        c1.close();
+        c2.close();
+    }
+
+    @Test
+    void footprint() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        var c1 = SharedContent.acquire(path, TextEditContent::new);
+        var c2 = SharedContent.acquire(path, TextEditContent::new);
+        assertTrue(c1.query(Query.footprint) > 0);
+        assertEquals(0L, (long) c2.query(Query.footprint));
+        c1.close();
+        assertTrue(c2.query(Query.footprint) > 0);
+        c2.close();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.piecetable.TextEdit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link SpliceWrite}.
+ * @author Naotsugu Kobayashi
+ */
+class SpliceWriteTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write() throws Exception {
+        String text = IntStream.range(0, 1000).mapToObj(i -> "row" + i + "\n").collect(Collectors.joining());
+        Path path = Files.writeString(tempDir.resolve("a.txt"), text);
+        var edit = TextEdit.of(path);
+        edit.insert(500, 0, "x\ny");
+        int rows = edit.rows();
+
+        // only the row 500 is touched
+        assertTrue(SpliceWrite.write(edit, path, 500, rows - 1 - 501));
+        assertEquals(text.replace("row500\n", "x\nyrow500\n"), Files.readString(path));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void writeHeadAndTail() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\nc");
+        var edit = TextEdit.of(path);
+        edit.insert(2, 1, "9");
+        // the rows touched are unknown
+        assertFalse(SpliceWrite.write(edit, path, 0, 0));
+        assertTrue(SpliceWrite.write(edit, path, 2, 0));
+        assertEquals("a\nb\nc9", Files.readString(path));
+
+        edit = TextEdit.of(path);
+        edit.insert(0, 0, "0");
+        assertTrue(SpliceWrite.write(edit, path, 0, 2));
+        assertEquals("0a\nb\nc9", Files.readString(path));
+    }
+
+    @Test
+    void writeRowsDisagree() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\nb\nc");
+        var edit = TextEdit.of(path);
+        edit.insert(1, 0, "9");
+        // the rows on disk disagree with the rows of the text edit at the boundary
+        assertFalse(SpliceWrite.write(edit, path, 2, 0));
+        assertFalse(SpliceWrite.write(edit, path, 0, 2));
+        assertEquals("a\nb\nc", Files.readString(path));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void spliceable() {
+        assertTrue(SpliceWrite.spliceable(StandardCharsets.UTF_8));
+        assertTrue(SpliceWrite.spliceable(StandardCharsets.ISO_8859_1));
+        assertFalse(SpliceWrite.spliceable(StandardCharsets.UTF_16LE));
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.model;
+
+import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link StashedContent}.
+ * @author Naotsugu Kobayashi
+ */
+class StashedContentTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void boundToOriginal() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        Path stash = Files.writeString(tempDir.resolve("stash"), "a\nb\n");
+        var content = StashedContent.of(stash, path, Files.getLastModifiedTime(path), null);
+
+        assertEquals(path, content.path().orElseThrow());
+        assertTrue(content.query(Query.modified));
+        assertEquals("b\n", content.getText(1));
+
+        content.insert(Point.of(2, 0), "c");
+        content.save(path);
+        assertEquals("a\nb\nc", Files.readString(path));
+        assertFalse(content.query(Query.modified));
+        assertEquals(path, content.path().orElseThrow());
+        // the stash is no longer referred to
+        assertFalse(Files.exists(stash));
+    }
+
+    @Test
+    void reload() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        Path stash = Files.writeString(tempDir.resolve("stash"), "a\nb\n");
+        var content = StashedContent.of(stash, path, Files.getLastModifiedTime(path), null);
+
+        // reloading discards the stashed changes
+        content.reload();
+        assertFalse(content.query(Query.modified));
+        assertEquals(2, content.rows());
+        assertEquals("a\n", content.getText(0));
+        assertFalse(Files.exists(stash));
+    }
+
+    @Test
+    void close() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.txt"), "a\n");
+        Path stash = Files.writeString(tempDir.resolve("stash"), "a\nb\n");
+        var content = StashedContent.of(stash, path, Files.getLastModifiedTime(path), null);
+
+        // closing discards the stashed changes
+        content.close();
+        assertFalse(Files.exists(stash));
+        assertEquals("a\n", Files.readString(path));
+    }
+
+}
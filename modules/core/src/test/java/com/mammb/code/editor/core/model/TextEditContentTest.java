@@ -16,7 +16,12 @@
 package com.mammb.code.editor.core.model;
 
 import com.mammb.code.editor.core.Point;
+import com.mammb.code.editor.core.Query;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +31,9 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class TextEditContentTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void getText() {
         var content = new TextEditContent();
@@ -41,4 +49,64 @@ class TextEditContentTest {
         assertEquals(2, content.rows());
     }
 
+    @Test
+    void appendTail() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("a.log"), "a\nb\n");
+        var content = new TextEditContent(path);
+        assertEquals(0, content.appendTail());
+
+        Files.writeString(path, "c\nd", StandardOpenOption.APPEND);
+        assertEquals(1, awaitTail(content));
+        assertEquals("c\n", content.getText(2));
+        assertFalse(content.query(Query.modified));
+
+        // the unterminated row is appended once terminated
+        Files.writeString(path, "e\n", StandardOpenOption.APPEND);
+        assertEquals(1, awaitTail(content));
+        assertEquals("de\n", content.getText(3));
+        assertEquals(5, content.rows());
+
+        // the appended rows are not undone
+        content.insert(Point.of(0, 0), "x");
+        assertTrue(content.query(Query.modified));
+        assertFalse(content.undo().isEmpty());
+        assertFalse(content.query(Query.modified));
+        assertTrue(content.undo().isEmpty());
+        assertEquals(5, content.rows());
+        assertEquals("a\n", content.getText(0));
+
+        // truncated
+        Files.writeString(path, "x\n");
+        assertEquals(-1, awaitTail(content));
+    }
+
+    @Test
+    void undoAfterFollow() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("b.log"), "a\n");
+        var content = new TextEditContent(path);
+        content.appendTail();
+        Files.writeString(path, "b\n", StandardOpenOption.APPEND);
+        assertEquals(1, awaitTail(content));
+
+        // the followed text is not undone, with or without an edit
+        assertTrue(content.undo().isEmpty());
+        assertEquals("b\n", content.getText(1));
+        content.insert(Point.of(1, 0), "x");
+        assertEquals("xb\n", content.getText(1));
+        assertFalse(content.undo().isEmpty());
+        assertTrue(content.undo().isEmpty());
+        assertEquals("a\n", content.getText(0));
+        assertEquals("b\n", content.getText(1));
+        assertFalse(content.query(Query.modified));
+    }
+
+    private static int awaitTail(TextEditContent content) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            int appended = content.appendTail();
+            if (appended != 0) return appended;
+            Thread.sleep(10);
+        }
+        return 0;
+    }
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.text;
+
+import com.mammb.code.editor.core.FontMetricsTestImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link ChunkedRowText}.
+ * @author Naotsugu Kobayashi
+ */
+class ChunkedRowTextTest {
+
+    @Test
+    void measure() {
+        var fm = new FontMetricsTestImpl();
+        var str = "a\tあ𠀋bc\t".repeat(500);
+        var expected = RowText.of(0, str, fm);
+        var text = new ChunkedRowText(0, str, fm, true);
+
+        assertEquals(expected.widthTo(2500), text.widthTo(2500));
+        assertEquals(expected.indexTo(1234.5), text.indexTo(1234.5));
+        assertEquals(expected.widthTo(1024), text.widthTo(1024));
+        assertArrayEquals(expected.advances(), text.advances());
+        assertArrayEquals(expected.advances(1000, 1100), text.advances(1000, 1100));
+        assertEquals(expected.width(), text.width());
+        assertEquals(expected.indexTo(Double.MAX_VALUE), text.indexTo(Double.MAX_VALUE));
+        assertFalse(text.uniformity());
+    }
+
+    @Test
+    void window() {
+        var fm = new FontMetricsTestImpl();
+        var text = new ChunkedRowText(0, "あ".repeat(10_000), fm, true);
+        var window = SubText.windowOf(text, 200, 400);
+        assertEquals(100, window.fromIndex());
+        assertEquals(20, window.widthTo(10));
+        assertEquals(10, window.indexTo(21));
+        assertTrue(window.uniformity());
+        // the accessors of the window measure the row only up to the chunk of the window
+        assertEquals(ChunkedRowText.CHUNK_SIZE * 2 + (10_000 - ChunkedRowText.CHUNK_SIZE), text.width());
+    }
+
+    @Test
+    void widthEstimated() {
+        var fm = new FontMetricsTestImpl();
+        var text = new ChunkedRowText(0, "あ".repeat(3000), fm, true);
+        assertEquals(3000, text.width());
+        assertEquals(200, text.widthTo(100));
+        assertEquals(200 + 2900, text.width());
+        assertEquals(6000, text.widthTo(3000));
+        assertEquals(6000, text.width());
+    }
+
+}
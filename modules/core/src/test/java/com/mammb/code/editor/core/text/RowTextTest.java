@@ -55,4 +55,12 @@ class RowTextTest {
         assertArrayEquals(new double[] { 1, 1, 2, 1, 3 }, text.advances());
     }
 
+    @Test
+    void ofLongRow() {
+        var text = RowText.of(0, "a".repeat(RowText.LONG_ROW_LENGTH + 1), new FontMetricsTestImpl());
+        assertInstanceOf(ChunkedRowText.class, text);
+        assertTrue(RowText.isLong(text));
+        assertEquals(10.0, text.widthTo(10));
+    }
+
 }
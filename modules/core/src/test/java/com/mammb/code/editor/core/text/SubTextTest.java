@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.core.text;
+
+import com.mammb.code.editor.core.FontMetricsTestImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The test of {@link SubText}.
+ * @author Naotsugu Kobayashi
+ */
+class SubTextTest {
+
+    @Test
+    void of() {
+        List<SubText> subs = SubText.of(RowText.of(0, "abcdあ\n", new FontMetricsTestImpl()), 3);
+        assertEquals(2, subs.size());
+        assertEquals("abc", subs.get(0).value());
+        assertEquals("dあ\n", subs.get(1).value());
+        assertArrayEquals(new double[] { 1, 2, 0 }, subs.get(1).advances());
+    }
+
+    @Test
+    void offsetAccessors() {
+        var row = RowText.of(0, "abcdあef\r\n", new FontMetricsTestImpl());
+        List<SubText> subs = SubText.of(row, 3);
+        assertEquals(3, subs.size());
+
+        var sub = subs.get(1);
+        assertEquals("dあ", sub.value());
+        assertEquals(2, sub.length());
+        assertEquals(2, sub.textLength());
+        assertFalse(sub.isEndWithLf());
+        assertFalse(sub.uniformity());
+        assertEquals(1.0, sub.widthTo(1));
+        assertEquals(3.0, sub.widthTo(10));
+        assertEquals(1, sub.indexTo(2.5));
+        assertEquals(2, sub.indexTo(10));
+
+        var last = subs.getLast();
+        assertEquals("ef\r\n", last.value());
+        assertTrue(last.isEndWithLf());
+        assertTrue(last.isEndWithCrLf());
+        assertEquals(2, last.textLength());
+        assertEquals(2, last.indexTo(10));
+        assertTrue(last.uniformity());
+    }
+
+    @Test
+    void noCopy() {
+        // a parent that fails on the copy of its advances
+        record Parent(int row, String value, double[] advances, double width, double height) implements RowText {
+            @Override
+            public double[] advances(int from, int to) {
+                throw new AssertionError("copied");
+            }
+        }
+        var row = new Parent(0, "abcdef\n", new double[] { 1, 1, 1, 1, 1, 1, 0 }, 6, 1);
+        var sub = SubText.of(row, 3).get(1);
+        assertEquals("def\n", sub.value());
+        assertEquals(1.0, sub.advanceAt(0));
+        assertEquals(2.0, sub.widthTo(2));
+        assertEquals(2, sub.indexTo(2.5));
+        assertTrue(sub.uniformity());
+    }
+
+    @Test
+    void windowOf() {
+        var row = RowText.of(0, "abあcd\n", new FontMetricsTestImpl());
+        var sub = SubText.windowOf(row, 1.5, 3.5);
+        assertEquals(1, sub.fromIndex());
+        assertEquals(3, sub.toIndex());
+        assertEquals("bあ", sub.value());
+        assertEquals(3, sub.width());
+
+        sub = SubText.windowOf(row, 4, 100);
+        assertEquals("cd\n", sub.value());
+    }
+
+}
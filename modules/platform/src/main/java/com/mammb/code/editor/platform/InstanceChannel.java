@@ -0,0 +1,171 @@
+/*
+ * Copyright 2023-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.platform;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The channel to the running instance of the application, over a Unix-domain socket.
+ * A second launch forwards its arguments to the running instance, instead of starting up.
+ * @author Naotsugu Kobayashi
+ */
+public class InstanceChannel implements Closeable {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(InstanceChannel.class.getName());
+
+    /** The receiver of the forwarded arguments. */
+    private static Consumer<List<String>> receiver;
+    /** The arguments received before the receiver is set. */
+    private static final List<List<String>> pending = new ArrayList<>();
+
+    /** The path of the socket. */
+    private final Path address;
+    /** The server channel. */
+    private final ServerSocketChannel server;
+
+    /**
+     * Constructor.
+     * @param address the path of the socket
+     * @param server the server channel
+     */
+    private InstanceChannel(Path address, ServerSocketChannel server) {
+        this.address = address;
+        this.server = server;
+    }
+
+    /**
+     * Forwards the arguments to the running instance.
+     * The paths in the arguments are made absolute, as the running instance has its own working directory.
+     * @param address the path of the socket
+     * @param args the command line arguments
+     * @return {@code true} if the arguments are forwarded, {@code false} if no instance is listening
+     */
+    public static boolean forward(Path address, String[] args) {
+        if (!Files.exists(address)) return false;
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(address))) {
+            var sb = new StringBuilder();
+            for (String arg : args) sb.append(absolute(arg)).append('\n');
+            var buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) channel.write(buf);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.log(System.Logger.Level.DEBUG, "no instance is listening on {0}", address);
+            return false;
+        }
+    }
+
+    /**
+     * Listens for the arguments forwarded from other launches.
+     * A stale socket left by a terminated instance is replaced.
+     * @param address the path of the socket
+     * @return the listening channel
+     * @throws IOException if an I/O error occurs
+     */
+    public static InstanceChannel listen(Path address) throws IOException {
+        Files.deleteIfExists(address);
+        var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(UnixDomainSocketAddress.of(address));
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        var channel = new InstanceChannel(address, server);
+        Thread.ofVirtual().name("instance-channel").start(channel::accept);
+        return channel;
+    }
+
+    /**
+     * Sets the receiver of the forwarded arguments.
+     * The arguments received before the receiver is set are delivered at once.
+     * @param receiver the receiver, called on the channel thread
+     */
+    public static void onReceived(Consumer<List<String>> receiver) {
+        List<List<String>> received;
+        synchronized (pending) {
+            InstanceChannel.receiver = receiver;
+            received = new ArrayList<>(pending);
+            pending.clear();
+        }
+        received.forEach(receiver);
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            try (var channel = server.accept()) {
+                receive(read(channel));
+            } catch (IOException e) {
+                if (server.isOpen()) log.log(System.Logger.Level.WARNING, e);
+            }
+        }
+    }
+
+    private static List<String> read(SocketChannel channel) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var buf = ByteBuffer.allocate(4096);
+        while (channel.read(buf) >= 0) {
+            out.write(buf.array(), 0, buf.position());
+            buf.clear();
+        }
+        return Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+            .filter(arg -> !arg.isBlank())
+            .toList();
+    }
+
+    private static void receive(List<String> args) {
+        Consumer<List<String>> consumer;
+        synchronized (pending) {
+            consumer = receiver;
+            if (consumer == null) {
+                pending.add(args);
+                return;
+            }
+        }
+        consumer.accept(args);
+    }
+
+    private static String absolute(String arg) {
+        if (arg.startsWith("-")) return arg;
+        try {
+            return Path.of(arg).toAbsolutePath().normalize().toString();
+        } catch (InvalidPathException e) {
+            return arg;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Files.deleteIfExists(address);
+    }
+
+}
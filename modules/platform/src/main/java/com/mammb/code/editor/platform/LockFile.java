@@ -30,10 +30,14 @@ import java.nio.file.StandardOpenOption;
  */
 public class LockFile {
 
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(LockFile.class.getName());
+
     private static final int OFFSET = 1;
     private final Path path;
     private FileChannel channel;
     private FileLock lock;
+    private InstanceChannel instanceChannel;
 
     /**
      * Creates a new {@code LockFile} instance that manages file-based locking functionality.
@@ -44,6 +48,16 @@ public class LockFile {
         this.path = path;
     }
 
+    /**
+     * Forwards the command line arguments to the running instance, if any.
+     * This is intended to be called before any heavy class loading, so that a second launch exits quickly.
+     * @param args the command line arguments
+     * @return {@code true} if the arguments are forwarded to the running instance
+     */
+    public boolean forward(String[] args) {
+        return InstanceChannel.forward(socketPath(), args);
+    }
+
     /**
      * Attempts to acquire an exclusive lock on a file to ensure single-instance application behavior.
      * This method creates or opens the specified lock file, attempts to acquire a non-blocking lock, and
@@ -52,7 +66,8 @@ public class LockFile {
      * <ul>
      * - If the lock cannot be acquired, it attempts to activate the window of the process holding the lock by reading its PID
      *   from the file and invoking platform-specific window activation logic.
-     * - If the lock is successfully acquired, the current process's PID is written to the file.
+     * - If the lock is successfully acquired, the current process's PID is written to the file,
+     *   and the arguments forwarded from other launches are listened for.
      * </ul>
      *
      * @throws IOException If an I/O error occurs while working with the lock file.
@@ -68,9 +83,15 @@ public class LockFile {
             throw new IllegalStateException("another instance of the application is already running.");
         }
         writePid();
+        try {
+            instanceChannel = InstanceChannel.listen(socketPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            log.log(System.Logger.Level.WARNING, "failed to listen for other launches", e);
+        }
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
+                if (instanceChannel != null) instanceChannel.close();
                 if (lock != null) lock.close();
                 if (channel != null) channel.close();
                 Files.deleteIfExists(path);
@@ -79,6 +100,10 @@ public class LockFile {
         }));
     }
 
+    private Path socketPath() {
+        return path.resolveSibling(path.getFileName() + ".sock");
+    }
+
     private void writePid() throws IOException {
         long pid = ProcessHandle.current().pid();
         channel.position(OFFSET);
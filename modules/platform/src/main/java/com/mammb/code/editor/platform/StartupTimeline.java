@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.platform;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.Executor;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The timeline of the start-up.
+ * <p>
+ * Each phase is timed from the end of the previous one, the first from the start of the JVM,
+ * and is committed as a Flight Recorder event. The timeline ends at the first paint,
+ * when it is logged, and the work deferred until then is run.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public final class StartupTimeline {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(StartupTimeline.class.getName());
+
+    /** The start instant of the JVM. */
+    private static final Instant start = ProcessHandle.current().info().startInstant().orElse(Instant.now());
+
+    /** The phases, as formatted for the log. */
+    private static final StringJoiner phases = new StringJoiner(", ");
+    /** The tasks deferred until the first paint. */
+    private static final List<Runnable> deferred = new ArrayList<>();
+    /** The instant of the last mark. */
+    private static Instant last = start;
+    /** Whether the first paint is done or not. */
+    private static volatile boolean painted = false;
+
+    @Name("com.mammb.code.editor.StartupPhase")
+    @Label("Startup Phase")
+    @Category({ "Editor", "Startup" })
+    @Description("A phase of the start-up, until the first paint")
+    @StackTrace(false)
+    static class Phase extends Event {
+        @Label("Phase")
+        String phase;
+        @Label("Elapsed")
+        @Timespan(Timespan.MILLISECONDS)
+        long elapsed;
+        @Label("Since JVM Start")
+        @Timespan(Timespan.MILLISECONDS)
+        long sinceStart;
+    }
+
+    private StartupTimeline() { }
+
+    /**
+     * Marks the end of the phase.
+     * @param phase the name of the phase
+     */
+    public static synchronized void mark(String phase) {
+        if (painted) return;
+        var now = Instant.now();
+        long elapsed = Duration.between(last, now).toMillis();
+        long sinceStart = Duration.between(start, now).toMillis();
+        last = now;
+        phases.add("%s %,d ms".formatted(phase, elapsed));
+        var event = new Phase();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.elapsed = elapsed;
+            event.sinceStart = sinceStart;
+            event.commit();
+        }
+    }
+
+    /**
+     * Defers the task until the first paint.
+     * If the first paint is already done, the task is run at once.
+     * @param task the task
+     */
+    public static void defer(Runnable task) {
+        synchronized (StartupTimeline.class) {
+            if (!painted) {
+                deferred.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * Marks the first paint, which ends the timeline.
+     * The deferred tasks are handed to the executor, so that they run after the frame.
+     * Subsequent calls have no effect.
+     * @param executor the executor of the deferred tasks
+     */
+    public static void painted(Executor executor) {
+        if (painted) return;
+        List<Runnable> tasks;
+        synchronized (StartupTimeline.class) {
+            if (painted) return;
+            mark("first paint");
+            painted = true;
+            tasks = List.copyOf(deferred);
+            deferred.clear();
+        }
+        log.log(System.Logger.Level.INFO, "started in {0,number,#,###} ms ({1})",
+            Duration.between(start, last).toMillis(), phases);
+        tasks.forEach(executor::execute);
+    }
+
+}
@@ -20,5 +20,6 @@
  */
 module code.editor.platform {
     requires java.net.http;
+    requires jdk.jfr;
     exports com.mammb.code.editor.platform;
 }
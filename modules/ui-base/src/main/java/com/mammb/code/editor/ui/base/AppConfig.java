@@ -109,6 +109,22 @@ public class AppConfig extends Config.AbstractConfig {
         put("app.windowPositionY", val);
     }
 
+    /**
+     * Get the memory budget of the open tabs, beyond which the least recently used tabs are hibernated.
+     * @return the memory budget in megabytes, {@code 0} if unlimited
+     */
+    public long tabMemoryBudget() {
+        return Long.parseLong(get("app.tabMemoryBudget", "512"));
+    }
+
+    /**
+     * Get the interval of the autosave of the unsaved changes.
+     * @return the interval in seconds, {@code 0} if disabled
+     */
+    public long autosaveInterval() {
+        return Long.parseLong(get("app.autosaveInterval", "30"));
+    }
+
     /**
      * Get the session list.
      * @return the session list
@@ -132,11 +148,21 @@ public class AppConfig extends Config.AbstractConfig {
      * Clear sessions.
      */
     public void clearSessions() {
+        clearSessions(List.of());
+    }
+
+    /**
+     * Clear sessions, and the stash files other than those referred to by the retained sessions.
+     * @param retained the sessions to be retained
+     */
+    public void clearSessions(List<Session> retained) {
         put("app.sessions", "");
+        var referred = retained.stream().filter(Session::hasAltPath).map(Session::altPath).toList();
         try {
             File[] files = stashPath().toFile().listFiles(File::isFile);
             if (files == null) return;
             for (File file : files) {
+                if (referred.contains(file.toPath())) continue;
                 Files.deleteIfExists(file.toPath());
             }
         } catch (IOException ignore) {
@@ -16,9 +16,13 @@
 package com.mammb.code.editor.ui.base;
 
 import com.mammb.code.editor.core.Context;
+import com.mammb.code.editor.core.FileWatcher;
 import com.mammb.code.editor.core.Files;
 import com.mammb.code.editor.platform.AppPaths;
+import com.mammb.code.editor.platform.StartupTimeline;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * The application context.
@@ -28,6 +32,8 @@ public class AppContext extends Context.AbstractContext {
 
     /** The notifier. */
     private final Notifier notifier = new Notifier();
+    /** The number of the watches deferred until the first paint, keyed by path. */
+    private final Map<Path, Integer> deferredWatches = new HashMap<>();
 
     /**
      * Constructor.
@@ -43,6 +49,49 @@ public class AppContext extends Context.AbstractContext {
         return (AppConfig) super.config();
     }
 
+    @Override
+    public void opened(Path path) {
+        super.opened(path);
+        synchronized (deferredWatches) {
+            deferredWatches.merge(path, 1, Integer::sum);
+        }
+        StartupTimeline.defer(() -> {
+            synchronized (deferredWatches) {
+                // the watch has been cancelled if closed before
+                if (takeDeferredWatch(path)) {
+                    FileWatcher.shared().watch(path);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void closed(Path path) {
+        super.closed(path);
+        synchronized (deferredWatches) {
+            // cancel the watch not yet run, or stop the one already run
+            if (!takeDeferredWatch(path)) {
+                FileWatcher.shared().unwatch(path);
+            }
+        }
+    }
+
+    /**
+     * Takes one of the watches deferred for the specified path.
+     * @param path the path
+     * @return {@code true} if a deferred watch has been taken
+     */
+    private boolean takeDeferredWatch(Path path) {
+        Integer n = deferredWatches.get(path);
+        if (n == null) return false;
+        if (n > 1) {
+            deferredWatches.put(path, n - 1);
+        } else {
+            deferredWatches.remove(path);
+        }
+        return true;
+    }
+
     /**
      * Retrieves the {@code Notifier} instance associated with this context.
      * The {@code Notifier} allows event-driven communication by managing a list
@@ -72,6 +72,10 @@ public sealed interface Command {
 
     record ReloadWith(Charset charset) implements Command, RequireArgs1<Charset> {}
 
+    record OpenEditable() implements Command {}
+
+    record Follow() implements Command {}
+
     record TabClose() implements Command {}
 
     record Config() implements Command {}
@@ -164,6 +168,8 @@ public sealed interface Command {
 
     record OpenRecent() implements Command { }
 
+    record QuickOpen() implements Command { }
+
     record Diff() implements Command { }
 
     record DiffFoldOff() implements Command {}
@@ -186,6 +192,10 @@ public sealed interface Command {
 
     record Help() implements Command {}
 
+    record TimingOverlay() implements Command {}
+
+    record TimingDump() implements Command {}
+
     record Empty() implements Command, Hidden {}
 
     static String promptText(Class<? extends Command> clazz) {
@@ -219,6 +229,8 @@ public sealed interface Command {
             case Class<?> c when c == SaveWith.class -> "save with charset";
             case Class<?> c when c == New.class -> "open new tab";
             case Class<?> c when c == ReloadWith.class -> "reload content with charset";
+            case Class<?> c when c == OpenEditable.class -> "reopen the read-only view of a large file for editing";
+            case Class<?> c when c == Follow.class -> "toggle following the tail of a growing file";
             case Class<?> c when c == TabClose.class -> "close current tab";
             case Class<?> c when c == Config.class -> "open current config";
             case Class<?> c when c == ToLowerCase.class -> "converts the selected text to lower case";
@@ -264,6 +276,7 @@ public sealed interface Command {
             case Class<?> c when c == ToggleLayout.class -> "toggle context layout";
             case Class<?> c when c == Open.class -> "open the file at the specified path";
             case Class<?> c when c == OpenRecent.class -> "open the file from recent list";
+            case Class<?> c when c == QuickOpen.class -> "open the file in the workspace by fuzzy name";
             case Class<?> c when c == Diff.class -> "diff";
             case Class<?> c when c == DiffFoldOff.class -> "display all lines without folding.";
             case Class<?> c when c == DiffWith.class -> "diff with the specified file";
@@ -275,6 +288,8 @@ public sealed interface Command {
             case Class<?> c when c == TranslateInBrowser.class -> "translate in the browser web";
             case Class<?> c when c == ColorPick.class -> "show color pick dialog";
             case Class<?> c when c == Help.class -> "show help dialog";
+            case Class<?> c when c == TimingOverlay.class -> "toggle the frame timing overlay";
+            case Class<?> c when c == TimingDump.class -> "dump the frame timings to the log";
             case null, default -> "";
         };
     }
@@ -285,6 +300,7 @@ public sealed interface Command {
             case Class<?> c when c == OpenChoose.class -> shortcut + " O";
             case Class<?> c when c == Save.class -> shortcut + " S";
             case Class<?> c when c == SaveAs.class -> shortcut + " Shift S";
+            case Class<?> c when c == QuickOpen.class -> shortcut + " Shift O";
             case Class<?> c when c == New.class -> shortcut + " N";
             case Class<?> c when c == TabClose.class -> shortcut + " W";
             case Class<?> c when c == FindNext.class -> "F3";
@@ -79,9 +79,10 @@ public class DrawImpl implements Draw {
             gd.fillText(textColor, text, x, y + fontMetrics.getAscent());
         } else {
             double xp = x;
+            double[] advances = sourceText.advances();
             for (int i = 0; i < text.length(); i++) {
                 boolean highSurrogate = Character.isHighSurrogate(text.charAt(i));
-                double ad = sourceText.advances()[i];
+                double ad = advances[i];
                 String ch = highSurrogate
                     ? text.substring(i, ++i + 1)
                     : text.substring(i, i + 1);
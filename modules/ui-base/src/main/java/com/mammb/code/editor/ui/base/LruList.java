@@ -60,14 +60,34 @@ public class LruList<E> implements Iterable<E> {
      * the element, the least recently added element is removed.
      *
      * @param e the element to be added to the list; must not be null
+     * @return the least recently added element removed to keep the maximum size, or {@code null}
      * @throws NullPointerException if the specified element is null
      */
-    public void push(E e) {
+    public E push(E e) {
         list.remove(e);
+        E evicted = null;
         if (list.size() >= maxSize) {
-            list.removeLast();
+            evicted = list.removeLast();
         }
         list.addFirst(e);
+        return evicted;
+    }
+
+    /**
+     * Removes the specified element from the list if it exists.
+     *
+     * @param e the element to be removed
+     * @return {@code true} if the element was removed
+     */
+    public boolean remove(E e) {
+        return list.remove(e);
+    }
+
+    /**
+     * Removes all the elements from the list.
+     */
+    public void clear() {
+        list.clear();
     }
 
     /**
@@ -23,6 +23,7 @@ import java.util.Optional;
 import java.util.stream.Stream;
 import com.mammb.code.editor.platform.AppPaths;
 import com.mammb.code.editor.platform.ColorScheme;
+import com.mammb.code.editor.platform.StartupTimeline;
 import com.mammb.code.editor.ui.base.AppContext;
 import javafx.animation.PauseTransition;
 import javafx.application.Application;
@@ -51,16 +52,20 @@ public class App extends Application {
     @Override
     public void start(Stage stage) {
 
+        StartupTimeline.mark("toolkit");
+
         if (System.getProperty("core.theme") == null) {
             System.setProperty("core.theme",
                 Platform.getPreferences().getColorScheme().name().toLowerCase());
         }
 
         var ctx = new FxAppContext(this);
+        StartupTimeline.mark("context");
 
         // if additional fonts are added, set them as the default font
         ctx.config().defaultFontName(
             loadFonts(AppPaths.applicationHomePath()).orElse(null));
+        StartupTimeline.mark("fonts");
 
         double posX = ctx.config().windowPositionX();
         double posY = ctx.config().windowPositionY();
@@ -75,6 +80,7 @@ public class App extends Application {
         double h = Math.max(ctx.config().windowHeight(), 33);
         var appPane = new AppPane(stage, paramPath(), ctx);
         Scene scene = new Scene(appPane, w, h);
+        StartupTimeline.mark("panes");
 
         scene.getStylesheets().add(css);
         stage.setScene(scene);
@@ -83,10 +89,12 @@ public class App extends Application {
             Objects.requireNonNull(App.class.getResourceAsStream("/icon.png"))));
         buildConfigPropertyListener(stage, scene, ctx);
         stage.show();
+        StartupTimeline.mark("show");
 
         // -DidleGcDelayMillis=3000
         if (System.getProperty("idleGcDelayMillis") != null) {
-            bindGcTimer(stage, Double.parseDouble(System.getProperty("idleGcDelayMillis")));
+            StartupTimeline.defer(() ->
+                bindGcTimer(stage, Double.parseDouble(System.getProperty("idleGcDelayMillis"))));
         }
 
     }
@@ -21,7 +21,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import com.mammb.code.editor.core.Content;
+import com.mammb.code.editor.core.FileWatcher;
 import com.mammb.code.editor.core.Session;
+import com.mammb.code.editor.platform.InstanceChannel;
+import com.mammb.code.editor.platform.StartupTimeline;
+import javafx.application.Platform;
+import javafx.scene.control.ButtonType;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
@@ -40,6 +46,10 @@ public class AppPane extends StackPane {
      */
     public AppPane(Stage stage, Path path, FxAppContext ctx) {
 
+        // the unsaved changes left by a crash
+        var leftovers = Autosave.leftovers(ctx.config().stashPath());
+        Content.deleteSpools(ctx.config().stashPath());
+
         // restore sessions
         var sessions = new ArrayList<>(ctx.config().sessions());
         if (path != null && Files.exists(path)) {
@@ -51,9 +61,12 @@ public class AppPane extends StackPane {
             sessions.add(Session.empty());
         }
 
-        // restore sessions and create the container
+        // restore sessions and create the container,
+        // only the last pane to be selected is loaded, and the others on activation
         var panes = sessions.stream()
-            .map(session -> new EditorPane(ctx).bindLater(session))
+            .map(session -> session == sessions.getLast()
+                ? new EditorPane(ctx).bindLater(session)
+                : new EditorPane(ctx).bindLazily(session))
             .toArray(EditorPane[]::new);
         var tabContainer = new SplitTabPane(p ->
             new EditorPane(ctx).bindLater(Session.of(p)), panes);
@@ -65,25 +78,70 @@ public class AppPane extends StackPane {
 
         getChildren().addAll(mainPane, notifyListener);
 
-        // when focus is gained, reload external changes to the content.
-        stage.focusedProperty().addListener((_, _, focused) -> {
-            if (focused) tabContainer.contentPanes()
-                .forEach(ContentPane::refreshIfNeeded);
+        // open the paths forwarded from other launches
+        InstanceChannel.onReceived(args -> Platform.runLater(() -> {
+            args.stream().filter(arg -> !arg.startsWith("-")).map(Path::of)
+                .filter(Files::isRegularFile).forEach(tabContainer::open);
+            stage.setIconified(false);
+            stage.toFront();
+        }));
+
+        // the autosave is started after the first paint, and the recovery of a crash is offered
+        var autosave = new Autosave(ctx.config().stashPath(), ctx.config().autosaveInterval(),
+            tabContainer::contentPanes);
+        StartupTimeline.defer(() -> {
+            if (!leftovers.isEmpty()) recover(leftovers, tabContainer, ctx);
+            if (ctx.config().autosaveInterval() > 0) autosave.start();
+        });
+
+        // the file watcher is started after the first paint
+        StartupTimeline.defer(() -> {
+            // reload external changes to the content, as posted by the file watcher
+            var watcher = FileWatcher.shared();
+            watcher.addListener(changes -> Platform.runLater(() ->
+                tabContainer.contentPanes().forEach(pane -> pane.changed(changes))));
+
+            // when focus is gained, reload external changes to the content.
+            stage.focusedProperty().addListener((_, _, focused) -> {
+                if (focused && !watcher.available()) tabContainer.contentPanes()
+                    .forEach(ContentPane::refreshIfNeeded);
+            });
         });
 
         // stage close action (save sessions)
         stage.setOnCloseRequest(e -> {
             e.consume();
             if (tabContainer.canCloseAll()) {
-                ctx.config().clearSessions();
-                ctx.config().sessions(tabContainer.contentPanes().stream()
+                var sessions = tabContainer.contentPanes().stream()
                     .map(pane -> pane.close(true))
                     .filter(Optional::isPresent)
                     .map(Optional::get)
-                    .toList());
+                    .toList();
+                autosave.close();
+                // the stashes of hibernated panes are kept as they are
+                ctx.config().clearSessions(sessions);
+                ctx.config().sessions(sessions);
                 stage.close();
             }
         });
     }
 
+    private void recover(List<Session> leftovers, SplitTabPane tabContainer, FxAppContext ctx) {
+        var ret = FxDialog.confirmation(getScene().getWindow(),
+                "Recover " + leftovers.size() + " unsaved document(s)?\n" +
+                "The application was not shut down properly.")
+            .showAndWait();
+        if (ret.isEmpty() || ret.get() != ButtonType.OK) return;
+        for (Session session : leftovers) {
+            var panes = tabContainer.contentPanes();
+            if (panes.isEmpty()) return;
+            // the file already open is recovered into its pane, sharing the content
+            boolean recovered = panes.stream()
+                .anyMatch(pane -> pane instanceof EditorPane editor && editor.recover(session));
+            if (!recovered) {
+                TabContainer.find(panes.getLast()).addNext(new EditorPane(ctx).bindLater(session));
+            }
+        }
+    }
+
 }
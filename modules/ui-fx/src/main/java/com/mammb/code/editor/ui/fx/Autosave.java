@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.ui.fx;
+
+import com.mammb.code.editor.core.Session;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The periodic autosave of the unsaved changes.
+ * <p>
+ * On each tick, the panes take the sessions of their unsaved changes, and the
+ * changes are written out by a single writer thread in the background.
+ * The manifest of the sessions is then replaced atomically, so that the changes
+ * can be recovered after a crash. The manifest is removed on a clean shutdown.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+class Autosave {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(Autosave.class.getName());
+
+    /** The file name of the manifest. */
+    private static final String MANIFEST = "autosave";
+
+    /** The path of the manifest. */
+    private final Path manifest;
+    /** The panes to be autosaved. */
+    private final Supplier<List<ContentPane>> panes;
+    /** The single writer thread. */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("autosave").daemon().factory());
+    /** The timeline of the ticks. */
+    private final Timeline timeline;
+    /** The sessions written to the manifest last time. */
+    private List<Session> written = List.of();
+
+    /**
+     * Constructor.
+     * @param stashPath the path of the stash directory
+     * @param interval the interval of the autosave in seconds
+     * @param panes the supplier of the panes to be autosaved
+     */
+    Autosave(Path stashPath, long interval, Supplier<List<ContentPane>> panes) {
+        this.manifest = stashPath.resolve(MANIFEST);
+        this.panes = panes;
+        this.timeline = new Timeline(new KeyFrame(Duration.seconds(interval), _ -> tick()));
+        this.timeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /**
+     * Start the autosave.
+     * @return this autosave
+     */
+    Autosave start() {
+        timeline.play();
+        return this;
+    }
+
+    /**
+     * Stops the autosave, waits for the pending writes, and removes the manifest.
+     */
+    void close() {
+        timeline.stop();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.log(System.Logger.Level.WARNING, "autosave writer did not terminate in time");
+            }
+            Files.deleteIfExists(manifest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the sessions left by the autosave of a crashed instance.
+     * @param stashPath the path of the stash directory
+     * @return the sessions to be recovered
+     */
+    static List<Session> leftovers(Path stashPath) {
+        Path manifest = stashPath.resolve(MANIFEST);
+        if (!Files.exists(manifest)) return List.of();
+        try {
+            return Files.readAllLines(manifest, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.isBlank())
+                .map(Session::valueOf)
+                .filter(session -> session.hasAltPath() && Files.exists(session.altPath()))
+                .toList();
+        } catch (Exception e) {
+            log.log(System.Logger.Level.WARNING, "failed to read the autosave manifest", e);
+            return List.of();
+        } finally {
+            try {
+                Files.deleteIfExists(manifest);
+            } catch (IOException ignore) { }
+        }
+    }
+
+    private void tick() {
+        List<Session> sessions = new ArrayList<>();
+        for (ContentPane pane : panes.get()) {
+            try {
+                pane.autosave(writer).ifPresent(sessions::add);
+            } catch (Exception e) {
+                log.log(System.Logger.Level.WARNING, "failed to autosave", e);
+            }
+        }
+        if (sessions.equals(written)) return;
+        List<Session> previous = written;
+        written = List.copyOf(sessions);
+        // the manifest is written after the contents, as the writer runs in order
+        writer.execute(() -> writeManifest(sessions, previous));
+    }
+
+    private void writeManifest(List<Session> sessions, List<Session> previous) {
+        try {
+            if (sessions.isEmpty()) {
+                Files.deleteIfExists(manifest);
+            } else {
+                Path tmp = manifest.resolveSibling(MANIFEST + ".tmp");
+                Files.write(tmp, sessions.stream().map(Session::asString).toList(), StandardCharsets.UTF_8);
+                try (var channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(tmp, manifest, StandardCopyOption.ATOMIC_MOVE);
+            }
+            // the autosave copies no longer referred to are removed
+            List<Path> referred = sessions.stream().map(Session::altPath).toList();
+            for (Session session : previous) {
+                Path altPath = session.altPath();
+                if (altPath.getFileName().toString().endsWith(".autosave") && !referred.contains(altPath)) {
+                    Files.deleteIfExists(altPath);
+                }
+            }
+        } catch (IOException e) {
+            log.log(System.Logger.Level.ERROR, "failed to write the autosave manifest", e);
+        }
+    }
+
+}
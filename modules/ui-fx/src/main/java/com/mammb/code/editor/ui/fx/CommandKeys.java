@@ -69,6 +69,7 @@ public class CommandKeys {
         else if (SC_A.match(e)) return of(Action.selectAll());
         else if (SC_DOT.match(e)) return of(Action.repeat());
         else if (SC_O.match(e)) return new Command.OpenChoose();
+        else if (SC_SO.match(e)) return new Command.QuickOpen();
         else if (SC_S.match(e)) return new Command.Save();
         else if (SC_SA.match(e)) return new Command.SaveAs();
         else if (SC_N.match(e)) return new Command.New();
@@ -122,6 +123,7 @@ public class CommandKeys {
     static final KeyCombination SC_HOME = new KeyCodeCombination(KeyCode.LEFT, KeyCombination.SHORTCUT_DOWN);
     static final KeyCombination SC_N = new KeyCharacterCombination("n", KeyCombination.SHORTCUT_DOWN);
     static final KeyCombination SC_O = new KeyCharacterCombination("o", KeyCombination.SHORTCUT_DOWN);
+    static final KeyCombination SC_SO= new KeyCharacterCombination("o", KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
     static final KeyCombination SC_S = new KeyCharacterCombination("s", KeyCombination.SHORTCUT_DOWN);
     static final KeyCombination SC_SA= new KeyCharacterCombination("s", KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
     static final KeyCombination SC_F = new KeyCharacterCombination("f", KeyCombination.SHORTCUT_DOWN);
@@ -15,11 +15,13 @@
  */
 package com.mammb.code.editor.ui.fx;
 
+import com.mammb.code.editor.core.FileWatcher;
 import com.mammb.code.editor.core.Name;
 import com.mammb.code.editor.core.Session;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.scene.layout.StackPane;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -65,4 +67,20 @@ public abstract class ContentPane extends StackPane {
      */
     abstract void refreshIfNeeded();
 
+    /**
+     * Handles the changes on the file system, posted by the file watcher.
+     * @param changes the changes
+     */
+    void changed(FileWatcher.Changes changes) {
+    }
+
+    /**
+     * Takes the session of the unsaved changes, to be recovered after a crash.
+     * @param writer the writer to write out the changes in the background
+     * @return the session of the unsaved changes, {@code Optional.empty()} if none
+     */
+    Optional<Session> autosave(Executor writer) {
+        return Optional.empty();
+    }
+
 }
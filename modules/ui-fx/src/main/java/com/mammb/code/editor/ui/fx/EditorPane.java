@@ -17,10 +17,12 @@ package com.mammb.code.editor.ui.fx;
 
 import com.mammb.code.editor.core.Draw;
 import com.mammb.code.editor.core.EditorModel;
+import com.mammb.code.editor.core.FileWatcher;
 import com.mammb.code.editor.core.Files;
 import com.mammb.code.editor.core.Find;
 import com.mammb.code.editor.core.HoverOn;
 import com.mammb.code.editor.core.Name;
+import com.mammb.code.editor.core.PathIndex;
 import com.mammb.code.editor.core.Point;
 import com.mammb.code.editor.core.Query;
 import com.mammb.code.editor.core.Action;
@@ -28,10 +30,14 @@ import com.mammb.code.editor.core.Session;
 import com.mammb.code.editor.core.SessionHistory;
 import com.mammb.code.editor.core.editing.EditingFunctions;
 import com.mammb.code.editor.platform.AppVersion;
+import com.mammb.code.editor.platform.StartupTimeline;
 import com.mammb.code.editor.ui.base.Command;
 import com.mammb.code.editor.ui.base.DrawImpl;
 import com.mammb.code.editor.ui.base.Command.*;
 import com.mammb.code.editor.ui.base.LruList;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -43,6 +49,7 @@ import javafx.geometry.Orientation;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.ButtonType;
@@ -63,6 +70,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import java.io.File;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
@@ -73,6 +81,9 @@ import java.time.LocalDateTime;
 import java.util.HexFormat;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -87,6 +98,12 @@ public class EditorPane extends ContentPane {
     private static final System.Logger log = System.getLogger(EditorPane.class.getName());
     /** The threshold. */
     private static final long BACKGROUND_THRESHOLD = 2_000_000;
+    /** The threshold of the file size to open as a read-only memory-mapped view. */
+    private static final long MAPPED_THRESHOLD = 256L * 1024 * 1024;
+    /** The interval of polling the file in the follow mode. */
+    private static final Duration FOLLOW_INTERVAL = Duration.millis(250);
+    /** The number of the models kept warm for the back and forward navigation. */
+    private static final int WARM_MODELS = 3;
 
     /** The context. */
     private final FxAppContext context;
@@ -106,8 +123,23 @@ public class EditorPane extends ContentPane {
     private final SessionHistory sessionHistory = new SessionHistory();
     /** The find command history. */
     private final LruList<FindCommand> findCommandHistory = new LruList<>(15);
+    /** The recently left models, kept warm for the back and forward navigation. */
+    private final LruList<EditorModel> warmModels = new LruList<>(WARM_MODELS);
     /** The file path property. */
     private final SimpleObjectProperty<Name> nameProperty = new SimpleObjectProperty<>(Name.EMPTY);
+    /** Whether to show the frame timing overlay. */
+    private boolean timingOverlay = false;
+    /** The timer of the follow mode, {@code null} if not following. */
+    private Timeline follow;
+    /** The session of the hibernated model, {@code null} if not hibernated. */
+    private Session hibernated;
+    /** The task of opening in the background, {@code null} if none. */
+    private Task<EditorModel> openTask;
+    /** The session last autosaved, {@code null} if not yet autosaved. */
+    private Session autosaved;
+    /** The model and the revision of the content last autosaved. */
+    private EditorModel autosavedModel;
+    private long autosavedRevision;
 
     /**
      * Constructor.
@@ -155,7 +187,7 @@ public class EditorPane extends ContentPane {
         });
         nameProperty.setValue(model.query(Query.modelName));
 
-        paintPulse = new PaintPulse(this::paint);
+        paintPulse = new PaintPulse(this::paint, () -> hibernated == null && model.needsPaint());
         paintPulse.start();
     }
 
@@ -166,12 +198,28 @@ public class EditorPane extends ContentPane {
             } else if (session.hasAltPath()) {
                 model = model.with(session);
                 model.setSize(getWidth(), getHeight());
+                notifyConflict();
             }
             paintPulse.request();
         });
         return this;
     }
 
+    /**
+     * Binds the session without loading its content, as a hibernated pane showing only the name.
+     * The content is loaded when the pane is first activated.
+     * @param session the session
+     * @return this pane
+     */
+    public EditorPane bindLazily(Session session) {
+        if (session.isEmpty() || (!session.hasAltPath() && !Files.exists(session.path()))) {
+            return bindLater(session);
+        }
+        hibernated = session;
+        nameProperty.setValue(Name.of(session.path(), session.hasAltPath(), session.preferredName()));
+        return this;
+    }
+
     // ---- event handler ----
 
     private void handleContextMenuRequested(ContextMenuEvent e) {
@@ -182,6 +230,7 @@ public class EditorPane extends ContentPane {
     private void handleLayoutBoundsChanged(ObservableValue<? extends Bounds> ob, Bounds o, Bounds n) {
         canvas.setWidth(n.getWidth());
         canvas.setHeight(n.getHeight());
+        if (hibernated != null) return;
         model().setSize(n.getWidth(), n.getHeight());
         paintPulse.request();
     }
@@ -244,6 +293,7 @@ public class EditorPane extends ContentPane {
 
     private void handleKeyAction(KeyEvent e) {
         if (e.isConsumed()) return;
+        model().frameTimings().input();
         execute(CommandKeys.of(e));
     }
 
@@ -288,16 +338,19 @@ public class EditorPane extends ContentPane {
     private void handleVerticalScroll(ObservableValue<? extends Number> ob, Number o, Number n) {
         model().scrollAt(n.intValue());
         model.paint(draw);
+        paintTimings();
     }
 
     private void handleHorizontalScroll(ObservableValue<? extends Number> ob, Number o, Number n) {
         model().scrollX(n.doubleValue());
         model.paint(draw);
+        paintTimings();
     }
 
     private void handleInputMethodTextChanged(InputMethodEvent e) {
         model().imeOn();
         if (!e.getCommitted().isEmpty()) {
+            model().frameTimings().input();
             model().imeOff();
             execute(CommandKeys.of(Action.input(e.getCommitted())));
         } else if (!e.getComposed().isEmpty()) {
@@ -312,6 +365,7 @@ public class EditorPane extends ContentPane {
     }
 
     void execute(Command command) {
+        rehydrate();
         switch (command) {
             case ActionCommand cmd    -> model().apply(cmd.action());
             case OpenChoose _         -> openWithChooser();
@@ -322,10 +376,13 @@ public class EditorPane extends ContentPane {
             case SaveWith cmd         -> saveWith(cmd.charset(), null);
             case New _                -> openNewEdit();
             case ReloadWith cmd       -> reload(cmd.charset());
+            case OpenEditable _       -> openEditable();
+            case Follow _             -> toggleFollow();
             case TabClose _           -> handleCloseRequest();
             case Palette cmd          -> showCommandPalette(cmd.initial());
             case Open cmd             -> selectOrNewEdit(Path.of(cmd.path()));
             case OpenRecent _         -> openRecent();
+            case QuickOpen _          -> quickOpen();
             case Config _             -> openNewEdit().open(Session.of(context.config().path()));
             case FindNext cmd         -> apply(Action.findNext(cmd.str(), cmd.caseInsensitive()));
             case FindPrev cmd         -> apply(Action.findPrev(cmd.str(), cmd.caseInsensitive()));
@@ -379,6 +436,8 @@ public class EditorPane extends ContentPane {
             case SearchInBrowser _    -> searchInBrowser(model().query(Query.selectedText));
             case TranslateInBrowser _ -> translateInBrowser(model().query(Query.selectedText));
             case FindInFiles _        -> openFindInFiles();
+            case TimingOverlay _      -> timingOverlay = !timingOverlay;
+            case TimingDump _         -> dumpTimings();
             case Empty _              -> { }
         }
         if (command instanceof FindCommand cmd) {
@@ -422,6 +481,9 @@ public class EditorPane extends ContentPane {
     @Override
     public void focus() {
         canvas.requestFocus();
+        // a pane bound lazily is focused when added to the tab, before it is shown
+        if (getScene() != null) rehydrate();
+        context.memoryBudget().activated(this);
     }
 
     private void inputText(Supplier<Object> supplier) {
@@ -434,12 +496,67 @@ public class EditorPane extends ContentPane {
     }
 
     private void paint() {
+        if (hibernated != null) return;
         var model = model();
         model.paint(draw);
+        StartupTimeline.painted(Platform::runLater);
+        paintTimings();
         floatBar.setText(stateTexts(model));
         nameProperty.setValue(model.query(Query.modelName));
     }
 
+    private void paintTimings() {
+        if (!timingOverlay) return;
+        var lines = model().frameTimings().summary();
+        var gc = canvas.getGraphicsContext2D();
+        double lineHeight = 14;
+        double w = 470;
+        double h = lineHeight * lines.size() + 8;
+        double x = Math.max(0, canvas.getWidth() - scroll.vScroll().getWidth() - w - 8);
+        double y = 8;
+        gc.save();
+        gc.setFill(Color.color(0, 0, 0, 0.6));
+        gc.fillRect(x, y, w, h);
+        gc.setFill(Color.WHITE);
+        gc.setFont(Font.font("Monospaced", 11));
+        for (int i = 0; i < lines.size(); i++) {
+            gc.fillText(lines.get(i), x + 6, y + lineHeight * (i + 1));
+        }
+        gc.restore();
+    }
+
+    private void toggleFollow() {
+        if (follow != null) {
+            stopFollow();
+            return;
+        }
+        if (model().query(Query.contentPath).isEmpty()) return;
+        follow = new Timeline(new KeyFrame(FOLLOW_INTERVAL, _ -> followTail()));
+        follow.setCycleCount(Animation.INDEFINITE);
+        follow.play();
+        followTail();
+    }
+
+    private void stopFollow() {
+        if (follow == null) return;
+        follow.stop();
+        follow = null;
+    }
+
+    private void followTail() {
+        if (model().followTail()) {
+            nameProperty.setValue(model().query(Query.modelName));
+            paintPulse.request();
+        }
+    }
+
+    private void dumpTimings() {
+        var name = model().query(Query.modelName);
+        log.log(System.Logger.Level.INFO, "frame timings of {0}\n{1}",
+            name.canonical(), String.join("\n", model().frameTimings().summary()));
+        context.notifier().send("frame timings dumped to the log.");
+    }
+
     private static String[] stateTexts(EditorModel model) {
         Point p = model.query(Query.caretPoint);
         int selectedCounts = model.query(Query.selectedCounts);
@@ -472,6 +589,7 @@ public class EditorPane extends ContentPane {
 
     void open(Path path) {
         Objects.requireNonNull(path);
+        rehydrate();
         if (Files.isReadableFile(path)) {
             open(Session.of(path));
         } else if (Files.isReadableDirectory(path)) {
@@ -509,49 +627,204 @@ public class EditorPane extends ContentPane {
     }
 
     private void open(Session session) {
+        open(session, false);
+    }
 
-        boolean openInBackground = Files.size(session.path()) > BACKGROUND_THRESHOLD;
+    /**
+     * Opens the session.
+     * @param session the session
+     * @param warm whether to reuse the model kept warm for the path of the session
+     */
+    private void open(Session session, boolean warm) {
 
         // save previous session
         sessionHistory.push(model().getSession());
 
-        close(false);
+        EditorModel warmModel = warm ? takeWarm(session.path()) : null;
+        leave();
+        if (warmModel != null) {
+            model = warmModel;
+            model.setSize(getWidth(), getHeight());
+            context.opened(session.path());
+            nameProperty.setValue(model.query(Query.modelName));
+        } else {
+            load(session);
+        }
+    }
+
+    /**
+     * Leaves the current model, keeping it warm if it can be reused as it is.
+     */
+    private void leave() {
+        var contentPath = model.query(Query.contentPath);
+        boolean reusable = contentPath.isPresent() && follow == null
+            && !model.query(Query.modified)
+            && (openTask == null || openTask.isDone());
+        if (!reusable) {
+            close(false);
+            return;
+        }
+        context.closed(contentPath.get());
+        EditorModel evicted = warmModels.push(model);
+        if (evicted != null) evicted.close();
+    }
+
+    /**
+     * Takes the warm model of the specified path, if it is up to date with the file.
+     * @param path the path
+     * @return the warm model, or {@code null}
+     */
+    private EditorModel takeWarm(Path path) {
+        if (path == null) return null;
+        EditorModel warm = warmModels.stream()
+            .filter(m -> m.query(Query.contentPath).filter(path::equals).isPresent())
+            .findFirst().orElse(null);
+        if (warm == null) return null;
+        warmModels.remove(warm);
+        var current = Files.lastModifiedTime(path);
+        if (current == null || warm.query(Query.lastModifiedTime)
+                .map(m -> m.compareTo(current) != 0).orElse(true)) {
+            // the file has been changed since left
+            warm.close();
+            return null;
+        }
+        return warm;
+    }
+
+    private void closeWarmModels() {
+        warmModels.forEach(EditorModel::close);
+        warmModels.clear();
+    }
+
+    private void load(Session session) {
+
+        long size = Files.size(session.path());
+        boolean openInBackground = size > BACKGROUND_THRESHOLD;
+        boolean mapped = size > MAPPED_THRESHOLD;
+        if (mapped && EditorModel.progressive(session.path())) {
+            loadProgressive(session, size);
+            return;
+        }
+
         model = openInBackground
             ? EditorModel.placeholderOf(session.path(), draw.fontMetrics(), scroll, context)
             : model.with(session);
         model.setSize(getWidth(), getHeight());
+        notifyConflict();
         nameProperty.setValue(model.query(Query.modelName));
         if (openInBackground) {
-            Task<EditorModel> task = buildOpenTask(session);
+            final EditorModel placeholder = model;
+            Task<EditorModel> task = buildOpenTask(session, mapped);
+            // the placeholder grows while the file is indexed, so repaint it as the loading proceeds
+            task.progressProperty().addListener((_, _, _) -> {
+                if (model == placeholder) paintPulse.request();
+            });
             floatBar.handleProgress(task);
             var thread = new Thread(task);
             thread.setDaemon(true);
             thread.start();
+        } else {
+            context.memoryBudget().enforce();
         }
     }
 
-    private Task<EditorModel> buildOpenTask(Session session) {
+    /**
+     * Loads the huge file as a progressive read-only view, which is usable immediately.
+     * The view is the final model, so the file is indexed only once.
+     * @param session the session
+     * @param size the size of the file
+     */
+    private void loadProgressive(Session session, long size) {
+        final long start = System.currentTimeMillis();
+        AtomicLong workDone = new AtomicLong();
+        CountDownLatch indexed = new CountDownLatch(1);
+        model = EditorModel.progressiveOf(session.path(), draw.fontMetrics(), scroll, context, n -> {
+            if (workDone.addAndGet(n) >= size) indexed.countDown();
+        });
+        model.setSize(getWidth(), getHeight());
+        nameProperty.setValue(model.query(Query.modelName));
+        final EditorModel progressive = model;
+        Task<EditorModel> task = new Task<>() {
+            @Override
+            protected EditorModel call() throws InterruptedException {
+                while (!indexed.await(100, TimeUnit.MILLISECONDS)) {
+                    if (isCancelled()) return null;
+                    updateProgress(workDone.get(), size);
+                }
+                updateProgress(size, size);
+                return progressive;
+            }
+        };
+        // the view grows while indexing, so repaint it as the loading proceeds
+        task.progressProperty().addListener((_, _, _) -> {
+            if (model == progressive) paintPulse.request();
+        });
+        task.setOnSucceeded(_ -> {
+            if (model != progressive) return;
+            log.log(System.Logger.Level.INFO, "opened %,d rows in %,d ms"
+                .formatted(model.query(Query.rowSize), System.currentTimeMillis() - start));
+            context.memoryBudget().enforce();
+        });
+        openTask = task;
+        floatBar.handleProgress(task);
+        var thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Task<EditorModel> buildOpenTask(Session session, boolean mapped) {
         final long size = Files.size(session.path());
         final long start = System.currentTimeMillis();
+        final EditorModel previous = model();
         AtomicLong workDone = new AtomicLong();
         Task<EditorModel> task = new Task<>() {
             @Override
             protected EditorModel call() {
-                return EditorModel.of(session.path(),
-                    draw.fontMetrics(), scroll, context,
-                    n -> updateProgress(workDone.addAndGet(n), size));
+                EditorModel loaded = mapped
+                    ? EditorModel.mappedOf(session.path(),
+                        draw.fontMetrics(), scroll, context,
+                        n -> updateProgress(workDone.addAndGet(n), size))
+                    : EditorModel.of(session.path(),
+                        draw.fontMetrics(), scroll, context,
+                        n -> updateProgress(workDone.addAndGet(n), size));
+                // the pane has been closed while loading
+                if (isCancelled()) {
+                    loaded.query(Query.contentPath).ifPresent(context::closed);
+                    loaded.close();
+                }
+                return loaded;
             }
         };
         task.setOnSucceeded(_ -> {
             model = task.getValue();
             model.setSize(getWidth(), getHeight());
+            // keep the position the user has scrolled to in the previous read-only view
+            Session current = previous.getSession();
+            model.apply(Action.goTo(current.caretRow()));
+            model.scrollAt(current.topLine());
+            // the previous view is opened on the same path, so it is closed in pairs
+            previous.query(Query.contentPath).ifPresent(context::closed);
+            previous.close();
             nameProperty.setValue(model.query(Query.modelName));
             log.log(System.Logger.Level.INFO, "opened %,d rows in %,d ms"
                 .formatted(model.query(Query.rowSize), System.currentTimeMillis() - start));
+            context.memoryBudget().enforce();
         });
+        openTask = task;
         return task;
     }
 
+    private void openEditable() {
+        var path = model().query(Query.contentPath);
+        if (path.isEmpty() || !canClose()) return;
+        // the current read-only view remains until the editable content is loaded
+        Task<EditorModel> task = buildOpenTask(Session.of(path.get()), false);
+        floatBar.handleProgress(task);
+        var thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     private EditorPane openNewEdit() {
         var newEdit = new EditorPane(context);
         TabContainer.find(this).addNext(newEdit);
@@ -564,16 +837,19 @@ public class EditorPane extends ContentPane {
 
     @Override
     boolean needsCloseConfirmation() {
+        if (hibernated != null) return hibernated.hasAltPath() && hibernated.hasPath();
         return model().query(Query.modified) && model().query(Query.contentPath).isPresent();
     }
 
     @Override
     boolean canClose() {
         boolean canDiscard = true;
-        if (model().query(Query.modified)) {
+        // a hibernated pane is confirmed without rehydrating its stash
+        boolean modified = (hibernated != null) ? hibernated.hasAltPath() : model().query(Query.modified);
+        if (modified) {
             var ret = FxDialog.confirmation(getScene().getWindow(),
                     "Are you sure you want to discard your changes?\n" +
-                    model().query(Query.modelName).plain() + " has been modified.")
+                    nameProperty.get().plain() + " has been modified.")
                 .showAndWait();
             canDiscard = ret.isPresent() && ret.get() == ButtonType.OK;
         }
@@ -582,8 +858,18 @@ public class EditorPane extends ContentPane {
 
     @Override
     Optional<Session> close(boolean force) {
+        if (force) {
+            context.memoryBudget().removed(this);
+            closeWarmModels();
+        }
+        if (hibernated != null && (force || !hibernated.hasAltPath())) {
+            return closeHibernated();
+        }
+        rehydrate();
         EditorModel model = model();
         if (model == null) return Optional.empty();
+        if (openTask != null && !openTask.isDone()) openTask.cancel();
+        stopFollow();
         Optional<Session> restorableSession;
         var contentPath = model.query(Query.contentPath);
         if (contentPath.isPresent()) {
@@ -600,12 +886,137 @@ public class EditorPane extends ContentPane {
         return restorableSession;
     }
 
+    private Optional<Session> closeHibernated() {
+        Session session = hibernated;
+        hibernated = null;
+        if (!session.hasPath()) {
+            return Optional.of(session);
+        }
+        // as with an active pane, the changes confirmed to be discarded are not restored
+        if (session.hasAltPath()) Files.deleteQuietly(session.altPath());
+        return Optional.of(Session.of(session.path(), session.lastModifiedTime(), null, "",
+            session.charset(), session.readonly(),
+            session.topLine(), session.lineWidth(), session.caretRow(), session.caretCol()));
+    }
+
+    /**
+     * Hibernates the model to a session, to release the memory of an inactive pane.
+     * A modified content is written to a stash, and the model is rehydrated on activation.
+     * The models kept warm for the navigation are closed as well.
+     * @return the bytes of the footprint released, {@code 0} if not hibernated
+     */
+    long hibernate() {
+        if (hibernated != null || follow != null || showing()
+            || (openTask != null && !openTask.isDone())) return 0;
+        long footprint = footprint();
+        boolean modified = model.query(Query.modified);
+        boolean hasPath = model.query(Query.contentPath).isPresent();
+        closeWarmModels();
+        if (modified || hasPath) {
+            Session session = modified ? model.stash() : model.getSession();
+            if (!session.isEmpty()) {
+                model.query(Query.contentPath).ifPresent(context::closed);
+                model.close();
+                model = EditorModel.of(draw.fontMetrics(), scroll, context);
+                hibernated = session;
+            }
+        }
+        return footprint - footprint();
+    }
+
+    /**
+     * Get the estimated heap footprint of the model.
+     * @return the footprint in bytes, {@code 0} if hibernated
+     */
+    long footprint() {
+        long footprint = (hibernated != null) ? 0 : model.query(Query.footprint);
+        for (EditorModel warm : warmModels) footprint += warm.query(Query.footprint);
+        return footprint;
+    }
+
+    /**
+     * Rehydrates the hibernated model, before the model is operated on.
+     */
+    private void rehydrate() {
+        if (hibernated == null) return;
+        Session session = hibernated;
+        hibernated = null;
+        if (session.hasAltPath() || !Files.exists(session.path())) {
+            model = model.with(session);
+            model.setSize(getWidth(), getHeight());
+            nameProperty.setValue(model.query(Query.modelName));
+            notifyConflict();
+        } else {
+            load(session);
+        }
+        paintPulse.request();
+    }
+
+    /**
+     * Recovers the unsaved changes of the session left by a crash, if this pane shows the same file.
+     * The changes are restored into the content shared with this pane, instead of another tab.
+     * @param session the session left by a crash
+     * @return {@code true} if recovered into this pane
+     */
+    boolean recover(Session session) {
+        Path path = (hibernated != null) ? hibernated.path() : model.query(Query.contentPath).orElse(null);
+        if (!session.hasPath() || !session.path().equals(path)) return false;
+        rehydrate();
+        if (openTask != null && !openTask.isDone()) return false;
+        EditorModel previous = model;
+        // the view of the session is acquired before the previous one is closed, so the buffer is kept
+        model = model.with(session);
+        model.setSize(getWidth(), getHeight());
+        previous.close();
+        nameProperty.setValue(model.query(Query.modelName));
+        notifyConflict();
+        paintPulse.request();
+        return true;
+    }
+
+    /**
+     * Notifies the stashed edits that could not be restored, as the file has changed since.
+     */
+    private void notifyConflict() {
+        Path journal = model.query(Query.journalConflict);
+        if (journal != null) {
+            context.notifier().send("The file has changed since the edits were stashed",
+                "The edits are kept in " + journal);
+        }
+    }
+
+    private boolean showing() {
+        if (getScene() == null) return false;
+        for (Node node = this; node != null; node = node.getParent()) {
+            if (!node.isVisible()) return false;
+        }
+        return true;
+    }
+
     void forward() {
-        sessionHistory.forward().ifPresent(session -> { if (canClose()) open(session); });
+        rehydrate();
+        sessionHistory.forward().ifPresent(session -> { if (canClose()) open(session, true); });
     }
 
     void backward() {
-        sessionHistory.backward().ifPresent(session -> { if (canClose()) open(session); });
+        rehydrate();
+        sessionHistory.backward().ifPresent(session -> { if (canClose()) open(session, true); });
+    }
+
+    @Override
+    Optional<Session> autosave(Executor writer) {
+        if (hibernated != null) {
+            // the stash of the hibernated model is already written out
+            return hibernated.hasAltPath() ? Optional.of(hibernated) : Optional.empty();
+        }
+        EditorModel model = model();
+        long revision = model.query(Query.revision);
+        if (autosaved == null || autosavedModel != model || autosavedRevision != revision) {
+            autosaved = model.getSession(Session.autosave(writer, Platform::runLater));
+            autosavedModel = model;
+            autosavedRevision = revision;
+        }
+        return autosaved.isEmpty() ? Optional.empty() : Optional.of(autosaved);
     }
 
     Optional<Session> session() {
@@ -646,7 +1057,11 @@ public class EditorPane extends ContentPane {
     }
 
     private void reload(Charset charset) {
-        model.reload(charset);
+        try {
+            model.reload(charset);
+        } catch (IllegalArgumentException e) {
+            context.notifier().send(e.getMessage());
+        }
     }
 
     private EditorPane newEditStage() {
@@ -691,10 +1106,17 @@ public class EditorPane extends ContentPane {
 
     SessionHistory sessionHistory() { return sessionHistory; }
 
-    private EditorModel model() { return model; }
+    private EditorModel model() {
+        return model;
+    }
 
     @Override
     public void refreshIfNeeded() {
+        if (hibernated != null) return;
+        if (follow != null) {
+            followTail();
+            return;
+        }
         var contentPath = model().query(Query.contentPath);
         if (contentPath.isPresent()) {
             var current = Files.lastModifiedTime(contentPath.get());
@@ -706,6 +1128,15 @@ public class EditorPane extends ContentPane {
         }
     }
 
+    @Override
+    void changed(FileWatcher.Changes changes) {
+        if (hibernated != null) return;
+        var contentPath = model().query(Query.contentPath);
+        if (contentPath.isPresent() && changes.affects(contentPath.get())) {
+            refreshIfNeeded();
+        }
+    }
+
     <R> R query(Query<R> query) {
         return model().query(query);
     }
@@ -760,15 +1191,24 @@ public class EditorPane extends ContentPane {
 
     private EditorPane binary() {
         return new EditorPane(context)
-            .with(model().getSession(Session.binary(model().stash().altPath())));
+            .with(model().getSession(Session.binary(null)));
     }
 
     void openRecent() {
+        rehydrate();
         var window = getScene().getWindow();
         SelectOneMenu.of(context.recents(), this::selectOrOpen)
             .show(window, window.getX(), window.getY() + 55);
     }
 
+    private void quickOpen() {
+        var dir = model().query(Query.contentPath)
+            .orElse(Path.of(System.getProperty("user.dir")));
+        new QuickOpenPalette(this, PathIndex.of(PathIndex.workspaceOf(dir)))
+            .select()
+            .ifPresent(this::selectOrOpen);
+    }
+
     private void openInFiler(Path path) {
         if (path != null && Files.isReadableDirectory(path.getParent())) {
             context.getApp().getHostServices().showDocument(path.getParent().toUri().toString());
@@ -23,14 +23,17 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -60,6 +63,7 @@ public class FindInFilesPane extends BorderPane {
     private final TextField dirField;
     private final Button choseDirButton;
     private final Button findButton;
+    private final CheckBox gzipCheck;
     private final TableView<SearchResult> resultsTable;
     private final ObservableList<SearchResult> results = FXCollections.observableArrayList();
     private final ProgressBar progressBar;
@@ -77,6 +81,8 @@ public class FindInFilesPane extends BorderPane {
         choseDirButton = new Button("...");
         findButton = new Button("Find");
         findButton.setDefaultButton(true);
+        gzipCheck = new CheckBox(".gz");
+        gzipCheck.setTooltip(new Tooltip("Search inside gzip-compressed files"));
         resultsTable = buildResultsTable();
         progressBar = new ProgressBar(0);
         progressBar.setVisible(false);
@@ -85,7 +91,8 @@ public class FindInFilesPane extends BorderPane {
         HBox difBox = new HBox(dirField, choseDirButton);
         HBox.setHgrow(dirField, Priority.ALWAYS);
 
-        HBox inputBox = new HBox(2, searchField, difBox, findButton);
+        HBox inputBox = new HBox(2, searchField, difBox, gzipCheck, findButton);
+        inputBox.setAlignment(Pos.CENTER_LEFT);
         inputBox.setPadding(new Insets(0, 2, 0, 2));
         HBox.setHgrow(searchField, Priority.SOMETIMES);
         HBox.setHgrow(difBox, Priority.ALWAYS);
@@ -146,7 +153,7 @@ public class FindInFilesPane extends BorderPane {
         progressBar.setProgress(-1);
         progressBar.setVisible(true);
 
-        Future<?> future = FindInFiles.run(root, pattern, list -> {
+        Future<?> future = FindInFiles.run(root, pattern, gzipCheck.isSelected(), list -> {
             var ret = list.stream()
                 .map(r -> new SearchResult(r.path(), r.line(), r.col(), r.text(), r.snippet()))
                 .toList();
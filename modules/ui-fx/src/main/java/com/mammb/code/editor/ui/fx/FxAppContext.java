@@ -26,6 +26,8 @@ public class FxAppContext extends AppContext {
 
     /** The application. */
     private final Application app;
+    /** The memory budget of the editor panes. */
+    private final MemoryBudget memoryBudget;
 
     /**
      * Constructor.
@@ -34,6 +36,7 @@ public class FxAppContext extends AppContext {
     public FxAppContext(Application app) {
         super();
         this.app = app;
+        this.memoryBudget = new MemoryBudget(config().tabMemoryBudget() * 1024 * 1024);
     }
 
     /**
@@ -44,4 +47,12 @@ public class FxAppContext extends AppContext {
         return app;
     }
 
+    /**
+     * Get the memory budget of the editor panes.
+     * @return the memory budget
+     */
+    MemoryBudget memoryBudget() {
+        return memoryBudget;
+    }
+
 }
@@ -15,9 +15,11 @@
  */
 package com.mammb.code.editor.ui.fx;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import com.mammb.code.editor.core.TabStop;
 import javafx.scene.text.Font;
 import com.mammb.code.editor.core.FontMetrics;
@@ -47,8 +49,8 @@ public class FxFontMetrics implements FontMetrics {
     private final FontResource resource;
     /** The glyph mapper. */
     private final CharToGlyphMapper mapper;
-    /** The cache of advance. */
-    private final Map<Integer, Float> advanceCache = new ConcurrentHashMap<>();
+    /** The advance table shared by the font metrics of the same font. */
+    private final AdvanceTable advanceTable;
     /** The tab stop. */
     private TabStop tabStop = TabStop.DEFAULT;
 
@@ -66,6 +68,7 @@ public class FxFontMetrics implements FontMetrics {
             smoothingType == FontSmoothingType.GRAY ? FontResource.AA_GREYSCALE : FontResource.AA_LCD);
         this.resource = strike.getFontResource();
         this.mapper  = resource.getGlyphMapper();
+        this.advanceTable = AdvanceTable.of(font, smoothingType);
         this.standardCharWidth = getAdvance("0");
     }
 
@@ -126,8 +129,17 @@ public class FxFontMetrics implements FontMetrics {
 
     @Override
     public double getAdvance(int codePoint) {
-        return advanceCache.computeIfAbsent(codePoint,
-                cp -> resource.getAdvance(mapper.charToGlyph(cp), strike.getSize()));
+        float advance = advanceTable.get(codePoint);
+        if (Float.isNaN(advance)) {
+            advance = resource.getAdvance(mapper.charToGlyph(codePoint), strike.getSize());
+            advanceTable.put(codePoint, advance);
+        }
+        return advance;
+    }
+
+    @Override
+    public double getMeasuredAdvance(int codePoint) {
+        return advanceTable.get(codePoint);
     }
 
     @Override
@@ -140,4 +152,72 @@ public class FxFontMetrics implements FontMetrics {
         tabStop = new TabStop(size);
     }
 
+    /**
+     * The table of advances shared among the font metrics of the same font, size and smoothing type.
+     * The BMP code points are held in lazily allocated pages of primitive arrays,
+     * and only supplementary code points fall back to the map.
+     */
+    private static class AdvanceTable {
+
+        /** The shared tables. */
+        private static final Map<Key, AdvanceTable> tables = new ConcurrentHashMap<>();
+        /** The number of code points in a page. */
+        private static final int PAGE_SIZE = 256;
+
+        /** The pages of BMP advances. */
+        private final AtomicReferenceArray<float[]> pages = new AtomicReferenceArray<>((Character.MAX_VALUE + 1) / PAGE_SIZE);
+        /** The advances of supplementary code points. */
+        private final Map<Integer, Float> supplementary = new ConcurrentHashMap<>();
+
+        /** The key of the table. */
+        private record Key(String name, double size, FontSmoothingType smoothingType) { }
+
+        /**
+         * Get the shared advance table for the specified font.
+         * @param font the font
+         * @param smoothingType the smoothing type
+         * @return the advance table
+         */
+        static AdvanceTable of(Font font, FontSmoothingType smoothingType) {
+            return tables.computeIfAbsent(
+                new Key(font.getName(), font.getSize(), smoothingType),
+                _ -> new AdvanceTable());
+        }
+
+        /**
+         * Get the advance of the specified code point.
+         * @param codePoint the code point
+         * @return the advance, {@code NaN} if not yet cached
+         */
+        float get(int codePoint) {
+            if (codePoint <= Character.MAX_VALUE) {
+                float[] page = pages.get(codePoint / PAGE_SIZE);
+                return (page == null) ? Float.NaN : page[codePoint % PAGE_SIZE];
+            }
+            Float advance = supplementary.get(codePoint);
+            return (advance == null) ? Float.NaN : advance;
+        }
+
+        /**
+         * Put the advance of the specified code point.
+         * @param codePoint the code point
+         * @param advance the advance
+         */
+        void put(int codePoint, float advance) {
+            if (codePoint <= Character.MAX_VALUE) {
+                float[] page = pages.get(codePoint / PAGE_SIZE);
+                if (page == null) {
+                    float[] newPage = new float[PAGE_SIZE];
+                    Arrays.fill(newPage, Float.NaN);
+                    page = pages.compareAndSet(codePoint / PAGE_SIZE, null, newPage)
+                        ? newPage
+                        : pages.get(codePoint / PAGE_SIZE);
+                }
+                page[codePoint % PAGE_SIZE] = advance;
+            } else {
+                supplementary.put(codePoint, advance);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.ui.fx;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SequencedSet;
+
+/**
+ * The memory budget of the editor panes.
+ * <p>
+ * The panes are tracked in the order of their activation. When the estimated
+ * footprint of the panes exceeds the budget, the least recently used panes
+ * are hibernated to a session, and are rehydrated on activation.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+class MemoryBudget {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(MemoryBudget.class.getName());
+
+    /** The budget in bytes, {@code 0} if unlimited. */
+    private final long budget;
+    /** The panes, in the order from the least recently used. */
+    private final SequencedSet<EditorPane> panes = new LinkedHashSet<>();
+
+    /**
+     * Constructor.
+     * @param budget the budget in bytes, {@code 0} if unlimited
+     */
+    MemoryBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Marks the pane as the most recently used, and enforces the budget.
+     * @param pane the activated pane
+     */
+    void activated(EditorPane pane) {
+        panes.remove(pane);
+        panes.addLast(pane);
+        enforce();
+    }
+
+    /**
+     * Stops tracking the closed pane.
+     * @param pane the closed pane
+     */
+    void removed(EditorPane pane) {
+        panes.remove(pane);
+    }
+
+    /**
+     * Hibernates the least recently used panes while the footprint exceeds the budget.
+     */
+    void enforce() {
+        if (budget <= 0) return;
+        long total = total();
+        if (total <= budget) return;
+        List<EditorPane> candidates = new ArrayList<>(panes);
+        // the most recently used pane is never hibernated
+        candidates.removeLast();
+        for (EditorPane pane : candidates) {
+            if (total <= budget) break;
+            if (pane.footprint() <= 0) continue;
+            long freed = pane.hibernate();
+            if (freed > 0) {
+                // a buffer shared with another pane is then accounted by that pane
+                total = total();
+                log.log(System.Logger.Level.INFO, "hibernated {0} ({1,number,#,###} bytes)",
+                    pane.nameProperty().get().plain(), freed);
+            }
+        }
+    }
+
+    private long total() {
+        long total = 0;
+        for (EditorPane pane : panes) total += pane.footprint();
+        return total;
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package com.mammb.code.editor.ui.fx;
 
+import java.util.function.BooleanSupplier;
 import javafx.animation.AnimationTimer;
 
 /**
@@ -31,12 +32,25 @@ public class PaintPulse extends AnimationTimer {
 
     private final Runnable paint;
 
+    private final BooleanSupplier needsPaint;
+
     /**
      * Constructor.
      * @param paint the paint runnable
      */
     public PaintPulse(Runnable paint) {
+        this(paint, () -> false);
+    }
+
+    /**
+     * Constructor.
+     * @param paint the paint runnable
+     * @param needsPaint whether the paint is needed without request,
+     *     such as when edited through another view
+     */
+    public PaintPulse(Runnable paint, BooleanSupplier needsPaint) {
         this.paint = paint;
+        this.needsPaint = needsPaint;
     }
 
     /**
@@ -49,7 +63,7 @@ public class PaintPulse extends AnimationTimer {
 
     @Override
     public void handle(long now) {
-        if (dirty) {
+        if (dirty || needsPaint.getAsBoolean()) {
             paint.run();
             dirty = false;
         }
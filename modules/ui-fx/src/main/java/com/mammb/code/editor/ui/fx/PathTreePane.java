@@ -15,6 +15,7 @@
  */
 package com.mammb.code.editor.ui.fx;
 
+import com.mammb.code.editor.core.FileWatcher;
 import com.mammb.code.editor.core.Name;
 import com.mammb.code.editor.core.Session;
 import javafx.beans.property.ReadOnlyObjectProperty;
@@ -75,4 +76,9 @@ public class PathTreePane extends ContentPane {
     void refreshIfNeeded() {
 
     }
+
+    @Override
+    void changed(FileWatcher.Changes changes) {
+        pathTreeView.changed(changes);
+    }
 }
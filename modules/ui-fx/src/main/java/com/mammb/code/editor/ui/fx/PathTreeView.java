@@ -15,9 +15,11 @@
  */
 package com.mammb.code.editor.ui.fx;
 
+import com.mammb.code.editor.core.FileWatcher;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonType;
@@ -37,17 +39,24 @@ import javafx.scene.input.TransferMode;
 import javafx.scene.shape.SVGPath;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -64,12 +73,49 @@ public class PathTreeView extends TreeView<Path> {
     private final List<Consumer<Path>> selectActions = new ArrayList<>();
     private final BooleanProperty compactFolders = new SimpleBooleanProperty(this, "compactFolders", true);
 
+    /** The order of the tree items, directories first and the loading item last. */
+    static final Comparator<TreeItem<Path>> ITEM_ORDER = Comparator
+        .comparing((TreeItem<Path> t) -> t instanceof LoadingTreeItem)
+        .thenComparing(t -> !(t instanceof PathTreeItem p ? p.isDirectory() : Files.isDirectory(t.getValue())))
+        .thenComparing(t -> t.getValue().getFileName().toString());
+
+    /** The order of the listed entries, directories first. */
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+        .comparing((Entry e) -> !e.directory())
+        .thenComparing(e -> e.path().getFileName().toString());
+
+    /** The time to wait for the listings of a pulse before showing the loading item, one frame. */
+    private static final long SYNC_BUDGET_MILLIS = 16;
+    /** The interval at which the listed entries are published to the tree. */
+    private static final long BATCH_MILLIS = 100;
+
+    /** Releases the watches of the items removed from the tree. */
+    private static final ListChangeListener<TreeItem<Path>> RELEASE = c -> {
+        Set<TreeItem<Path>> present = null;
+        while (c.next()) {
+            if (!c.wasRemoved()) continue;
+            for (TreeItem<Path> item : c.getRemoved()) {
+                if (!(item instanceof PathTreeItem pathItem)) continue;
+                if (present == null) {
+                    // the items may be re-added, as in the merge of the listed entries
+                    present = Collections.newSetFromMap(new IdentityHashMap<>());
+                    present.addAll(c.getList());
+                }
+                if (!present.contains(item)) pathItem.release();
+            }
+        }
+    };
+
+    /** The deadline of the listings waited in the current pulse, in nanos, {@code 0} if not started. */
+    private static long syncDeadline;
+
     private boolean cellEditable = false;
     /** The currently "cut" item, managed at the TreeView level to avoid static state. */
     private TreeItem<Path> cutItem = null;
 
     public PathTreeView(Path... roots) {
         super(new TreeItem<>());
+        getRoot().getChildren().addListener(RELEASE);
         setShowRoot(false);
         setEditable(true);
         for (Path root : roots) addRoot(root);
@@ -77,7 +123,8 @@ public class PathTreeView extends TreeView<Path> {
         setCellFactory(_ -> new PathTreeCell(this));
         getSelectionModel().selectedItemProperty().addListener(
             (_, _, item) -> {
-                if (item != null && item.getValue() != null && !selectActions.isEmpty()) {
+                if (item != null && item.getValue() != null && !(item instanceof LoadingTreeItem)
+                        && !selectActions.isEmpty()) {
                     selectActions.forEach(action -> action.accept(item.getValue()));
                 }
             });
@@ -122,9 +169,7 @@ public class PathTreeView extends TreeView<Path> {
         }
         PathTreeItem item = new PathTreeItem(path, isCompactFolders());
         getRoot().getChildren().add(item);
-        getRoot().getChildren().sort(Comparator
-            .comparing((TreeItem<Path> p) -> !Files.isDirectory(p.getValue()))
-            .thenComparing(t -> t.getValue().getFileName().toString()));
+        getRoot().getChildren().sort(ITEM_ORDER);
     }
 
     /**
@@ -152,6 +197,30 @@ public class PathTreeView extends TreeView<Path> {
         }
     }
 
+    /**
+     * Applies the changes on the file system to the loaded directories.
+     * Only the changed entries are added or removed, and only the directories
+     * whose events were lost are listed again.
+     * @param changes the changes posted by the file watcher
+     */
+    public void changed(FileWatcher.Changes changes) {
+        Map<Path, PathTreeItem> loaded = new HashMap<>();
+        for (TreeItem<Path> item : getRoot().getChildren()) {
+            if (item instanceof PathTreeItem pathItem) {
+                pathItem.collectLoaded(loaded);
+            }
+        }
+        for (Path path : changes.overflowed()) {
+            PathTreeItem dir = loaded.get(path);
+            if (dir != null) dir.relist();
+        }
+        for (Path path : changes.paths()) {
+            if (changes.overflowed().contains(path.getParent())) continue;
+            PathTreeItem parent = loaded.get(path.getParent());
+            if (parent != null) parent.changed(path);
+        }
+    }
+
     public boolean isCompactFolders() {
         return compactFolders.get();
     }
@@ -180,20 +249,47 @@ public class PathTreeView extends TreeView<Path> {
 
     /**
      * A TreeItem that represents a Path and loads its children on demand.
+     * <p>
+     * The children are listed on a virtual thread. A listing that completes within
+     * {@link #SYNC_BUDGET_MILLIS}, shared by the listings of a pulse, is applied at once,
+     * and otherwise a loading item is shown
+     * while the children are streamed into the tree in sorted batches.
+     * The attributes of each entry are read once, and cached in the item.
+     * </p>
      */
     static class PathTreeItem extends TreeItem<Path> {
 
         private boolean loaded = false;
         private boolean compact;
+        /** Whether the path is a directory, cached to avoid repeated syscalls. */
+        private final boolean directory;
+        /** The listing in progress, {@code null} if not listing. */
+        private Listing listing;
+        /** The expansion states to be restored once the listing completes. */
+        private Map<Path, Boolean> pendingStates;
+        /** Whether the path is watched, while expanded in the tree. */
+        private boolean watched;
 
         public PathTreeItem(Path value, boolean compact) {
+            this(value, compact, Files.isDirectory(value));
+        }
+
+        PathTreeItem(Path value, boolean compact, boolean directory) {
             super(value);
             this.compact = compact;
+            this.directory = directory;
+            // watch the expanded directories, to keep the tree current
+            expandedProperty().addListener((_, _, expanded) -> watch(expanded));
+            super.getChildren().addListener(RELEASE);
         }
 
         @Override
         public boolean isLeaf() {
-            return !Files.isDirectory(getValue());
+            return !directory;
+        }
+
+        boolean isDirectory() {
+            return directory;
         }
 
         @Override
@@ -212,57 +308,164 @@ public class PathTreeView extends TreeView<Path> {
         public void refresh(boolean newCompact) {
             this.compact = newCompact;
             if (loaded) {
+                if (listing != null) listing.cancel();
+                listing = null;
                 super.getChildren().clear();
                 buildChildren();
             }
         }
 
+        /**
+         * Adds or removes the child of the changed path.
+         * @param path the changed path, whose parent is this item
+         */
+        void changed(Path path) {
+            var children = super.getChildren();
+            boolean exists = Files.exists(path);
+            if (!exists) {
+                children.removeIf(child -> path.equals(child.getValue())
+                    || child instanceof CompactPathTreeItem c && path.equals(c.getStartPath()));
+                return;
+            }
+            if (hasChild(path)) return;
+            var item = new PathTreeItem(path, compact);
+            if (item.isDirectory() && compact) {
+                // a compacted chain may change, so the directory is listed again
+                relist();
+                return;
+            }
+            int i = 0;
+            while (i < children.size() && ITEM_ORDER.compare(children.get(i), item) < 0) i++;
+            children.add(i, item);
+        }
+
+        /**
+         * Releases the watches of this subtree, removed from the tree.
+         * Uses super.getChildren() to avoid triggering lazy loading of unvisited nodes.
+         */
+        void release() {
+            if (listing != null) listing.cancel();
+            listing = null;
+            watch(false);
+            for (TreeItem<Path> child : super.getChildren()) {
+                if (child instanceof PathTreeItem pathChild) {
+                    pathChild.release();
+                }
+            }
+        }
+
+        private void watch(boolean watch) {
+            if (watched == watch || !directory) return;
+            watched = watch;
+            if (watch) {
+                FileWatcher.shared().watch(getValue());
+            } else {
+                FileWatcher.shared().unwatch(getValue());
+            }
+        }
+
+        /**
+         * Lists the children again, preserving the expansion state of this subtree.
+         */
+        void relist() {
+            Map<Path, Boolean> states = new HashMap<>();
+            storeExpansionState(states);
+            refresh(compact);
+            restoreExpansionState(states);
+        }
+
+        boolean hasChild(Path path) {
+            return super.getChildren().stream().anyMatch(child -> path.equals(child.getValue())
+                || child instanceof CompactPathTreeItem c && path.equals(c.getStartPath()));
+        }
+
+        /**
+         * Collects the loaded directories of this subtree.
+         * Uses super.getChildren() to avoid triggering lazy loading of unvisited nodes.
+         * @param items the loaded directories by path
+         */
+        void collectLoaded(Map<Path, PathTreeItem> items) {
+            if (!loaded) return;
+            items.put(getValue(), this);
+            if (this instanceof CompactPathTreeItem c) items.put(c.getStartPath(), this);
+            for (TreeItem<Path> child : super.getChildren()) {
+                if (child instanceof PathTreeItem pathChild) {
+                    pathChild.collectLoaded(items);
+                }
+            }
+        }
+
         private void buildChildren() {
-            if (!Files.isDirectory(getValue())) return;
-
-            try (Stream<Path> stream = Files.list(getValue())) {
-                stream.sorted(Comparator
-                        .comparing((Path p) -> !Files.isDirectory(p))
-                        .thenComparing((p -> p.getFileName().toString())))
-                    .forEach(path -> {
-                        if (Files.isDirectory(path) && compact) {
-                            super.getChildren().add(buildCompactTreeItem(path));
-                        } else {
-                            super.getChildren().add(new PathTreeItem(path, compact));
-                        }
-                    });
-            } catch (IOException e) {
-                log.log(System.Logger.Level.ERROR, e);
+            if (!directory) return;
+            var listing = new Listing(getValue(), compact);
+            Thread.ofVirtual().name("path-listing").start(listing);
+            if (listing.await(syncBudget())) {
+                addSorted(listing.drain());
+                return;
             }
+            this.listing = listing;
+            super.getChildren().add(new LoadingTreeItem(getValue()));
+            listing.onProgress(() -> Platform.runLater(() -> drain(listing)));
         }
 
-        private TreeItem<Path> buildCompactTreeItem(final Path path) {
-            List<Path> chain = new ArrayList<>();
-            chain.add(path);
-            Path current = path;
+        /**
+         * Get the remaining time to wait for a listing in the current pulse.
+         * The listings of an expansion or a refresh together block the FX thread for at most one frame.
+         * @return the remaining time, in nanos
+         */
+        private static long syncBudget() {
+            long now = System.nanoTime();
+            if (syncDeadline == 0) {
+                syncDeadline = now + TimeUnit.MILLISECONDS.toNanos(SYNC_BUDGET_MILLIS);
+                Platform.runLater(() -> syncDeadline = 0);
+            }
+            return Math.max(0, syncDeadline - now);
+        }
 
-            while (true) {
-                try (Stream<Path> stream = Files.list(current)) {
-                    List<Path> children = stream.toList();
-                    if (children.size() == 1 && Files.isDirectory(children.getFirst())) {
-                        current = children.getFirst();
-                        chain.add(current);
-                    } else {
-                        break;
-                    }
-                } catch (IOException e) {
-                    break;
+        private void drain(Listing listing) {
+            // the listing may have been replaced by a refresh
+            if (this.listing != listing) return;
+            boolean done = listing.isDone();
+            addSorted(listing.drain());
+            if (done) {
+                this.listing = null;
+                super.getChildren().removeIf(LoadingTreeItem.class::isInstance);
+                if (pendingStates != null) {
+                    var states = pendingStates;
+                    pendingStates = null;
+                    restoreExpansionState(states);
                 }
             }
+        }
 
-            if (chain.size() > 1) {
-                String displayPath = chain.stream()
-                    .map(p -> p.getFileName().toString())
-                    .collect(Collectors.joining("/"));
-                return new CompactPathTreeItem(current, displayPath, compact, path);
-            } else {
-                return new PathTreeItem(path, compact);
+        /**
+         * Merges the sorted batch of entries into the children.
+         * @param entries the entries
+         */
+        private void addSorted(List<Entry> entries) {
+            if (entries.isEmpty()) return;
+            List<TreeItem<Path>> items = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                items.add(entry.isCompact()
+                    ? new CompactPathTreeItem(entry.end(), entry.displayPath(), compact, entry.path())
+                    : new PathTreeItem(entry.path(), compact, entry.directory()));
             }
+            var children = super.getChildren();
+            if (children.isEmpty()) {
+                children.setAll(items);
+                return;
+            }
+            List<TreeItem<Path>> merged = new ArrayList<>(children.size() + items.size());
+            int i = 0, j = 0;
+            while (i < children.size() || j < items.size()) {
+                if (j >= items.size() || (i < children.size()
+                        && ITEM_ORDER.compare(children.get(i), items.get(j)) <= 0)) {
+                    merged.add(children.get(i++));
+                } else {
+                    merged.add(items.get(j++));
+                }
+            }
+            children.setAll(merged);
         }
 
         /** Recursively stores the expansion state of this node and its children.
@@ -292,6 +495,10 @@ public class PathTreeView extends TreeView<Path> {
                             pathChild.restoreExpansionState(states);
                         }
                     }
+                    if (listing != null) {
+                        // the rest of the children are restored once listed
+                        pendingStates = states;
+                    }
                 }
             }
         }
@@ -305,7 +512,7 @@ public class PathTreeView extends TreeView<Path> {
         private final Path startPath;
 
         public CompactPathTreeItem(Path value, String displayPath, boolean compact, Path startPath) {
-            super(value, compact);
+            super(value, compact, true);
             this.displayPath = displayPath;
             this.startPath = startPath;
         }
@@ -319,6 +526,145 @@ public class PathTreeView extends TreeView<Path> {
         }
     }
 
+    /**
+     * A placeholder item shown while the children of the directory are being listed.
+     */
+    static class LoadingTreeItem extends TreeItem<Path> {
+        LoadingTreeItem(Path dir) {
+            super(dir);
+        }
+    }
+
+    /**
+     * The listed entry of a directory.
+     * @param path the path of the entry, or the start of the compacted chain
+     * @param directory whether the entry is a directory
+     * @param end the end of the compacted chain, or the path itself
+     * @param displayPath the display path of the compacted chain, or {@code null}
+     */
+    record Entry(Path path, boolean directory, Path end, String displayPath) {
+        boolean isCompact() {
+            return displayPath != null;
+        }
+    }
+
+    /**
+     * The listing of a directory, run on a virtual thread.
+     * The entries are published in sorted batches at most every {@link #BATCH_MILLIS}.
+     */
+    static class Listing implements Runnable {
+
+        private final Path dir;
+        private final boolean compact;
+        private final CountDownLatch done = new CountDownLatch(1);
+        /** The listed entries not yet drained, guarded by this. */
+        private List<Entry> pending = new ArrayList<>();
+        private volatile Runnable progress;
+        private volatile boolean cancelled;
+
+        Listing(Path dir, boolean compact) {
+            this.dir = dir;
+            this.compact = compact;
+        }
+
+        @Override
+        public void run() {
+            long last = System.currentTimeMillis();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path path : stream) {
+                    if (cancelled) return;
+                    Entry entry = entryOf(path);
+                    synchronized (this) {
+                        pending.add(entry);
+                    }
+                    long now = System.currentTimeMillis();
+                    if (now - last >= BATCH_MILLIS) {
+                        last = now;
+                        notifyProgress();
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                log.log(System.Logger.Level.ERROR, e);
+            } finally {
+                done.countDown();
+                notifyProgress();
+            }
+        }
+
+        private Entry entryOf(Path path) {
+            boolean directory;
+            try {
+                directory = Files.readAttributes(path, BasicFileAttributes.class).isDirectory();
+            } catch (IOException e) {
+                directory = false;
+            }
+            if (!directory || !compact) {
+                return new Entry(path, directory, path, null);
+            }
+            // follow the chain of single-child directories
+            Path current = path;
+            List<String> names = new ArrayList<>(List.of(path.getFileName().toString()));
+            for (;;) {
+                try (Stream<Path> stream = Files.list(current)) {
+                    List<Path> children = stream.limit(2).toList();
+                    if (children.size() == 1 && Files.isDirectory(children.getFirst())) {
+                        current = children.getFirst();
+                        names.add(current.getFileName().toString());
+                    } else {
+                        break;
+                    }
+                } catch (IOException e) {
+                    break;
+                }
+            }
+            return (names.size() > 1)
+                ? new Entry(path, true, current, String.join("/", names))
+                : new Entry(path, true, path, null);
+        }
+
+        private void notifyProgress() {
+            Runnable r = progress;
+            if (r != null) r.run();
+        }
+
+        /**
+         * Set the callback called on the listing thread as the entries are listed.
+         * @param progress the callback
+         */
+        void onProgress(Runnable progress) {
+            this.progress = progress;
+            if (isDone()) progress.run();
+        }
+
+        boolean await(long nanos) {
+            try {
+                return done.await(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Drain the listed entries, in sorted order.
+         * @return the sorted entries
+         */
+        synchronized List<Entry> drain() {
+            List<Entry> ret = pending;
+            pending = new ArrayList<>();
+            ret.sort(ENTRY_ORDER);
+            return ret;
+        }
+    }
+
 
     /**
      * The TreeCell responsible for rendering a Path and handling UI events.
@@ -337,7 +683,7 @@ public class PathTreeView extends TreeView<Path> {
 
         @Override
         public void startEdit() {
-            if (!treeView.cellEditable) return;
+            if (!treeView.cellEditable || getTreeItem() instanceof LoadingTreeItem) return;
             super.startEdit();
             if (getItem() == null) return;
 
@@ -391,9 +737,15 @@ public class PathTreeView extends TreeView<Path> {
                     }
                     setText(null);
                     setGraphic(textField);
+                } else if (getTreeItem() instanceof LoadingTreeItem) {
+                    setText("Loading…");
+                    setGraphic(null);
+                    setContextMenu(null);
                 } else {
                     setText(getTreeItem() instanceof CompactPathTreeItem c ? c.getDisplayPath() : item.getFileName().toString());
-                    setGraphic(Files.isDirectory(item) ? folder() : file());
+                    setGraphic(getTreeItem() instanceof PathTreeItem p
+                        ? (p.isDirectory() ? folder() : file())
+                        : Files.isDirectory(item) ? folder() : file());
                     setContextMenu(buildContextMenu());
                 }
             }
@@ -526,9 +878,7 @@ public class PathTreeView extends TreeView<Path> {
 
                 PathTreeItem newItem = new PathTreeItem(newPath, treeView.isCompactFolders());
                 parentItem.getChildren().add(newItem);
-                parentItem.getChildren().sort(Comparator
-                    .comparing((TreeItem<Path> p) -> !Files.isDirectory(p.getValue()))
-                    .thenComparing(t -> t.getValue().getFileName().toString()));
+                parentItem.getChildren().sort(ITEM_ORDER);
 
                 Platform.runLater(() -> treeView.getSelectionModel().select(newItem));
 
@@ -663,9 +1013,7 @@ public class PathTreeView extends TreeView<Path> {
                     currentInsertionPoint = newSegmentItem;
                 }
             }
-            parent.getChildren().sort(Comparator
-                .comparing((TreeItem<Path> p) -> !Files.isDirectory(p.getValue()))
-                .thenComparing(t -> t.getValue().getFileName().toString()));
+            parent.getChildren().sort(ITEM_ORDER);
         }
 
         void removeRoot(TreeItem<Path> item) {
@@ -745,9 +1093,7 @@ public class PathTreeView extends TreeView<Path> {
             }
 
             // sort roots
-            treeView.getRoot().getChildren().sort(Comparator
-                .comparing((TreeItem<Path> p) -> !Files.isDirectory(p.getValue()))
-                .thenComparing(t -> t.getValue().getFileName().toString()));
+            treeView.getRoot().getChildren().sort(ITEM_ORDER);
 
             // restore expansion states
             newItem.restoreExpansionState(expansionStates);
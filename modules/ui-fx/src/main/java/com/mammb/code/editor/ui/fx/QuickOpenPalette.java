@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mammb.code.editor.ui.fx;
+
+import com.mammb.code.editor.core.PathIndex;
+import com.mammb.code.editor.core.Theme;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.DialogPane;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.stage.StageStyle;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static javafx.scene.input.KeyCode.DOWN;
+import static javafx.scene.input.KeyCode.ENTER;
+import static javafx.scene.input.KeyCode.ESCAPE;
+import static javafx.scene.input.KeyCode.UP;
+
+/**
+ * The quick open palette, which opens a file in the workspace by fuzzy name.
+ * <p>
+ * Each keystroke searches the {@link PathIndex} on a virtual thread,
+ * and only the result of the latest query is shown.
+ * </p>
+ * @author Naotsugu Kobayashi
+ */
+public class QuickOpenPalette extends Dialog<Path> {
+
+    /** The logger. */
+    private static final System.Logger log = System.getLogger(QuickOpenPalette.class.getName());
+
+    /** The maximum number of the listed matches. */
+    private static final int LIMIT = 50;
+    /** The result of no selection, as a dialog without buttons is closed only with a result. */
+    private static final Path NONE = Path.of("");
+
+    /** The path index. */
+    private final PathIndex index;
+    /** The query text field. */
+    private final TextField textField;
+    /** The list of the matches. */
+    private final ListView<PathIndex.Match> listView;
+    /** The sequence of the queries, to discard stale results. */
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * Constructor.
+     * @param node the owner node
+     * @param index the path index
+     */
+    public QuickOpenPalette(Node node, PathIndex index) {
+        super();
+        this.index = index;
+        this.textField = new TextField();
+        this.listView = new ListView<>();
+
+        initOwner(node.getScene().getWindow());
+        initStyle(StageStyle.TRANSPARENT);
+
+        var bounds = node.localToScreen(node.getBoundsInLocal());
+        var width = Math.max(bounds.getWidth() * 2 / 3, 450);
+        setOnShowing(_ -> {
+            setX(bounds.getMinX() + (bounds.getWidth() - width) / 2);
+            setY(bounds.getMinY() + bounds.getHeight() * 1 / 5);
+        });
+
+        textField.setPromptText(" <enter file name> ");
+        textField.setStyle("""
+            -fx-background-color: derive(-fx-control-inner-background,10%);
+            -fx-padding: 0.333333em 0.583em 0.333333em 0.2em;
+            -fx-prompt-text-fill:gray;
+            """);
+        textField.textProperty().addListener((_, _, text) -> search(text));
+        textField.setOnKeyPressed(e -> {
+            var selection = listView.getSelectionModel();
+            if (e.getCode() == ESCAPE) {
+                setResult(NONE);
+                close();
+                e.consume();
+            } else if (e.getCode() == ENTER) {
+                var match = selection.getSelectedItem();
+                setResult(match == null ? NONE : match.path());
+                close();
+                e.consume();
+            } else if (e.getCode() == DOWN) {
+                selection.selectNext();
+                listView.scrollTo(selection.getSelectedIndex());
+                e.consume();
+            } else if (e.getCode() == UP) {
+                selection.selectPrevious();
+                listView.scrollTo(selection.getSelectedIndex());
+                e.consume();
+            }
+        });
+
+        Color textColor = Color.web(Theme.current.fgColor().web());
+        listView.setFocusTraversable(false);
+        listView.setPrefHeight(320);
+        listView.setCellFactory(_ -> new ListCell<>() {
+            @Override
+            protected void updateItem(PathIndex.Match item, boolean empty) {
+                super.updateItem(item, empty);
+                setText((empty || item == null) ? null : item.relative());
+                setTextFill(textColor);
+            }
+        });
+        listView.setOnMouseClicked(e -> {
+            var match = listView.getSelectionModel().getSelectedItem();
+            if (e.getClickCount() == 2 && match != null) {
+                setResult(match.path());
+                close();
+            }
+        });
+
+        var box = new HBox(Icons.terminal(), new Label(" "), textField);
+        HBox.setHgrow(textField, Priority.ALWAYS);
+        box.setStyle("-fx-alignment: CENTER;");
+        var vbox = new VBox(box, listView);
+        vbox.setPrefWidth(width);
+        vbox.setStyle("""
+            -fx-background-color: derive(-fx-control-inner-background,10%);
+            -fx-background-radius: 4;
+            -fx-padding: 0.5em;
+            -fx-spacing: 4;
+            -fx-border-radius: 4;
+            -fx-border-style: solid;
+            -fx-border-color: -fx-light-text-color;
+            """);
+
+        DialogPane pane = getDialogPane();
+        pane.setContent(vbox);
+        pane.setPadding(Insets.EMPTY);
+        pane.getStyleClass().add("app-command-palette-dialog-pane");
+
+        search("");
+        if (!index.await(0)) {
+            // refresh the matches once the index is built
+            Thread.ofVirtual().start(() -> {
+                if (index.await(Long.MAX_VALUE)) {
+                    Platform.runLater(() -> search(textField.getText()));
+                }
+            });
+        }
+    }
+
+    /**
+     * Shows the palette, and waits for the selection.
+     * @return the selected path
+     */
+    public Optional<Path> select() {
+        return showAndWait().filter(path -> path != NONE);
+    }
+
+    private void search(String text) {
+        long n = seq.incrementAndGet();
+        Thread.ofVirtual().start(() -> {
+            List<PathIndex.Match> matches = index.search(text, LIMIT);
+            Platform.runLater(() -> {
+                if (seq.get() != n) return;
+                listView.getItems().setAll(matches);
+                if (!matches.isEmpty()) listView.getSelectionModel().selectFirst();
+            });
+        });
+    }
+
+}
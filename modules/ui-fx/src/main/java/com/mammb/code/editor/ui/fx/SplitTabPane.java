@@ -176,6 +176,25 @@ public class SplitTabPane extends StackPane implements Hierarchical<SplitTabPane
         return true;
     }
 
+    /**
+     * Opens the path in a new tab of the active tab pane, or selects the tab if already open.
+     * If the active tab pane is not of this pane, the first tab pane of this pane is used,
+     * and a new tab pane is added if there is none.
+     * @param path the path
+     */
+    public void open(Path path) {
+        var panes = dndTabPanes(root());
+        DndTabPane target = activePane.get();
+        if (target == null || !panes.contains(target)) {
+            target = panes.isEmpty() ? null : panes.getFirst();
+        }
+        if (target != null) {
+            target.selectOrOpen(path);
+        } else if (path != null) {
+            root().add(defaultContentPaneFactory.apply(path));
+        }
+    }
+
     public List<ContentPane> contentPanes() {
         return tabs(root()).stream()
             .map(Tab::getContent)
@@ -225,6 +244,27 @@ public class SplitTabPane extends StackPane implements Hierarchical<SplitTabPane
         return list;
     }
 
+    private static List<DndTabPane> dndTabPanes(Node parent) {
+
+        if (parent == null) return Collections.emptyList();
+        List<DndTabPane> list = new ArrayList<>();
+
+        List<Node> children = (parent instanceof SplitPane splitPane)
+            ? splitPane.getItems()
+            : (parent instanceof Pane pane)
+                ? pane.getChildren()
+                : List.of(parent);
+
+        for (Node node : children) {
+            if (node instanceof DndTabPane dnd) {
+                list.add(dnd);
+            } else if (node instanceof SplitPane || node instanceof Pane) {
+                list.addAll(dndTabPanes(node));
+            }
+        }
+        return list;
+    }
+
     // ------------------------------------------------------------------------
 
     /**